@@ -0,0 +1,77 @@
+package com.abhishek.realtimeinsighthub.controller;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.abhishek.realtimeinsighthub.dto.SentimentDataDto;
+import com.abhishek.realtimeinsighthub.dto.StockDataDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// STOMP payload conversion of `window` updates per symbol, as done by WebSocketController;
+// the channel drops the messages so only conversion and header setup are measured
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WebSocketPayloadBenchmark {
+
+    private static final Instant T0 = Instant.parse("2025-01-02T14:30:00Z");
+
+    @Param({"10", "100"})
+    int symbols;
+
+    @Param({"10", "100"})
+    int window;
+
+    private WebSocketController controller;
+    private List<StockDataDto> ticks;
+    private List<SentimentDataDto> sentiments;
+    // keeps the converted messages observable
+    private volatile Object lastMessage;
+
+    @Setup
+    public void setUp() {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        SimpMessagingTemplate template = new SimpMessagingTemplate((message, timeout) -> {
+            lastMessage = message;
+            return true;
+        });
+        template.setMessageConverter(converter);
+        controller = new WebSocketController(template);
+
+        ticks = new ArrayList<>(symbols * window);
+        sentiments = new ArrayList<>(symbols * window);
+        for (int s = 0; s < symbols; s++) {
+            for (int i = 0; i < window; i++) {
+                ticks.add(new StockDataDto(T0.plusSeconds(i), "SYM" + s, BigDecimal.valueOf(18_984 + i, 2)));
+                sentiments.add(new SentimentDataDto(T0.plusSeconds(i), "SYM" + s, "positive", 0.42));
+            }
+        }
+    }
+
+    @Benchmark
+    public void stockUpdates() {
+        for (StockDataDto tick : ticks) controller.sendStockUpdate(tick);
+    }
+
+    @Benchmark
+    public void sentimentUpdates() {
+        for (SentimentDataDto sentiment : sentiments) controller.sendSentimentUpdate(sentiment);
+    }
+}
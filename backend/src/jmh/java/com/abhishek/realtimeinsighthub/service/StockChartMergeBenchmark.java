@@ -0,0 +1,79 @@
+package com.abhishek.realtimeinsighthub.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.abhishek.realtimeinsighthub.dto.PricePoint;
+import com.abhishek.realtimeinsighthub.dto.SentimentPoint;
+import com.abhishek.realtimeinsighthub.service.live.TickRingBuffer;
+
+// chart assembly for `symbols` charts of `window` ticks each, one sentiment per ten ticks
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StockChartMergeBenchmark {
+
+    private static final Instant T0 = Instant.parse("2025-01-02T14:30:00Z");
+
+    @Param({"1", "10", "100"})
+    int symbols;
+
+    @Param({"100", "1000", "10000"})
+    int window;
+
+    private List<List<PricePoint>> prices;
+    private List<List<SentimentPoint>> sentiments;
+    private TickRingBuffer[] buffers;
+
+    @Setup
+    public void setUp() {
+        prices = new ArrayList<>(symbols);
+        sentiments = new ArrayList<>(symbols);
+        buffers = new TickRingBuffer[symbols];
+        for (int s = 0; s < symbols; s++) {
+            List<PricePoint> p = new ArrayList<>(window);
+            List<SentimentPoint> n = new ArrayList<>(window / 10 + 1);
+            TickRingBuffer buffer = new TickRingBuffer(window, 0);
+            for (int i = 0; i < window; i++) {
+                PricePoint price = new PricePoint(T0.plusSeconds(i), BigDecimal.valueOf(10_000 + i % 500, 2));
+                p.add(price);
+                buffer.appendPrice(price.getTimestamp().toEpochMilli(), price.getPrice());
+                if (i % 10 == 5) {
+                    SentimentPoint sentiment = new SentimentPoint(T0.plusSeconds(i), "positive", 0.4);
+                    n.add(sentiment);
+                    buffer.appendSentiment(sentiment.getTimestamp().toEpochMilli(), "positive", 0.4);
+                }
+            }
+            prices.add(p);
+            sentiments.add(n);
+            buffers[s] = buffer;
+        }
+    }
+
+    @Benchmark
+    public void asOfMerge(Blackhole bh) {
+        for (int s = 0; s < symbols; s++) {
+            bh.consume(StockChartService.mergeAsOf(prices.get(s), sentiments.get(s)));
+        }
+    }
+
+    @Benchmark
+    public void liveBuffer(Blackhole bh) {
+        for (int s = 0; s < symbols; s++) {
+            bh.consume(buffers[s].chartSince(0));
+        }
+    }
+}
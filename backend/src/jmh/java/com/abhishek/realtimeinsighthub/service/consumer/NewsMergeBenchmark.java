@@ -0,0 +1,50 @@
+package com.abhishek.realtimeinsighthub.service.consumer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+
+// merging a batch of `window` headlines per symbol, every other pair sharing a timestamp
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NewsMergeBenchmark {
+
+    private static final Instant T0 = Instant.parse("2025-01-02T14:30:00Z");
+
+    @Param({"1", "10", "100"})
+    int symbols;
+
+    @Param({"10", "100", "1000"})
+    int window;
+
+    private List<NewsDataDto> batch;
+
+    @Setup
+    public void setUp() {
+        batch = new ArrayList<>(symbols * window);
+        for (int s = 0; s < symbols; s++) {
+            for (int i = 0; i < window; i++) {
+                batch.add(new NewsDataDto(T0.plusSeconds(i / 2), "SYM" + s,
+                    "Headline " + i + " about SYM" + s + " beats quarterly revenue estimates"));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<NewsDataDto> mergeNewsWithEqualTimestamp() {
+        return SentimentDataConsumer.mergeNewsWithEqualTimestamp(batch);
+    }
+}
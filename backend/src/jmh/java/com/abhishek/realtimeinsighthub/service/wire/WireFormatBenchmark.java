@@ -0,0 +1,122 @@
+package com.abhishek.realtimeinsighthub.service.wire;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.StockDataDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Kafka value (de)serialization of `window` messages spread over `symbols` tickers,
+// JSON against the binary encoding
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    private static final Instant T0 = Instant.parse("2025-01-02T14:30:00Z");
+
+    @Param({"10", "100"})
+    int symbols;
+
+    @Param({"100", "1000"})
+    int window;
+
+    private MarketDataCodec jsonCodec;
+    private MarketDataCodec binaryCodec;
+    private List<StockDataDto> ticks;
+    private List<NewsDataDto> news;
+    private List<ConsumerRecord<String, byte[]>> jsonTicks;
+    private List<ConsumerRecord<String, byte[]>> binaryTicks;
+    private List<ConsumerRecord<String, byte[]>> jsonNews;
+    private List<ConsumerRecord<String, byte[]>> binaryNews;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<String> table = new ArrayList<>(symbols);
+        for (int s = 0; s < symbols; s++) table.add("SYM" + s);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        jsonCodec = new MarketDataCodec(objectMapper, table, "json");
+        binaryCodec = new MarketDataCodec(objectMapper, table, "binary");
+
+        ticks = new ArrayList<>(window);
+        news = new ArrayList<>(window);
+        jsonTicks = new ArrayList<>(window);
+        binaryTicks = new ArrayList<>(window);
+        jsonNews = new ArrayList<>(window);
+        binaryNews = new ArrayList<>(window);
+        for (int i = 0; i < window; i++) {
+            String stock = table.get(i % symbols);
+            StockDataDto tick = new StockDataDto(T0.plusMillis(i * 250L), stock, BigDecimal.valueOf(18_984 + i % 100, 2));
+            NewsDataDto headline = new NewsDataDto(T0.plusSeconds(i), stock,
+                stock + " shares rise after quarterly revenue beats analyst estimates");
+            ticks.add(tick);
+            news.add(headline);
+            jsonTicks.add(consumed(jsonCodec.stockRecord("stock-topic", tick)));
+            binaryTicks.add(consumed(binaryCodec.stockRecord("stock-topic", tick)));
+            jsonNews.add(consumed(jsonCodec.newsRecord("news-topic", headline)));
+            binaryNews.add(consumed(binaryCodec.newsRecord("news-topic", headline)));
+        }
+    }
+
+    @Benchmark
+    public void encodeStockJson(Blackhole bh) throws Exception {
+        for (StockDataDto tick : ticks) bh.consume(jsonCodec.stockRecord("stock-topic", tick));
+    }
+
+    @Benchmark
+    public void encodeStockBinary(Blackhole bh) throws Exception {
+        for (StockDataDto tick : ticks) bh.consume(binaryCodec.stockRecord("stock-topic", tick));
+    }
+
+    @Benchmark
+    public void decodeStockJson(Blackhole bh) throws Exception {
+        for (ConsumerRecord<String, byte[]> record : jsonTicks) bh.consume(jsonCodec.decodeStock(record));
+    }
+
+    @Benchmark
+    public void decodeStockBinary(Blackhole bh) throws Exception {
+        for (ConsumerRecord<String, byte[]> record : binaryTicks) bh.consume(binaryCodec.decodeStock(record));
+    }
+
+    @Benchmark
+    public void encodeNewsJson(Blackhole bh) throws Exception {
+        for (NewsDataDto headline : news) bh.consume(jsonCodec.newsRecord("news-topic", headline));
+    }
+
+    @Benchmark
+    public void encodeNewsBinary(Blackhole bh) throws Exception {
+        for (NewsDataDto headline : news) bh.consume(binaryCodec.newsRecord("news-topic", headline));
+    }
+
+    @Benchmark
+    public void decodeNewsJson(Blackhole bh) throws Exception {
+        for (ConsumerRecord<String, byte[]> record : jsonNews) bh.consume(jsonCodec.decodeNews(record));
+    }
+
+    @Benchmark
+    public void decodeNewsBinary(Blackhole bh) throws Exception {
+        for (ConsumerRecord<String, byte[]> record : binaryNews) bh.consume(binaryCodec.decodeNews(record));
+    }
+
+    private static ConsumerRecord<String, byte[]> consumed(ProducerRecord<String, byte[]> record) {
+        ConsumerRecord<String, byte[]> consumed = new ConsumerRecord<>(record.topic(), 0, 0, null, record.value());
+        record.headers().forEach(consumed.headers()::add);
+        return consumed;
+    }
+}
@@ -0,0 +1,37 @@
+package com.abhishek.realtimeinsighthub.config;
+
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+
+@Configuration
+public class KafkaListenerConfig {
+
+    // spring.kafka.listener settings, but offsets are committed only when the listener acknowledges
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> manualAckContainerFactory(
+        ConcurrentKafkaListenerContainerFactoryConfigurer configurer, ConsumerFactory<Object, Object> consumerFactory) {
+        return manualAck(configurer, consumerFactory);
+    }
+
+    // Records may be acknowledged out of order. An offset is committed once every earlier record
+    // is acknowledged, and the next poll waits until the previous one is fully acknowledged.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> asyncAckContainerFactory(
+        ConcurrentKafkaListenerContainerFactoryConfigurer configurer, ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = manualAck(configurer, consumerFactory);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+
+    private static ConcurrentKafkaListenerContainerFactory<Object, Object> manualAck(
+        ConcurrentKafkaListenerContainerFactoryConfigurer configurer, ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+        return factory;
+    }
+}
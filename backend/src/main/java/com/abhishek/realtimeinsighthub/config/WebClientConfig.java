@@ -0,0 +1,37 @@
+package com.abhishek.realtimeinsighthub.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class WebClientConfig {
+
+    // pooled keep-alive connections shared by the market data publishers
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider marketDataConnectionProvider(
+        @Value("${publisher.max-connections:64}") int maxConnections,
+        @Value("${publisher.max-idle-time:PT30S}") Duration maxIdleTime) {
+        return ConnectionProvider.builder("market-data")
+                .maxConnections(maxConnections)
+                .maxIdleTime(maxIdleTime)
+                .pendingAcquireTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @Bean
+    public HttpClient marketDataHttpClient(ConnectionProvider marketDataConnectionProvider,
+        @Value("${publisher.request-timeout:PT5S}") Duration requestTimeout) {
+        return HttpClient.create(marketDataConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) requestTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(requestTimeout);
+    }
+}
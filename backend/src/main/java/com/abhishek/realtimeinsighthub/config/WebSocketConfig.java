@@ -12,8 +12,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic/stock", "/topic/sentiment");
+        config.enableSimpleBroker("/topic/stock", "/topic/sentiment", "/topic/analytics", "/queue");
         config.setApplicationDestinationPrefixes("/api");
+        // alerts are sent to /user/queue/alerts of the principal the handshake request was authenticated as
+        config.setUserDestinationPrefix("/user");
     }
 
     @Override
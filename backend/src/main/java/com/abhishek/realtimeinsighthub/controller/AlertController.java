@@ -0,0 +1,55 @@
+package com.abhishek.realtimeinsighthub.controller;
+
+import java.security.Principal;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.abhishek.realtimeinsighthub.dto.AlertRuleRequest;
+import com.abhishek.realtimeinsighthub.entity.AlertRule;
+import com.abhishek.realtimeinsighthub.service.alert.AlertEngine;
+
+import lombok.RequiredArgsConstructor;
+
+// Rules belong to the authenticated caller; fired alerts are pushed to /user/queue/alerts of the
+// websocket sessions authenticated as the same principal
+@RestController
+@RequestMapping("/alerts")
+@RequiredArgsConstructor
+public class AlertController {
+
+    private final AlertEngine alertEngine;
+
+    @GetMapping
+    public List<AlertRule> getRules(Principal principal) {
+        return alertEngine.rules(userId(principal));
+    }
+
+    @PostMapping
+    public AlertRule register(Principal principal, @RequestBody AlertRuleRequest request) {
+        return alertEngine.register(userId(principal), request);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> remove(Principal principal, @PathVariable long id) {
+        return alertEngine.remove(userId(principal), id)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    private static String userId(Principal principal) {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Alerts require an authenticated user");
+        }
+        return principal.getName();
+    }
+}
@@ -0,0 +1,26 @@
+package com.abhishek.realtimeinsighthub.controller;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.abhishek.realtimeinsighthub.dto.MarketSnapshotDto;
+import com.abhishek.realtimeinsighthub.service.live.MarketSnapshotStore;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/market")
+@RequiredArgsConstructor
+public class MarketController {
+
+    private final MarketSnapshotStore marketSnapshotStore;
+
+    // served from memory, never touches the database
+    @GetMapping("/snapshot")
+    public List<MarketSnapshotDto> getSnapshot() {
+        return marketSnapshotStore.snapshot();
+    }
+}
@@ -1,16 +1,32 @@
 package com.abhishek.realtimeinsighthub.controller;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.abhishek.realtimeinsighthub.dto.ChartUpdateDto;
 import com.abhishek.realtimeinsighthub.dto.StockChartDto;
+import com.abhishek.realtimeinsighthub.service.ChartCursor;
 import com.abhishek.realtimeinsighthub.service.StockChartService;
+import com.abhishek.realtimeinsighthub.service.cache.CachedChart;
+import com.abhishek.realtimeinsighthub.service.cache.ChartResponseCache;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 
@@ -20,18 +36,88 @@ import lombok.RequiredArgsConstructor;
 public class StockChartController {
 
     private final StockChartService stockChartService;
+    private final ChartResponseCache chartResponseCache;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{stock}/live")
-    public List<StockChartDto> getLiveChart(@PathVariable String stock) {
+    public ResponseEntity<StreamingResponseBody> getLiveChart(@PathVariable String stock, WebRequest request) {
         // pre-fill the data and websocket keep it live
-        return stockChartService.getChartData(stock, Duration.ofHours(1));
+        return cached(stock, "live", Duration.ofHours(1), request);
+    }
+
+    // since takes the cursor of the previous update, or epoch millis, and returns only what changed after it
+    @GetMapping(value = "/{stock}/live", params = "since")
+    public ChartUpdateDto getLiveChartSince(@PathVariable String stock, @RequestParam String since) {
+        return stockChartService.getChartUpdate(stock, Duration.ofHours(1), ChartCursor.parse(since));
     }
 
     @GetMapping("/{stock}/trend")
-    public List<StockChartDto> getWeeklyChart(@PathVariable String stock,
-        @RequestParam(defaultValue = "7d") String range) {
+    public ResponseEntity<StreamingResponseBody> getWeeklyChart(@PathVariable String stock,
+        @RequestParam(defaultValue = "7d") String range, WebRequest request) {
         Duration period = parseRange(range);
-        return stockChartService.getChartData(stock, period);
+        // raw tick ranges go out as they are read, caching them would hold the whole range in memory
+        if (stockChartService.streamsRawTicks(period)) {
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noStore())
+                .body(out -> render(stock, period, out));
+        }
+        return cached(stock, range, period, request);
+    }
+
+    @GetMapping(value = "/{stock}/trend", params = "since")
+    public ChartUpdateDto getWeeklyChartSince(@PathVariable String stock,
+        @RequestParam(defaultValue = "7d") String range, @RequestParam String since) {
+        return stockChartService.getChartUpdate(stock, parseRange(range), ChartCursor.parse(since));
+    }
+
+    // one request for a watchlist, range is live or a trend range
+    @GetMapping("/compare")
+    public Map<String, List<StockChartDto>> getComparison(@RequestParam List<String> stocks,
+        @RequestParam(defaultValue = "1d") String range) {
+        Duration period = "live".equals(range) ? Duration.ofHours(1) : parseRange(range);
+        return stockChartService.getCompareData(stocks.stream().distinct().toList(), period);
+    }
+
+    // Spring leaves If-None-Match to the handler when the body is streamed; checkNotModified answers
+    // a match with 304 and sets the ETag header otherwise
+    private ResponseEntity<StreamingResponseBody> cached(String stock, String range, Duration period,
+        WebRequest request) {
+        CachedChart chart = chartResponseCache.get(stock, range, () -> render(stock, period));
+        if (request.checkNotModified(chart.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(CacheControl.noCache())
+            .body(out -> out.write(chart.body()));
+    }
+
+    private byte[] render(String stock, Duration period) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            render(stock, period, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // the array is written as the points are merged instead of being built up as objects first
+    private void render(String stock, Duration period, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartArray();
+            stockChartService.streamChartData(stock, period, point -> write(json, point));
+            json.writeEndArray();
+        }
+    }
+
+    private static void write(JsonGenerator json, StockChartDto point) {
+        try {
+            json.writeObject(point);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private Duration parseRange(String range) {
@@ -39,6 +125,9 @@ public class StockChartController {
             case "1d": return Duration.ofDays(1);
             case "7d": return Duration.ofDays(7);
             case "1m": return Duration.ofDays(30);
+            // past the 30 days kept in Postgres, older days come from the tick archive
+            case "6m": return Duration.ofDays(182);
+            case "1y": return Duration.ofDays(365);
             default: throw new IllegalArgumentException("Unsupported range: " + range);
         }
     }
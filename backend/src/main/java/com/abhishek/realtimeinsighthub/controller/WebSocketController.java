@@ -5,6 +5,8 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 
+import com.abhishek.realtimeinsighthub.dto.AlertDto;
+import com.abhishek.realtimeinsighthub.dto.AnalyticsDto;
 import com.abhishek.realtimeinsighthub.dto.SentimentDataDto;
 import com.abhishek.realtimeinsighthub.dto.StockDataDto;
 
@@ -14,17 +16,46 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class WebSocketController {
 
+    private static final String STOCK_TOPIC = "/topic/stock/";
+    private static final String SENTIMENT_TOPIC = "/topic/sentiment/";
+    private static final String ANALYTICS_TOPIC = "/topic/analytics/";
+    private static final String ALERTS_QUEUE = "/queue/alerts";
+
     @Autowired
     private final SimpMessagingTemplate messagingTemplate;
 
+    public static String stockTopic(String stock) {
+        return STOCK_TOPIC + stock;
+    }
+
+    public static String sentimentTopic(String stock) {
+        return SENTIMENT_TOPIC + stock;
+    }
+
+    public static String analyticsTopic(String stock) {
+        return ANALYTICS_TOPIC + stock;
+    }
+
+    // what a user's /user/queue/alerts subscription resolves to, see SubscriptionRegistry
+    public static String alertsDestination(String userId) {
+        return "/user/" + userId + ALERTS_QUEUE;
+    }
+
     public void sendStockUpdate(StockDataDto stockData) {
-        messagingTemplate.convertAndSend("/topic/stock", stockData);
-        System.out.println("Successfully sent stock update");
+        messagingTemplate.convertAndSend(stockTopic(stockData.getStock()), stockData);
     }
 
     public void sendSentimentUpdate(SentimentDataDto sentimentData) {
-        messagingTemplate.convertAndSend("/topic/sentiment", sentimentData);
-        System.out.println("Successfully sent sentiment update");
+        messagingTemplate.convertAndSend(sentimentTopic(sentimentData.getStock()), sentimentData);
+    }
+
+    public void sendAnalyticsUpdate(AnalyticsDto analytics) {
+        messagingTemplate.convertAndSend(analyticsTopic(analytics.getStock()), analytics);
+    }
+
+    public void sendAlert(AlertDto alert) {
+        // only the sessions authenticated as the rule's user receive it
+        messagingTemplate.convertAndSendToUser(alert.getUserId(), ALERTS_QUEUE, alert);
     }
 
     @GetMapping("/test-send")
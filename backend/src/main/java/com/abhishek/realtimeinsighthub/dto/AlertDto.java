@@ -0,0 +1,21 @@
+package com.abhishek.realtimeinsighthub.dto;
+
+import java.time.Instant;
+
+import com.abhishek.realtimeinsighthub.entity.AlertRule;
+
+import lombok.Value;
+
+// a fired rule; value is the price, percent move or compound score that crossed the threshold
+@Value
+public class AlertDto {
+    private long ruleId;
+    private String userId;
+    private String stock;
+    private AlertRule.Type type;
+    private AlertRule.Direction direction;
+    private double threshold;
+    private Integer windowSeconds;
+    private double value;
+    private Instant timestamp;
+}
@@ -0,0 +1,17 @@
+package com.abhishek.realtimeinsighthub.dto;
+
+import java.time.Duration;
+
+import com.abhishek.realtimeinsighthub.entity.AlertRule;
+
+import lombok.Value;
+
+// window is only used by PERCENT_MOVE, e.g. "PT15M"
+@Value
+public class AlertRuleRequest {
+    private String stock;
+    private AlertRule.Type type;
+    private AlertRule.Direction direction;
+    private double threshold;
+    private Duration window;
+}
@@ -0,0 +1,17 @@
+package com.abhishek.realtimeinsighthub.dto;
+
+import java.time.Instant;
+
+import lombok.Value;
+
+// rolling values over the last samples ticks, null until there is enough data for them
+@Value
+public class AnalyticsDto {
+    private String stock;
+    private Instant timestamp;
+    private Double movingAverage;
+    private Double sentimentEma;
+    private Double volatility;
+    private Double correlation;
+    private int samples;
+}
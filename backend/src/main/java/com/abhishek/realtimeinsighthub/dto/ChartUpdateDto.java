@@ -0,0 +1,14 @@
+package com.abhishek.realtimeinsighthub.dto;
+
+import java.util.List;
+
+import lombok.Value;
+
+// chart points after a cursor, the client replaces everything it holds from the first of them on;
+// analytics are the symbol's current rolling values, null before any data arrived
+@Value
+public class ChartUpdateDto {
+    private List<StockChartDto> points;
+    private String cursor;
+    private AnalyticsDto analytics;
+}
@@ -0,0 +1,20 @@
+package com.abhishek.realtimeinsighthub.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import lombok.Value;
+
+@Value
+public class MarketSnapshotDto {
+    private String stock;
+    private Instant timestamp;
+    private BigDecimal price;
+    // last price of the previous US trading day
+    private BigDecimal previousClose;
+    private BigDecimal change;
+    private Double changePercent;
+    private Instant sentimentTimestamp;
+    private String sentiment;
+    private Double compound;
+}
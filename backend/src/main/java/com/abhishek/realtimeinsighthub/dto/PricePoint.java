@@ -0,0 +1,13 @@
+package com.abhishek.realtimeinsighthub.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import lombok.Value;
+
+// timestamp and price of a tick, read without loading the entity
+@Value
+public class PricePoint {
+    private Instant timestamp;
+    private BigDecimal price;
+}
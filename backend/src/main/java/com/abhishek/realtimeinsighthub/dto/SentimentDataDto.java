@@ -2,13 +2,24 @@ package com.abhishek.realtimeinsighthub.dto;
 
 import java.time.Instant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
 import lombok.Value;
 
+// fetchedAt is when the headline was fetched upstream, only kept for the push latency metric
 @Value
+@AllArgsConstructor
 public class SentimentDataDto {
 
     private Instant timestamp;
     private String stock;
     private String sentiment;
     private double compound;
+    @JsonIgnore
+    private Instant fetchedAt;
+
+    public SentimentDataDto(Instant timestamp, String stock, String sentiment, double compound) {
+        this(timestamp, stock, sentiment, compound, null);
+    }
 }
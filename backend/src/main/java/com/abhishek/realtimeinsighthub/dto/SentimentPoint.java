@@ -0,0 +1,13 @@
+package com.abhishek.realtimeinsighthub.dto;
+
+import java.time.Instant;
+
+import lombok.Value;
+
+// label and compound score of a headline, read without loading the entity
+@Value
+public class SentimentPoint {
+    private Instant timestamp;
+    private String sentiment;
+    private Double compound;
+}
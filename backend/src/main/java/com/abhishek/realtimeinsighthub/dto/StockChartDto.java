@@ -3,12 +3,27 @@ package com.abhishek.realtimeinsighthub.dto;
 import java.math.BigDecimal;
 import java.time.Instant;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
 import lombok.Value;
 
+// price is the close of a rollup bar; open, high and low are only set on bars
 @Value
+@AllArgsConstructor
 public class StockChartDto {
     private Instant timestamp;
     private BigDecimal price;
     private String sentiment;
     private Double compound;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal open;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal high;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal low;
+
+    public StockChartDto(Instant timestamp, BigDecimal price, String sentiment, Double compound) {
+        this(timestamp, price, sentiment, compound, null, null, null);
+    }
 }
@@ -0,0 +1,18 @@
+package com.abhishek.realtimeinsighthub.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import lombok.Value;
+
+// a PricePoint with its symbol, for reads across several symbols
+@Value
+public class StockPricePoint {
+    private String stock;
+    private Instant timestamp;
+    private BigDecimal price;
+
+    public PricePoint toPoint() {
+        return new PricePoint(timestamp, price);
+    }
+}
@@ -0,0 +1,18 @@
+package com.abhishek.realtimeinsighthub.dto;
+
+import java.time.Instant;
+
+import lombok.Value;
+
+// a SentimentPoint with its symbol, for reads across several symbols
+@Value
+public class StockSentimentPoint {
+    private String stock;
+    private Instant timestamp;
+    private String sentiment;
+    private Double compound;
+
+    public SentimentPoint toPoint() {
+        return new SentimentPoint(timestamp, sentiment, compound);
+    }
+}
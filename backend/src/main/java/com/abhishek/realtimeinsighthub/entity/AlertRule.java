@@ -0,0 +1,55 @@
+package com.abhishek.realtimeinsighthub.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A user's alert. PRICE and SENTIMENT fire when the price or compound score crosses threshold in the
+// given direction; PERCENT_MOVE fires when the price rises (ABOVE) or falls (BELOW) by threshold
+// percent within windowSeconds.
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "alert_rules", indexes = @Index(name = "alert_rules_user_id_idx", columnList = "user_id"))
+public class AlertRule {
+
+    public enum Type { PRICE, PERCENT_MOVE, SENTIMENT }
+
+    public enum Direction { ABOVE, BELOW }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", length = 64, nullable = false)
+    private String userId;
+
+    @Column(length = 10, nullable = false)
+    private String stock;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8, nullable = false)
+    private Direction direction;
+
+    private double threshold;
+
+    @Column(name = "window_seconds")
+    private Integer windowSeconds;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+}
@@ -0,0 +1,81 @@
+package com.abhishek.realtimeinsighthub.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// OHLC bar plus compound sentiment stats of one symbol for one time bucket
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "price_rollups")
+public class PriceRollup {
+
+    @EmbeddedId
+    private PriceRollupId id;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal open;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal high;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal low;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal close;
+
+    // timestamps of the ticks behind open and close
+    @Column(name = "first_ts")
+    private Instant firstTs;
+
+    @Column(name = "last_ts")
+    private Instant lastTs;
+
+    @Column(name = "tick_count")
+    private int tickCount;
+
+    @Column(name = "sentiment_count")
+    private int sentimentCount;
+
+    @Column(name = "sentiment_sum")
+    private double sentimentSum;
+
+    @Column(name = "sentiment_min")
+    private Double sentimentMin;
+
+    @Column(name = "sentiment_max")
+    private Double sentimentMax;
+
+    public void addTick(Instant ts, BigDecimal price) {
+        if (firstTs == null || ts.isBefore(firstTs)) {
+            firstTs = ts;
+            open = price;
+        }
+        if (lastTs == null || !ts.isBefore(lastTs)) {
+            lastTs = ts;
+            close = price;
+        }
+        high = high == null ? price : high.max(price);
+        low = low == null ? price : low.min(price);
+        tickCount++;
+    }
+
+    public void addSentiment(double compound) {
+        sentimentSum += compound;
+        sentimentMin = sentimentMin == null ? compound : Math.min(sentimentMin, compound);
+        sentimentMax = sentimentMax == null ? compound : Math.max(sentimentMax, compound);
+        sentimentCount++;
+    }
+
+    public Double getSentimentMean() {
+        return sentimentCount > 0 ? sentimentSum / sentimentCount : null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.abhishek.realtimeinsighthub.entity;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceRollupId implements Serializable {
+
+    @Column(length = 10)
+    private String stock;
+
+    @Column(name = "resolution_seconds")
+    private Integer resolutionSeconds;
+
+    @Column(name = "bucket_start")
+    private Instant bucketStart;
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,7 +19,8 @@ import lombok.NoArgsConstructor;
 public class Sentiment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sentiments_seq")
+    @SequenceGenerator(name = "sentiments_seq", sequenceName = "sentiments_seq", allocationSize = 50)
     private Long id;
 
     private Instant timestamp;
@@ -26,6 +28,10 @@ public class Sentiment {
     @Column(length = 10)
     private String stock;
 
+    // first 8 bytes of SHA-256 over symbol and headline text, unique with stock and timestamp
+    @Column(name = "headline_hash")
+    private Long headlineHash;
+
     private String sentiment;
 
     @Column(name = "neg_score")
@@ -39,4 +45,8 @@ public class Sentiment {
 
     @Column(name = "compound_score")
     private Double compoundScore;
+
+    // when the score was written, headlines often arrive well after their timestamp
+    @Column(name = "ingested_at")
+    private Instant ingestedAt;
 }
@@ -0,0 +1,13 @@
+package com.abhishek.realtimeinsighthub.repo;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.abhishek.realtimeinsighthub.entity.AlertRule;
+
+@Repository
+public interface AlertRuleRepo extends JpaRepository<AlertRule, Long> {
+    List<AlertRule> findByUserIdOrderByIdAsc(String userId);
+}
@@ -1,18 +1,55 @@
 package com.abhishek.realtimeinsighthub.repo;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.abhishek.realtimeinsighthub.dto.PricePoint;
+import com.abhishek.realtimeinsighthub.dto.StockPricePoint;
 import com.abhishek.realtimeinsighthub.entity.Price;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PriceRepo extends JpaRepository<Price, Long> {
     List<Price> findByStockOrderByTimestampAsc(String stock);
     
-    List<Price> findByStockAndTimestampAfterOrderByTimestampAsc(String stock, Instant after);
+    // forward-only cursor over every symbol, must be consumed inside a transaction and closed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.abhishek.realtimeinsighthub.dto.StockPricePoint(p.stock, p.timestamp, p.price) from Price p "
+        + "where p.timestamp > :after order by p.timestamp asc")
+    Stream<StockPricePoint> streamPointsAfter(Instant after);
+
+    // forward-only cursor, must be consumed inside a transaction and closed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.abhishek.realtimeinsighthub.dto.PricePoint(p.timestamp, p.price) from Price p "
+        + "where p.stock = :stock and p.timestamp > :after order by p.timestamp asc")
+    Stream<PricePoint> streamPoints(String stock, Instant after);
+
+    @Query("select new com.abhishek.realtimeinsighthub.dto.PricePoint(p.timestamp, p.price) from Price p "
+        + "where p.stock = :stock and p.timestamp >= :from order by p.timestamp asc")
+    List<PricePoint> findPoints(String stock, Instant from);
+
+    @Query("select new com.abhishek.realtimeinsighthub.dto.PricePoint(p.timestamp, p.price) from Price p "
+        + "where p.stock = :stock and p.timestamp > :after order by p.timestamp asc")
+    List<PricePoint> findPointsAfter(String stock, Instant after);
+
+    @Query("select new com.abhishek.realtimeinsighthub.dto.StockPricePoint(p.stock, p.timestamp, p.price) from Price p "
+        + "where p.stock in :stocks and p.timestamp > :after order by p.stock asc, p.timestamp asc")
+    List<StockPricePoint> findPointsAfter(Collection<String> stocks, Instant after);
 
-    int deleteByTimestampBefore(Instant cutoff);
+    boolean existsByStockAndTimestampAfter(String stock, Instant after);
 }
@@ -0,0 +1,28 @@
+package com.abhishek.realtimeinsighthub.repo;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.abhishek.realtimeinsighthub.entity.PriceRollup;
+import com.abhishek.realtimeinsighthub.entity.PriceRollupId;
+
+@Repository
+public interface PriceRollupRepo extends JpaRepository<PriceRollup, PriceRollupId> {
+
+    @Query("select r from PriceRollup r where r.id.stock = :stock and r.id.resolutionSeconds = :resolutionSeconds "
+        + "and r.id.bucketStart >= :from order by r.id.bucketStart asc")
+    List<PriceRollup> findBars(String stock, int resolutionSeconds, Instant from);
+
+    @Query("select r from PriceRollup r where r.id.stock = :stock and r.id.resolutionSeconds = :resolutionSeconds "
+        + "and r.id.bucketStart >= :from and r.id.bucketStart < :to order by r.id.bucketStart asc")
+    List<PriceRollup> findBars(String stock, int resolutionSeconds, Instant from, Instant to);
+
+    @Query("select r from PriceRollup r where r.id.stock in :stocks and r.id.resolutionSeconds = :resolutionSeconds "
+        + "and r.id.bucketStart >= :from order by r.id.stock asc, r.id.bucketStart asc")
+    List<PriceRollup> findBars(Collection<String> stocks, int resolutionSeconds, Instant from);
+}
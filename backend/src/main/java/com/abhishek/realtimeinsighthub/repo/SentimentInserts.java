@@ -0,0 +1,13 @@
+package com.abhishek.realtimeinsighthub.repo;
+
+import java.util.List;
+
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+
+// JDBC fragment of SentimentRepo, see SentimentInsertsImpl
+public interface SentimentInserts {
+
+    // Rows whose (stock, headline_hash, timestamp) is already stored are skipped. Only the rows
+    // written get an id.
+    void insertNew(List<Sentiment> sentiments);
+}
@@ -0,0 +1,75 @@
+package com.abhishek.realtimeinsighthub.repo;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+
+// One multi-row INSERT ... ON CONFLICT DO NOTHING per chunk, the unique index on (stock,
+// headline_hash, timestamp) decides which rows are new, so concurrent writers cannot both store a
+// headline. Ids come from sentiments_seq in blocks of 50 like Hibernate's pooled optimizer.
+class SentimentInsertsImpl implements SentimentInserts {
+
+    private static final int ALLOCATION_SIZE = 50;
+    // 10 parameters per row, well below the 65535 bind parameters of one statement
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    SentimentInsertsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertNew(List<Sentiment> sentiments) {
+        for (int from = 0; from < sentiments.size(); from += ROWS_PER_STATEMENT) {
+            insert(sentiments.subList(from, Math.min(from + ROWS_PER_STATEMENT, sentiments.size())));
+        }
+    }
+
+    private void insert(List<Sentiment> sentiments) {
+        long[] ids = reserveIds(sentiments.size());
+        List<Object> args = new ArrayList<>(sentiments.size() * 10);
+        for (int i = 0; i < sentiments.size(); i++) {
+            Sentiment s = sentiments.get(i);
+            args.add(ids[i]);
+            args.add(Timestamp.from(s.getTimestamp()));
+            args.add(s.getStock());
+            args.add(s.getHeadlineHash());
+            args.add(s.getSentiment());
+            args.add(s.getNegScore());
+            args.add(s.getNeuScore());
+            args.add(s.getPosScore());
+            args.add(s.getCompoundScore());
+            args.add(s.getIngestedAt() != null ? Timestamp.from(s.getIngestedAt()) : null);
+        }
+        String sql = "INSERT INTO sentiments (id, timestamp, stock, headline_hash, sentiment, neg_score, neu_score, "
+            + "pos_score, compound_score, ingested_at) VALUES "
+            + String.join(", ", Collections.nCopies(sentiments.size(), "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"))
+            + " ON CONFLICT (stock, headline_hash, timestamp) DO NOTHING RETURNING id";
+        Set<Long> inserted = new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, args.toArray()));
+        for (int i = 0; i < sentiments.size(); i++) {
+            sentiments.get(i).setId(inserted.contains(ids[i]) ? ids[i] : null);
+        }
+    }
+
+    private long[] reserveIds(int count) {
+        int blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+        List<Long> his = jdbcTemplate.queryForList(
+            "SELECT nextval('sentiments_seq') FROM generate_series(1, ?)", Long.class, blocks);
+        long[] ids = new long[count];
+        int i = 0;
+        for (long hi : his) {
+            for (long id = hi - ALLOCATION_SIZE + 1; id <= hi && i < count; id++) {
+                ids[i++] = id;
+            }
+        }
+        return ids;
+    }
+}
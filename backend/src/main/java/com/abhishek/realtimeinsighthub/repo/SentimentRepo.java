@@ -1,18 +1,64 @@
 package com.abhishek.realtimeinsighthub.repo;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.abhishek.realtimeinsighthub.dto.SentimentPoint;
+import com.abhishek.realtimeinsighthub.dto.StockSentimentPoint;
 import com.abhishek.realtimeinsighthub.entity.Sentiment;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface SentimentRepo extends JpaRepository<Sentiment, Long> {
+public interface SentimentRepo extends JpaRepository<Sentiment, Long>, SentimentInserts {
     List<Sentiment> findByStockOrderByTimestampAsc(String stock);
 
-    List<Sentiment> findByStockAndTimestampAfterOrderByTimestampAsc(String stock, Instant after);
+    // forward-only cursor over every symbol, must be consumed inside a transaction and closed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.abhishek.realtimeinsighthub.dto.StockSentimentPoint(s.stock, s.timestamp, s.sentiment, s.compoundScore) "
+        + "from Sentiment s where s.timestamp > :after order by s.timestamp asc")
+    Stream<StockSentimentPoint> streamPointsAfter(Instant after);
+
+    // forward-only cursor, must be consumed inside a transaction and closed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.abhishek.realtimeinsighthub.dto.SentimentPoint(s.timestamp, s.sentiment, s.compoundScore) from Sentiment s "
+        + "where s.stock = :stock and s.timestamp > :after order by s.timestamp asc")
+    Stream<SentimentPoint> streamPoints(String stock, Instant after);
+
+    @Query("select new com.abhishek.realtimeinsighthub.dto.SentimentPoint(s.timestamp, s.sentiment, s.compoundScore) from Sentiment s "
+        + "where s.stock = :stock and s.timestamp >= :from order by s.timestamp asc")
+    List<SentimentPoint> findPoints(String stock, Instant from);
+
+    @Query("select new com.abhishek.realtimeinsighthub.dto.SentimentPoint(s.timestamp, s.sentiment, s.compoundScore) from Sentiment s "
+        + "where s.stock = :stock and s.timestamp > :after order by s.timestamp asc")
+    List<SentimentPoint> findPointsAfter(String stock, Instant after);
+
+    @Query("select new com.abhishek.realtimeinsighthub.dto.StockSentimentPoint(s.stock, s.timestamp, s.sentiment, s.compoundScore) "
+        + "from Sentiment s where s.stock in :stocks and s.timestamp > :after order by s.stock asc, s.timestamp asc")
+    List<StockSentimentPoint> findPointsAfter(Collection<String> stocks, Instant after);
+
+    // the sentiment in effect just before a point, pass Limit.of(1)
+    @Query("select new com.abhishek.realtimeinsighthub.dto.SentimentPoint(s.timestamp, s.sentiment, s.compoundScore) from Sentiment s "
+        + "where s.stock = :stock and s.timestamp > :after and s.timestamp < :before order by s.timestamp desc")
+    List<SentimentPoint> findLatestBetween(String stock, Instant after, Instant before, Limit limit);
 
-    int deleteByTimestampBefore(Instant cutoff);
+    // earliest timestamp among the sentiments written after ingestedAfter, null when there are none
+    @Query("select min(s.timestamp) from Sentiment s "
+        + "where s.stock = :stock and s.timestamp > :after and s.ingestedAt > :ingestedAfter")
+    Instant findEarliestIngestedAfter(String stock, Instant after, Instant ingestedAfter);
 }
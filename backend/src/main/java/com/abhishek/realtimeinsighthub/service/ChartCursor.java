@@ -0,0 +1,28 @@
+package com.abhishek.realtimeinsighthub.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// Where a chart client left off: the newest point it holds and the ingestion time up to which it
+// has seen every sentiment, both epoch millis. Written as "<timestamp>.<watermark>"; a bare
+// epoch millis value is read as both; anything else is rejected as 400 Bad Request.
+public record ChartCursor(long timestamp, long watermark) {
+
+    public static ChartCursor parse(String value) {
+        try {
+            int dot = value.indexOf('.');
+            if (dot < 0) {
+                long millis = Long.parseLong(value);
+                return new ChartCursor(millis, millis);
+            }
+            return new ChartCursor(Long.parseLong(value.substring(0, dot)), Long.parseLong(value.substring(dot + 1)));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid chart cursor: " + value, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + "." + watermark;
+    }
+}
@@ -6,8 +6,7 @@ import java.time.temporal.ChronoUnit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.abhishek.realtimeinsighthub.repo.PriceRepo;
-import com.abhishek.realtimeinsighthub.repo.SentimentRepo;
+import com.abhishek.realtimeinsighthub.service.archive.TickArchive;
 
 import lombok.RequiredArgsConstructor;
 
@@ -15,17 +14,25 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class DataCleanupService {
 
-    private final PriceRepo priceRepo;
-    private final SentimentRepo sentimentRepo;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final TickArchive tickArchive;
 
     @Scheduled(cron = "0 0 2 * * ?")
     public void cleanOldRecords() {
         Instant cutOff = Instant.now().minus(30, ChronoUnit.DAYS);
 
-        int deletedPrices = priceRepo.deleteByTimestampBefore(cutOff);
-        int deletedSentiments = sentimentRepo.deleteByTimestampBefore(cutOff);
+        // a day leaves Postgres only once it is in the archive
+        int archivedDays;
+        try {
+            archivedDays = tickArchive.archive(partitionMaintenanceService.partitionDaysBefore(cutOff));
+        } catch (Exception e) {
+            System.err.println("Cleanup skipped, archiving failed: " + e.getMessage());
+            return;
+        }
 
-        System.out.println("Cleanup done: " + deletedPrices + " prices, " 
-                            + deletedSentiments + " sentiments deleted.");
+        int droppedPartitions = partitionMaintenanceService.dropPartitionsBefore(cutOff);
+
+        System.out.println("Cleanup done: " + archivedDays + " days archived, " + droppedPartitions
+            + " daily partitions dropped.");
     }
 }
@@ -0,0 +1,51 @@
+package com.abhishek.realtimeinsighthub.service;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Runs a task on its own virtual thread, waiting delay after each run. With virtual threads on,
+// Boot's TaskScheduler runs every fixed-delay task on one shared thread, so a slow task there
+// holds up all the others.
+public final class FixedDelayLoop {
+
+    private final Thread thread;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private FixedDelayLoop(String name, Duration initialDelay, Duration delay, Runnable task) {
+        this.thread = Thread.ofVirtual().name(name).unstarted(() -> run(initialDelay, delay, task));
+    }
+
+    public static FixedDelayLoop start(String name, Duration initialDelay, Duration delay, Runnable task) {
+        FixedDelayLoop loop = new FixedDelayLoop(name, initialDelay, delay, task);
+        loop.thread.start();
+        return loop;
+    }
+
+    // a run in progress is finished first; called from the task itself it only ends the loop
+    public void stop() {
+        stopped.countDown();
+        if (Thread.currentThread() == thread) return;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(Duration initialDelay, Duration delay, Runnable task) {
+        try {
+            if (stopped.await(initialDelay.toNanos(), TimeUnit.NANOSECONDS)) return;
+            while (true) {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    System.err.println(thread.getName() + " failed: " + e.getMessage());
+                }
+                if (stopped.await(delay.toNanos(), TimeUnit.NANOSECONDS)) return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
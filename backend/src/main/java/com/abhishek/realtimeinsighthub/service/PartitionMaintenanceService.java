@@ -0,0 +1,109 @@
+package com.abhishek.realtimeinsighthub.service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Daily UTC range partitions of prices and sentiments, see schema.sql
+@Service
+public class PartitionMaintenanceService {
+
+    private static final List<String> PARTITIONED_TABLES = List.of("prices", "sentiments");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int daysAhead;
+
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate,
+        @Value("${storage.partitions.days-ahead:7}") int daysAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.daysAhead = daysAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 1 * * ?")
+    public void createUpcomingPartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        ensurePartitions(today.minusDays(1), today.plusDays(daysAhead));
+    }
+
+    public void ensurePartitions(Instant from, Instant to) {
+        ensurePartitions(LocalDate.ofInstant(from, ZoneOffset.UTC), LocalDate.ofInstant(to, ZoneOffset.UTC));
+    }
+
+    public void ensurePartitions(LocalDate from, LocalDate to) {
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            for (String table : PARTITIONED_TABLES) {
+                jdbcTemplate.queryForList("SELECT ensure_daily_partition(?, ?)", table, Date.valueOf(day));
+            }
+        }
+    }
+
+    // days of either table that dropPartitionsBefore(cutoff) would drop or delete from the default partition
+    public List<LocalDate> partitionDaysBefore(Instant cutoff) {
+        LocalDate cutoffDay = LocalDate.ofInstant(cutoff, ZoneOffset.UTC);
+        return PARTITIONED_TABLES.stream()
+            .flatMap(table -> Stream.concat(
+                partitions(table).stream().map(partition -> day(table, partition)),
+                defaultDaysBefore(table, cutoffDay).stream()))
+            .filter(day -> !day.plusDays(1).isAfter(cutoffDay))
+            .distinct()
+            .sorted()
+            .toList();
+    }
+
+    // Detaches and drops whole days that end before the cutoff; cost does not depend on row count
+    public int dropPartitionsBefore(Instant cutoff) {
+        LocalDate cutoffDay = LocalDate.ofInstant(cutoff, ZoneOffset.UTC);
+        int dropped = 0;
+        for (String table : PARTITIONED_TABLES) {
+            for (String partition : partitions(table)) {
+                LocalDate day = day(table, partition);
+                if (day.plusDays(1).isAfter(cutoffDay)) break;
+
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                dropped++;
+            }
+
+            // stray rows that landed in the default partition, archived with their day beforehand
+            jdbcTemplate.update("DELETE FROM " + table + "_default WHERE timestamp < ?",
+                Timestamp.from(cutoffDay.atStartOfDay(ZoneOffset.UTC).toInstant()));
+        }
+        return dropped;
+    }
+
+    private List<String> partitions(String table) {
+        return jdbcTemplate.queryForList("""
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = ?::regclass AND c.relname LIKE ?
+            ORDER BY c.relname
+            """, String.class, table, table + "\\_p%");
+    }
+
+    private List<LocalDate> defaultDaysBefore(String table, LocalDate cutoffDay) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT (timestamp AT TIME ZONE 'UTC')::date FROM " + table + "_default WHERE timestamp < ?",
+                Date.class, Timestamp.from(cutoffDay.atStartOfDay(ZoneOffset.UTC).toInstant()))
+            .stream()
+            .map(Date::toLocalDate)
+            .toList();
+    }
+
+    private static LocalDate day(String table, String partition) {
+        return LocalDate.parse(partition.substring(table.length() + 2), SUFFIX);
+    }
+}
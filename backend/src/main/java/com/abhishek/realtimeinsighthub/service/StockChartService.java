@@ -2,74 +2,309 @@ package com.abhishek.realtimeinsighthub.service;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
-import java.util.TreeMap;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.abhishek.realtimeinsighthub.dto.ChartUpdateDto;
+import com.abhishek.realtimeinsighthub.dto.PricePoint;
+import com.abhishek.realtimeinsighthub.dto.SentimentPoint;
 import com.abhishek.realtimeinsighthub.dto.StockChartDto;
-import com.abhishek.realtimeinsighthub.entity.Price;
-import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.dto.StockPricePoint;
+import com.abhishek.realtimeinsighthub.dto.StockSentimentPoint;
+import com.abhishek.realtimeinsighthub.entity.PriceRollup;
 import com.abhishek.realtimeinsighthub.repo.PriceRepo;
 import com.abhishek.realtimeinsighthub.repo.SentimentRepo;
-
-import lombok.RequiredArgsConstructor;
+import com.abhishek.realtimeinsighthub.service.analytics.RollingAnalytics;
+import com.abhishek.realtimeinsighthub.service.archive.TickArchive;
+import com.abhishek.realtimeinsighthub.service.live.LiveTickStore;
+import com.abhishek.realtimeinsighthub.service.rollup.RollupResolution;
+import com.abhishek.realtimeinsighthub.service.rollup.RollupService;
 
 @Service
-@RequiredArgsConstructor
 public class StockChartService {
 
+    // a sentiment can be committed a little after the ingestion time stamped on it
+    private static final Duration INGEST_GRACE = Duration.ofSeconds(5);
+
     private final PriceRepo priceRepo;
     private final SentimentRepo sentimentRepo;
+    private final LiveTickStore liveTickStore;
+    private final RollupService rollupService;
+    private final RollingAnalytics rollingAnalytics;
+    private final TickArchive tickArchive;
+    private final Duration liveWindow;
+    private final int maxCompareSymbols;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public StockChartService(PriceRepo priceRepo, SentimentRepo sentimentRepo, LiveTickStore liveTickStore,
+        RollupService rollupService, RollingAnalytics rollingAnalytics, TickArchive tickArchive,
+        PlatformTransactionManager transactionManager,
+        @Value("${chart.live.window:PT1H}") Duration liveWindow,
+        @Value("${chart.compare.max-symbols:50}") int maxCompareSymbols) {
+        this.priceRepo = priceRepo;
+        this.sentimentRepo = sentimentRepo;
+        this.liveTickStore = liveTickStore;
+        this.rollupService = rollupService;
+        this.rollingAnalytics = rollingAnalytics;
+        this.tickArchive = tickArchive;
+        this.liveWindow = liveWindow;
+        this.maxCompareSymbols = maxCompareSymbols;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
     public List<StockChartDto> getChartData(String stock, Duration period) {
-        List<Price> prices = priceRepo.findByStockAndTimestampAfterOrderByTimestampAsc(stock, period.toMillis() > 0 
+        Instant from = period.toMillis() > 0 
             ? Instant.now().minus(period) 
-            : Instant.EPOCH);
-        List<Sentiment> sentiments = sentimentRepo.findByStockAndTimestampAfterOrderByTimestampAsc(stock, period.toMillis() > 0 
-            ? Instant.now().minus(period) 
-            : Instant.EPOCH);
-        
-        if (prices.isEmpty() && !sentiments.isEmpty()) {
-            return sentiments.stream()
-                .map(s -> new StockChartDto(
-                    s.getTimestamp(),
-                    null,
-                    s.getSentiment(),
-                    s.getCompoundScore()
-                ))
-                .collect(Collectors.toList());
-        }
-
-        NavigableMap<Instant, Sentiment> sentimentMap = sentiments.stream()
-            .collect(Collectors.toMap(
-                Sentiment::getTimestamp,
-                Function.identity(),
-                (s1, s2) -> s1,
-                TreeMap::new
-            ));
+            : Instant.EPOCH;
+
+        Optional<List<StockChartDto>> live = liveTickStore.getChartData(stock, from);
+        if (live.isPresent()) {
+            return live.get();
+        }
+
+        // long ranges read pre-aggregated bars instead of every tick
+        Optional<RollupResolution> resolution = period.toMillis() > 0
+            ? rollupService.pickResolution(period)
+            : Optional.empty();
+        if (resolution.isPresent()) {
+            return barChart(stock, from, resolution.get());
+        }
+
+        List<PricePoint> prices = priceRepo.findPointsAfter(stock, from);
+        List<SentimentPoint> sentiments = sentimentRepo.findPointsAfter(stock, from);
+
+        // warm the in-memory window so the next live request skips the database
+        if (period.toMillis() > 0 && period.compareTo(liveWindow) <= 0) {
+            liveTickStore.seed(stock, from, prices, sentiments);
+        }
         
-        return prices.stream()
-            .map(p -> {
-                Instant ts = p.getTimestamp();
-                Map.Entry<Instant, Sentiment> floor = sentimentMap.floorEntry(ts);
-
-                Sentiment closest = null;
-                if (floor != null) {
-                    closest = floor.getValue();
+        return mergeAsOf(prices, sentiments);
+    }
+
+    // Charts of several symbols, keyed in request order. Symbols whose window is in memory are served
+    // from there; the rest are read with one query per table for all of them and merged in parallel.
+    public Map<String, List<StockChartDto>> getCompareData(List<String> stocks, Duration period) {
+        if (stocks.size() > maxCompareSymbols) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "At most " + maxCompareSymbols + " symbols can be compared");
+        }
+        Instant from = period.toMillis() > 0 
+            ? Instant.now().minus(period) 
+            : Instant.EPOCH;
+
+        Map<String, List<StockChartDto>> charts = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String stock : stocks) {
+            liveTickStore.getChartData(stock, from).ifPresentOrElse(
+                chart -> charts.put(stock, chart),
+                () -> missing.add(stock));
+        }
+
+        if (!missing.isEmpty()) {
+            charts.putAll(readCharts(missing, from, period));
+        }
+
+        Map<String, List<StockChartDto>> ordered = new LinkedHashMap<>();
+        stocks.forEach(stock -> ordered.put(stock, charts.getOrDefault(stock, List.of())));
+        return ordered;
+    }
+
+    private Map<String, List<StockChartDto>> readCharts(List<String> stocks, Instant from, Duration period) {
+        Optional<RollupResolution> resolution = period.toMillis() > 0
+            ? rollupService.pickResolution(period)
+            : Optional.empty();
+        if (resolution.isPresent() && reachesArchive(from)) {
+            Map<String, List<StockChartDto>> charts = new ConcurrentHashMap<>();
+            stocks.parallelStream().forEach(stock -> charts.put(stock, barChart(stock, from, resolution.get())));
+            return charts;
+        }
+        if (resolution.isPresent()) {
+            return rollupService.getChartData(stocks, from, resolution.get());
+        }
+
+        Map<String, List<PricePoint>> prices = priceRepo.findPointsAfter(stocks, from).stream()
+            .collect(Collectors.groupingBy(StockPricePoint::getStock,
+                Collectors.mapping(StockPricePoint::toPoint, Collectors.toList())));
+        Map<String, List<SentimentPoint>> sentiments = sentimentRepo.findPointsAfter(stocks, from).stream()
+            .collect(Collectors.groupingBy(StockSentimentPoint::getStock,
+                Collectors.mapping(StockSentimentPoint::toPoint, Collectors.toList())));
+        Map<String, List<StockChartDto>> charts = new ConcurrentHashMap<>();
+        stocks.parallelStream().forEach(stock -> {
+            List<PricePoint> p = prices.getOrDefault(stock, List.of());
+            List<SentimentPoint> s = sentiments.getOrDefault(stock, List.of());
+            if (period.toMillis() > 0 && period.compareTo(liveWindow) <= 0) {
+                liveTickStore.seed(stock, from, p, s);
+            }
+            charts.put(stock, mergeAsOf(p, s));
+        });
+        return charts;
+    }
+
+    // Hands the chart to sink point by point. Raw ranges are read through two database cursors
+    // and merged on the fly, so nothing proportional to the range is held in memory.
+    public void streamChartData(String stock, Duration period, Consumer<StockChartDto> sink) {
+        // the live window and rollup bars are already bounded in size
+        if (!streamsRawTicks(period)) {
+            getChartData(stock, period).forEach(sink);
+            return;
+        }
+
+        Instant from = period.toMillis() > 0 
+            ? Instant.now().minus(period) 
+            : Instant.EPOCH;
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<PricePoint> prices = priceRepo.streamPoints(stock, from);
+                Stream<SentimentPoint> sentiments = sentimentRepo.streamPoints(stock, from)) {
+                mergeAsOf(prices.iterator(), sentiments.iterator(), sink);
+            }
+        });
+    }
+
+    // ranges past the live window that no rollup resolution covers are read tick by tick
+    public boolean streamsRawTicks(Duration period) {
+        return period.toMillis() <= 0
+            || (period.compareTo(liveWindow) > 0 && rollupService.pickResolution(period).isEmpty());
+    }
+
+    // Only the points a client holding the cursor is missing: those after its newest point, and
+    // everything from the earliest sentiment that arrived late enough to change an as-of join it
+    // already drew. The result matches the tail of a full fetch of the same range.
+    public ChartUpdateDto getChartUpdate(String stock, Duration period, ChartCursor since) {
+        Instant now = Instant.now();
+        Instant from = period.toMillis() > 0 
+            ? now.minus(period) 
+            : Instant.EPOCH;
+
+        Instant start = Instant.ofEpochMilli(since.timestamp() + 1);
+        Instant late = sentimentRepo.findEarliestIngestedAfter(stock, from, Instant.ofEpochMilli(since.watermark()));
+        if (late != null && late.isBefore(start)) {
+            start = late;
+        }
+        if (start.isBefore(from)) {
+            start = from;
+        }
+
+        List<StockChartDto> points;
+        if (period.toMillis() > 0 && period.compareTo(liveWindow) <= 0) {
+            points = pointsFrom(getChartData(stock, period), start);
+        } else if (period.toMillis() > 0 && rollupService.pickResolution(period).isPresent()) {
+            // the bar holding the cursor may have grown since
+            RollupResolution resolution = rollupService.pickResolution(period).get();
+            points = pointsFrom(barChart(stock, from, resolution), resolution.bucketStart(start));
+        } else {
+            points = rawChartFrom(stock, from, start);
+        }
+
+        long newest = points.isEmpty()
+            ? since.timestamp()
+            : Math.max(since.timestamp(), points.get(points.size() - 1).getTimestamp().toEpochMilli());
+        ChartCursor next = new ChartCursor(newest, now.minus(INGEST_GRACE).toEpochMilli());
+        return new ChartUpdateDto(points, next.toString(), rollingAnalytics.get(stock).orElse(null));
+    }
+
+    // days already moved to the archive are read from its files, the rest, including older days that
+    // never were archived, from price_rollups
+    private List<StockChartDto> barChart(String stock, Instant from, RollupResolution resolution) {
+        if (!reachesArchive(from)) {
+            return rollupService.getChartData(stock, from, resolution);
+        }
+        Instant archivedUntil = tickArchive.archivedUntil().get();
+        List<PriceRollup> bars = new ArrayList<>();
+        for (TickArchive.Segment segment : tickArchive.segments(from, archivedUntil)) {
+            bars.addAll(segment.archived()
+                ? tickArchive.getBars(stock, segment.from(), segment.to(), resolution)
+                : rollupService.getBars(stock, segment.from(), segment.to(), resolution));
+        }
+        bars.addAll(rollupService.getBars(stock, archivedUntil, resolution));
+        return RollupService.toChart(bars);
+    }
+
+    private boolean reachesArchive(Instant from) {
+        return tickArchive.archivedUntil().map(from::isBefore).orElse(false);
+    }
+
+    private static List<StockChartDto> pointsFrom(List<StockChartDto> chart, Instant start) {
+        return chart.stream()
+            .filter(p -> !p.getTimestamp().isBefore(start))
+            .toList();
+    }
+
+    // the raw path from start on, joined as if the whole window from had been read
+    private List<StockChartDto> rawChartFrom(String stock, Instant from, Instant start) {
+        List<PricePoint> prices = priceRepo.findPoints(stock, start);
+        List<SentimentPoint> sentiments = sentimentRepo.findPoints(stock, start);
+        List<StockChartDto> result = new ArrayList<>();
+        if (prices.isEmpty()) {
+            // with prices earlier in the window the chart only changes when a price arrives
+            if (!priceRepo.existsByStockAndTimestampAfter(stock, from)) {
+                mergeAsOf(Collections.emptyIterator(), sentiments.iterator(), result::add);
+            }
+            return result;
+        }
+
+        List<SentimentPoint> asOf = new ArrayList<>(sentiments.size() + 1);
+        asOf.addAll(sentimentRepo.findLatestBetween(stock, from, start, Limit.of(1)));
+        asOf.addAll(sentiments);
+        mergeAsOf(prices.iterator(), asOf.iterator(), result::add);
+        return result;
+    }
+
+    static List<StockChartDto> mergeAsOf(List<PricePoint> prices, List<SentimentPoint> sentiments) {
+        List<StockChartDto> result = new ArrayList<>(prices.isEmpty() ? sentiments.size() : prices.size());
+        mergeAsOf(prices.iterator(), sentiments.iterator(), result::add);
+        return result;
+    }
+
+    // Each price with the latest sentiment at or before it, or the sentiments alone when there are no
+    // prices. Both inputs are sorted by time, so the sentiment cursor only ever moves forward.
+    static void mergeAsOf(Iterator<PricePoint> prices, Iterator<SentimentPoint> sentiments,
+        Consumer<StockChartDto> sink) {
+        if (!prices.hasNext()) {
+            while (sentiments.hasNext()) {
+                SentimentPoint s = sentiments.next();
+                sink.accept(new StockChartDto(s.getTimestamp(), null, s.getSentiment(), s.getCompound()));
+            }
+            return;
+        }
+
+        SentimentPoint current = null;
+        SentimentPoint next = sentiments.hasNext() ? sentiments.next() : null;
+        while (prices.hasNext()) {
+            PricePoint p = prices.next();
+            Instant ts = p.getTimestamp();
+            while (next != null && !next.getTimestamp().isAfter(ts)) {
+                // the first of several sentiments sharing a timestamp wins
+                if (current == null || next.getTimestamp().isAfter(current.getTimestamp())) {
+                    current = next;
                 }
+                next = sentiments.hasNext() ? sentiments.next() : null;
+            }
 
-                return new StockChartDto(
-                    ts,
-                    p.getPrice(),
-                    closest != null ? closest.getSentiment() : null,
-                    closest != null ? closest.getCompoundScore() : null
-                );
-            })
-            .collect(Collectors.toList());
+            sink.accept(new StockChartDto(
+                ts,
+                p.getPrice(),
+                current != null ? current.getSentiment() : null,
+                current != null ? current.getCompound() : null
+            ));
+        }
     }
 }
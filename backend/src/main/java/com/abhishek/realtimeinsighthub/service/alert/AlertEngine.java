@@ -0,0 +1,155 @@
+package com.abhishek.realtimeinsighthub.service.alert;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.abhishek.realtimeinsighthub.dto.AlertDto;
+import com.abhishek.realtimeinsighthub.dto.AlertRuleRequest;
+import com.abhishek.realtimeinsighthub.entity.AlertRule;
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.repo.AlertRuleRepo;
+import com.abhishek.realtimeinsighthub.service.consumer.MarketDataListener;
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+import com.abhishek.realtimeinsighthub.service.push.MarketUpdateDispatcher;
+
+// Evaluates every registered alert rule against the ticks and sentiment scores the consumers
+// persist. Rules live in the database and are indexed in memory per symbol; a rule fires each time
+// its value crosses the threshold and is pushed to /user/queue/alerts of its user.
+@Service
+public class AlertEngine implements MarketDataListener {
+
+    private static final Duration MIN_WINDOW = Duration.ofMinutes(1);
+    private static final Duration MAX_WINDOW = Duration.ofDays(1);
+
+    private final AlertRuleRepo alertRuleRepo;
+    private final MarketUpdateDispatcher marketUpdateDispatcher;
+    private final Map<String, SymbolAlerts> symbols = new ConcurrentHashMap<>();
+    private final Map<Long, AlertRule> rules = new ConcurrentHashMap<>();
+
+    public AlertEngine(AlertRuleRepo alertRuleRepo, MarketUpdateDispatcher marketUpdateDispatcher,
+        PipelineMetrics metrics) {
+        this.alertRuleRepo = alertRuleRepo;
+        this.marketUpdateDispatcher = marketUpdateDispatcher;
+        metrics.gauge("alerts.rules", "Alert rules being evaluated", rules::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            alertRuleRepo.findAll().forEach(this::index);
+            System.out.println("Alert engine loaded " + rules.size() + " rules");
+        } catch (Exception e) {
+            System.err.println("Loading alert rules failed: " + e.getMessage());
+        }
+    }
+
+    public AlertRule register(String userId, AlertRuleRequest request) {
+        AlertRule rule = new AlertRule();
+        rule.setUserId(userId);
+        rule.setStock(request.getStock());
+        rule.setType(request.getType());
+        rule.setDirection(request.getDirection());
+        rule.setThreshold(request.getThreshold());
+        rule.setWindowSeconds(request.getWindow() != null ? (int) request.getWindow().toSeconds() : null);
+        rule.setCreatedAt(Instant.now());
+        validate(rule);
+
+        AlertRule saved = alertRuleRepo.save(rule);
+        index(saved);
+        return saved;
+    }
+
+    public List<AlertRule> rules(String userId) {
+        return alertRuleRepo.findByUserIdOrderByIdAsc(userId);
+    }
+
+    public boolean remove(String userId, long id) {
+        AlertRule rule = rules.get(id);
+        if (rule == null || !rule.getUserId().equals(userId)) return false;
+        alertRuleRepo.deleteById(id);
+        rules.remove(id);
+        symbols.get(rule.getStock()).remove(rule);
+        return true;
+    }
+
+    @Override
+    public void onPrices(List<Price> prices) {
+        List<AlertDto> fired = new ArrayList<>();
+        for (Price price : prices) {
+            SymbolAlerts alerts = symbols.get(price.getStock());
+            if (alerts == null || price.getPrice() == null) continue;
+            alerts.onPrice(price.getTimestamp(), price.getPrice().doubleValue(),
+                (rule, value) -> fired.add(alert(rule, value, price.getTimestamp())));
+        }
+        // pushed outside the symbol locks
+        fired.forEach(marketUpdateDispatcher::publishAlert);
+    }
+
+    @Override
+    public void onSentiments(List<Sentiment> sentiments) {
+        List<AlertDto> fired = new ArrayList<>();
+        for (Sentiment sentiment : sentiments) {
+            SymbolAlerts alerts = symbols.get(sentiment.getStock());
+            if (alerts == null || sentiment.getCompoundScore() == null) continue;
+            alerts.onSentiment(sentiment.getCompoundScore(),
+                (rule, value) -> fired.add(alert(rule, value, sentiment.getTimestamp())));
+        }
+        fired.forEach(marketUpdateDispatcher::publishAlert);
+    }
+
+    private void index(AlertRule rule) {
+        rules.put(rule.getId(), rule);
+        symbols.computeIfAbsent(rule.getStock(), s -> new SymbolAlerts()).add(rule);
+    }
+
+    private static AlertDto alert(AlertRule rule, double value, Instant timestamp) {
+        return new AlertDto(rule.getId(), rule.getUserId(), rule.getStock(), rule.getType(), rule.getDirection(),
+            rule.getThreshold(), rule.getWindowSeconds(), value, timestamp);
+    }
+
+    private static void validate(AlertRule rule) {
+        if (rule.getStock() == null || rule.getStock().isBlank() || rule.getStock().length() > 10) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid stock: " + rule.getStock());
+        }
+        if (rule.getType() == null || rule.getDirection() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "type and direction are required");
+        }
+        switch (rule.getType()) {
+            case SENTIMENT -> {
+                if (rule.getThreshold() < -1 || rule.getThreshold() > 1) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Sentiment threshold must be between -1 and 1");
+                }
+            }
+            case PERCENT_MOVE -> {
+                if (rule.getThreshold() <= 0) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Percent move must be positive");
+                }
+                if (rule.getWindowSeconds() == null || rule.getWindowSeconds() < MIN_WINDOW.toSeconds()
+                    || rule.getWindowSeconds() > MAX_WINDOW.toSeconds()) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Window must be between " + MIN_WINDOW + " and " + MAX_WINDOW);
+                }
+            }
+            case PRICE -> {
+                if (rule.getThreshold() <= 0) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Price threshold must be positive");
+                }
+            }
+        }
+        if (rule.getType() != AlertRule.Type.PERCENT_MOVE) {
+            rule.setWindowSeconds(null);
+        }
+    }
+}
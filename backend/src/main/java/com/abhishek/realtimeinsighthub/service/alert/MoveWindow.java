@@ -0,0 +1,62 @@
+package com.abhishek.realtimeinsighthub.service.alert;
+
+import java.util.ArrayDeque;
+import java.util.function.ObjDoubleConsumer;
+
+import com.abhishek.realtimeinsighthub.entity.AlertRule;
+
+// Lowest and highest price of the last window via monotonic deques (amortized O(1) per tick), and the
+// PERCENT_MOVE rules of that window indexed by the rise from the low and the fall from the high.
+final class MoveWindow {
+
+    private record Sample(long timestamp, double price) {
+    }
+
+    private final long windowMillis;
+    private final ArrayDeque<Sample> lows = new ArrayDeque<>();
+    private final ArrayDeque<Sample> highs = new ArrayDeque<>();
+    private final ThresholdIndex rises = new ThresholdIndex();
+    private final ThresholdIndex falls = new ThresholdIndex();
+    private double rise;
+    private double fall;
+
+    MoveWindow(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    // both magnitudes are indexed as rising values
+    void add(AlertRule rule) {
+        (rule.getDirection() == AlertRule.Direction.ABOVE ? rises : falls)
+            .add(AlertRule.Direction.ABOVE, rule.getThreshold(), rule);
+    }
+
+    void remove(AlertRule rule) {
+        (rule.getDirection() == AlertRule.Direction.ABOVE ? rises : falls)
+            .remove(AlertRule.Direction.ABOVE, rule.getThreshold(), rule);
+    }
+
+    boolean isEmpty() {
+        return rises.isEmpty() && falls.isEmpty();
+    }
+
+    // fired gets each crossed rule with the percent move that crossed it
+    void onPrice(long timestamp, double price, ObjDoubleConsumer<AlertRule> fired) {
+        Sample sample = new Sample(timestamp, price);
+        while (!lows.isEmpty() && lows.peekLast().price() >= price) lows.pollLast();
+        lows.addLast(sample);
+        while (!highs.isEmpty() && highs.peekLast().price() <= price) highs.pollLast();
+        highs.addLast(sample);
+        long cutoff = timestamp - windowMillis;
+        while (lows.peekFirst().timestamp() < cutoff) lows.pollFirst();
+        while (highs.peekFirst().timestamp() < cutoff) highs.pollFirst();
+
+        double low = lows.peekFirst().price();
+        double high = highs.peekFirst().price();
+        double newRise = low > 0 ? (price / low - 1) * 100 : 0;
+        double newFall = high > 0 ? (1 - price / high) * 100 : 0;
+        rises.crossed(rise, newRise, rule -> fired.accept(rule, newRise));
+        falls.crossed(fall, newFall, rule -> fired.accept(rule, newFall));
+        rise = newRise;
+        fall = newFall;
+    }
+}
@@ -0,0 +1,64 @@
+package com.abhishek.realtimeinsighthub.service.alert;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjDoubleConsumer;
+
+import com.abhishek.realtimeinsighthub.entity.AlertRule;
+
+// The rules of one symbol and the last values they are evaluated against. A tick costs one index
+// lookup plus one deque update per distinct PERCENT_MOVE window, never a pass over the rules.
+final class SymbolAlerts {
+
+    private final ThresholdIndex prices = new ThresholdIndex();
+    private final ThresholdIndex sentiments = new ThresholdIndex();
+    private final Map<Integer, MoveWindow> moves = new HashMap<>();
+
+    private Instant priceTimestamp;
+    private double lastPrice;
+    private Double lastCompound;
+
+    synchronized void add(AlertRule rule) {
+        switch (rule.getType()) {
+            case PRICE -> prices.add(rule.getDirection(), rule.getThreshold(), rule);
+            case SENTIMENT -> sentiments.add(rule.getDirection(), rule.getThreshold(), rule);
+            case PERCENT_MOVE -> moves.computeIfAbsent(rule.getWindowSeconds(), w -> new MoveWindow(w * 1000L)).add(rule);
+        }
+    }
+
+    synchronized void remove(AlertRule rule) {
+        switch (rule.getType()) {
+            case PRICE -> prices.remove(rule.getDirection(), rule.getThreshold(), rule);
+            case SENTIMENT -> sentiments.remove(rule.getDirection(), rule.getThreshold(), rule);
+            case PERCENT_MOVE -> {
+                MoveWindow window = moves.get(rule.getWindowSeconds());
+                if (window == null) return;
+                window.remove(rule);
+                if (window.isEmpty()) {
+                    moves.remove(rule.getWindowSeconds());
+                }
+            }
+        }
+    }
+
+    // the first tick only sets the baseline, a late tick is ignored
+    synchronized void onPrice(Instant timestamp, double price, ObjDoubleConsumer<AlertRule> fired) {
+        if (priceTimestamp != null && timestamp.isBefore(priceTimestamp)) return;
+        if (priceTimestamp != null) {
+            prices.crossed(lastPrice, price, rule -> fired.accept(rule, price));
+        }
+        for (MoveWindow window : moves.values()) {
+            window.onPrice(timestamp.toEpochMilli(), price, fired);
+        }
+        priceTimestamp = timestamp;
+        lastPrice = price;
+    }
+
+    synchronized void onSentiment(double compound, ObjDoubleConsumer<AlertRule> fired) {
+        if (lastCompound != null) {
+            sentiments.crossed(lastCompound, compound, rule -> fired.accept(rule, compound));
+        }
+        lastCompound = compound;
+    }
+}
@@ -0,0 +1,57 @@
+package com.abhishek.realtimeinsighthub.service.alert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import com.abhishek.realtimeinsighthub.entity.AlertRule;
+
+// Rules sorted by threshold. A move from previous to current visits only the thresholds in between,
+// O(log n + fired) however many rules are registered.
+final class ThresholdIndex {
+
+    private final NavigableMap<Double, List<AlertRule>> above = new TreeMap<>();
+    private final NavigableMap<Double, List<AlertRule>> below = new TreeMap<>();
+    private int size;
+
+    void add(AlertRule.Direction direction, double threshold, AlertRule rule) {
+        side(direction).computeIfAbsent(threshold, t -> new ArrayList<>(1)).add(rule);
+        size++;
+    }
+
+    void remove(AlertRule.Direction direction, double threshold, AlertRule rule) {
+        NavigableMap<Double, List<AlertRule>> side = side(direction);
+        List<AlertRule> rules = side.get(threshold);
+        if (rules == null || !rules.removeIf(r -> r.getId().equals(rule.getId()))) return;
+        if (rules.isEmpty()) {
+            side.remove(threshold);
+        }
+        size--;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // ABOVE rules fire for previous < threshold <= current, BELOW rules for current <= threshold < previous
+    void crossed(double previous, double current, Consumer<AlertRule> fired) {
+        Collection<List<AlertRule>> crossed;
+        if (current > previous) {
+            crossed = above.subMap(previous, false, current, true).values();
+        } else if (current < previous) {
+            crossed = below.subMap(current, true, previous, false).values();
+        } else {
+            return;
+        }
+        for (List<AlertRule> rules : crossed) {
+            rules.forEach(fired);
+        }
+    }
+
+    private NavigableMap<Double, List<AlertRule>> side(AlertRule.Direction direction) {
+        return direction == AlertRule.Direction.ABOVE ? above : below;
+    }
+}
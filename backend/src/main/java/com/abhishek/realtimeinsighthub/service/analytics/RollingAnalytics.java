@@ -0,0 +1,75 @@
+package com.abhishek.realtimeinsighthub.service.analytics;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.abhishek.realtimeinsighthub.dto.AnalyticsDto;
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.service.consumer.MarketDataListener;
+import com.abhishek.realtimeinsighthub.service.push.MarketUpdateDispatcher;
+
+// Moving average, sentiment EMA, volatility and price-sentiment correlation per symbol, updated in
+// O(1) per message as the consumers persist them. History is never re-read: after a restart the
+// windows fill up again from live data.
+@Component
+public class RollingAnalytics implements MarketDataListener {
+
+    private final MarketUpdateDispatcher marketUpdateDispatcher;
+    private final int window;
+    private final int sentimentSpan;
+    private final Map<String, SymbolAnalytics> symbols = new ConcurrentHashMap<>();
+
+    public RollingAnalytics(MarketUpdateDispatcher marketUpdateDispatcher,
+        @Value("${analytics.window:20}") int window,
+        @Value("${analytics.sentiment-span:20}") int sentimentSpan) {
+        this.marketUpdateDispatcher = marketUpdateDispatcher;
+        this.window = window;
+        this.sentimentSpan = sentimentSpan;
+    }
+
+    @Override
+    public void onPrices(List<Price> prices) {
+        Set<String> updated = new LinkedHashSet<>();
+        for (Price price : prices) {
+            if (price.getPrice() == null) continue;
+            if (analytics(price.getStock()).onPrice(price.getTimestamp(), price.getPrice().doubleValue())) {
+                updated.add(price.getStock());
+            }
+        }
+        publish(updated);
+    }
+
+    @Override
+    public void onSentiments(List<Sentiment> sentiments) {
+        Set<String> updated = new LinkedHashSet<>();
+        for (Sentiment sentiment : sentiments) {
+            if (sentiment.getCompoundScore() == null) continue;
+            analytics(sentiment.getStock()).onSentiment(sentiment.getTimestamp(), sentiment.getCompoundScore());
+            updated.add(sentiment.getStock());
+        }
+        publish(updated);
+    }
+
+    public Optional<AnalyticsDto> get(String stock) {
+        return Optional.ofNullable(symbols.get(stock)).map(s -> s.toDto(stock));
+    }
+
+    // one push per symbol and batch, the dispatcher conflates further
+    private void publish(Set<String> stocks) {
+        for (String stock : stocks) {
+            marketUpdateDispatcher.publishAnalytics(symbols.get(stock).toDto(stock));
+        }
+    }
+
+    private SymbolAnalytics analytics(String stock) {
+        return symbols.computeIfAbsent(stock, s -> new SymbolAnalytics(window, sentimentSpan));
+    }
+}
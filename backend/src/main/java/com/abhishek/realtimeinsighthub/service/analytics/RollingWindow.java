@@ -0,0 +1,87 @@
+package com.abhishek.realtimeinsighthub.service.analytics;
+
+// The last capacity (x, y) samples with running sums, so adding a sample and reading any statistic
+// is O(1). The sums are rebuilt from the window every time it wraps, which keeps the rounding drift
+// of add-and-subtract bounded at an amortized O(1) cost.
+final class RollingWindow {
+
+    private final double[] xs;
+    private final double[] ys;
+    private int next;
+    private int size;
+    private double sumX;
+    private double sumY;
+    private double sumXX;
+    private double sumYY;
+    private double sumXY;
+
+    RollingWindow(int capacity) {
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+    }
+
+    void add(double x) {
+        add(x, 0);
+    }
+
+    void add(double x, double y) {
+        if (size == xs.length) {
+            double oldX = xs[next];
+            double oldY = ys[next];
+            sumX -= oldX;
+            sumY -= oldY;
+            sumXX -= oldX * oldX;
+            sumYY -= oldY * oldY;
+            sumXY -= oldX * oldY;
+        } else {
+            size++;
+        }
+        xs[next] = x;
+        ys[next] = y;
+        sumX += x;
+        sumY += y;
+        sumXX += x * x;
+        sumYY += y * y;
+        sumXY += x * y;
+        next = (next + 1) % xs.length;
+        if (next == 0) {
+            resum();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    Double mean() {
+        return size == 0 ? null : sumX / size;
+    }
+
+    // sample standard deviation of x
+    Double stddev() {
+        if (size < 2) return null;
+        double variance = (sumXX - sumX * sumX / size) / (size - 1);
+        return Math.sqrt(Math.max(0, variance));
+    }
+
+    // Pearson correlation of x and y, null while either side is constant
+    Double correlation() {
+        if (size < 3) return null;
+        double covariance = sumXY - sumX * sumY / size;
+        double varianceX = sumXX - sumX * sumX / size;
+        double varianceY = sumYY - sumY * sumY / size;
+        if (varianceX <= 1e-18 || varianceY <= 1e-18) return null;
+        return Math.max(-1, Math.min(1, covariance / Math.sqrt(varianceX * varianceY)));
+    }
+
+    private void resum() {
+        sumX = sumY = sumXX = sumYY = sumXY = 0;
+        for (int i = 0; i < size; i++) {
+            sumX += xs[i];
+            sumY += ys[i];
+            sumXX += xs[i] * xs[i];
+            sumYY += ys[i] * ys[i];
+            sumXY += xs[i] * ys[i];
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.abhishek.realtimeinsighthub.service.analytics;
+
+import java.time.Instant;
+
+import com.abhishek.realtimeinsighthub.dto.AnalyticsDto;
+
+// Streaming state of one symbol. Volatility is the standard deviation of tick-to-tick log returns,
+// the correlation pairs each return with the sentiment EMA as of that tick.
+final class SymbolAnalytics {
+
+    private final RollingWindow prices;
+    private final RollingWindow returns;
+    private final RollingWindow returnsAndSentiment;
+    private final double alpha;
+
+    private Instant priceTimestamp;
+    private double lastPrice;
+    private Double sentimentEma;
+    private Instant updatedAt;
+
+    SymbolAnalytics(int window, int sentimentSpan) {
+        this.prices = new RollingWindow(window);
+        this.returns = new RollingWindow(window);
+        this.returnsAndSentiment = new RollingWindow(window);
+        this.alpha = 2.0 / (sentimentSpan + 1);
+    }
+
+    // a late tick would put a bogus return into the windows, it is dropped
+    synchronized boolean onPrice(Instant timestamp, double price) {
+        if (priceTimestamp != null && !timestamp.isAfter(priceTimestamp)) return false;
+        prices.add(price);
+        if (priceTimestamp != null && lastPrice > 0 && price > 0) {
+            double logReturn = Math.log(price / lastPrice);
+            returns.add(logReturn);
+            if (sentimentEma != null) {
+                returnsAndSentiment.add(logReturn, sentimentEma);
+            }
+        }
+        priceTimestamp = timestamp;
+        lastPrice = price;
+        updatedAt = timestamp;
+        return true;
+    }
+
+    synchronized void onSentiment(Instant timestamp, double compound) {
+        sentimentEma = sentimentEma == null ? compound : sentimentEma + alpha * (compound - sentimentEma);
+        if (updatedAt == null || timestamp.isAfter(updatedAt)) {
+            updatedAt = timestamp;
+        }
+    }
+
+    synchronized AnalyticsDto toDto(String stock) {
+        return new AnalyticsDto(stock, updatedAt, prices.mean(), sentimentEma, returns.stddev(),
+            returnsAndSentiment.correlation(), prices.size());
+    }
+}
@@ -0,0 +1,90 @@
+package com.abhishek.realtimeinsighthub.service.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.abhishek.realtimeinsighthub.service.sentiment.SentimentLabels;
+
+// One symbol and day: five columns back to back, then a fixed-size footer, big-endian:
+//   price timestamps (delta of delta), prices (XOR), sentiment timestamps (delta of delta),
+//   compound scores (XOR), sentiment labels (one byte each)
+//   footer: int priceCount, int sentimentCount, 5 x (int offset, int length), int version, int magic
+// A reader maps the file, reads the footer and decodes only the columns it needs.
+final class ArchiveFile {
+
+    static final int MAGIC = 0x52494854; // "RIHT"
+    static final int VERSION = 1;
+    static final int FOOTER_SIZE = 4 + 4 + 5 * 8 + 4 + 4;
+
+    private static final String[] LABELS = {SentimentLabels.NEGATIVE, SentimentLabels.NEUTRAL, SentimentLabels.POSITIVE};
+
+    private ArchiveFile() {
+    }
+
+    static void write(Path path, DayTicks ticks) throws IOException {
+        ByteBuffer[] columns = {
+            GorillaCodec.encodeTimestamps(ticks.priceTs, ticks.priceCount),
+            GorillaCodec.encodeValues(ticks.prices, ticks.priceCount),
+            GorillaCodec.encodeTimestamps(ticks.sentimentTs, ticks.sentimentCount),
+            GorillaCodec.encodeValues(ticks.compounds, ticks.sentimentCount),
+            ByteBuffer.wrap(ticks.labels, 0, ticks.sentimentCount)
+        };
+        int size = FOOTER_SIZE;
+        for (ByteBuffer column : columns) {
+            size += column.remaining();
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        int[] offsets = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            offsets[i] = out.position();
+            out.put(columns[i].duplicate());
+        }
+        out.putInt(ticks.priceCount).putInt(ticks.sentimentCount);
+        for (int i = 0; i < columns.length; i++) {
+            out.putInt(offsets[i]).putInt(columns[i].remaining());
+        }
+        out.putInt(VERSION).putInt(MAGIC);
+        Files.write(path, out.array());
+    }
+
+    static DayTicks read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int footer = in.limit() - FOOTER_SIZE;
+            if (footer < 0 || in.getInt(in.limit() - 4) != MAGIC || in.getInt(in.limit() - 8) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " tick archive: " + path);
+            }
+            int priceCount = in.getInt(footer);
+            int sentimentCount = in.getInt(footer + 4);
+            ByteBuffer[] columns = new ByteBuffer[5];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = in.slice(in.getInt(footer + 8 + i * 8), in.getInt(footer + 12 + i * 8));
+            }
+            byte[] labels = new byte[sentimentCount];
+            columns[4].get(labels);
+            return new DayTicks(
+                GorillaCodec.decodeTimestamps(columns[0], priceCount),
+                GorillaCodec.decodeValues(columns[1], priceCount),
+                priceCount,
+                GorillaCodec.decodeTimestamps(columns[2], sentimentCount),
+                GorillaCodec.decodeValues(columns[3], sentimentCount),
+                labels,
+                sentimentCount);
+        }
+    }
+
+    static byte labelCode(String label) {
+        int code = Arrays.asList(LABELS).indexOf(label);
+        return (byte) code;
+    }
+
+    static String label(byte code) {
+        return code >= 0 && code < LABELS.length ? LABELS[code] : null;
+    }
+}
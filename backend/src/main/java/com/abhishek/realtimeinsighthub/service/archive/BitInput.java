@@ -0,0 +1,37 @@
+package com.abhishek.realtimeinsighthub.service.archive;
+
+import java.nio.ByteBuffer;
+
+// Reads what BitOutput wrote, straight from a (mapped) buffer
+final class BitInput {
+
+    private final ByteBuffer in;
+    private long position;
+
+    BitInput(ByteBuffer in) {
+        this.in = in;
+    }
+
+    long read(int count) {
+        long result = 0;
+        int remaining = count;
+        while (remaining > 0) {
+            int offset = (int) (position & 7);
+            int take = Math.min(8 - offset, remaining);
+            int b = in.get((int) (position >>> 3)) & 0xFF;
+            result = (result << take) | ((b >>> (8 - offset - take)) & ((1 << take) - 1));
+            remaining -= take;
+            position += take;
+        }
+        return result;
+    }
+
+    // two's complement value of count bits
+    long readSigned(int count) {
+        return (read(count) << (64 - count)) >> (64 - count);
+    }
+
+    boolean readBit() {
+        return read(1) == 1;
+    }
+}
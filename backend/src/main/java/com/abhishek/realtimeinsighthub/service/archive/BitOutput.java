@@ -0,0 +1,39 @@
+package com.abhishek.realtimeinsighthub.service.archive;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Append-only bit stream, most significant bit first
+final class BitOutput {
+
+    private long[] words = new long[16];
+    private long size;
+
+    // the low count bits of value, count from 0 to 64
+    void write(long value, int count) {
+        if (count == 0) return;
+        int index = (int) (size >>> 6);
+        if (index + 1 >= words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        long bits = count == 64 ? value : value & ((1L << count) - 1);
+        int free = 64 - (int) (size & 63);
+        if (count <= free) {
+            words[index] |= bits << (free - count);
+        } else {
+            int spill = count - free;
+            words[index] |= bits >>> spill;
+            words[index + 1] |= bits << (64 - spill);
+        }
+        size += count;
+    }
+
+    ByteBuffer toByteBuffer() {
+        int wordCount = (int) ((size + 63) >>> 6);
+        ByteBuffer out = ByteBuffer.allocate(wordCount * 8);
+        for (int i = 0; i < wordCount; i++) {
+            out.putLong(words[i]);
+        }
+        return out.flip().limit((int) ((size + 7) >>> 3));
+    }
+}
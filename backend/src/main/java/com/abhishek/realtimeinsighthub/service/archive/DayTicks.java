@@ -0,0 +1,54 @@
+package com.abhishek.realtimeinsighthub.service.archive;
+
+import java.util.Arrays;
+
+// Columns of one symbol and one UTC day, timestamps in epoch millis. A sentiment without a
+// compound score is stored as NaN; label codes are those of ArchiveFile.
+final class DayTicks {
+
+    long[] priceTs;
+    double[] prices;
+    int priceCount;
+
+    long[] sentimentTs;
+    double[] compounds;
+    byte[] labels;
+    int sentimentCount;
+
+    DayTicks() {
+        this(new long[64], new double[64], 0, new long[8], new double[8], new byte[8], 0);
+    }
+
+    DayTicks(long[] priceTs, double[] prices, int priceCount, long[] sentimentTs, double[] compounds,
+        byte[] labels, int sentimentCount) {
+        this.priceTs = priceTs;
+        this.prices = prices;
+        this.priceCount = priceCount;
+        this.sentimentTs = sentimentTs;
+        this.compounds = compounds;
+        this.labels = labels;
+        this.sentimentCount = sentimentCount;
+    }
+
+    void addPrice(long ts, double price) {
+        if (priceCount == priceTs.length) {
+            priceTs = Arrays.copyOf(priceTs, priceCount * 2);
+            prices = Arrays.copyOf(prices, priceCount * 2);
+        }
+        priceTs[priceCount] = ts;
+        prices[priceCount] = price;
+        priceCount++;
+    }
+
+    void addSentiment(long ts, double compound, byte label) {
+        if (sentimentCount == sentimentTs.length) {
+            sentimentTs = Arrays.copyOf(sentimentTs, sentimentCount * 2);
+            compounds = Arrays.copyOf(compounds, sentimentCount * 2);
+            labels = Arrays.copyOf(labels, sentimentCount * 2);
+        }
+        sentimentTs[sentimentCount] = ts;
+        compounds[sentimentCount] = compound;
+        labels[sentimentCount] = label;
+        sentimentCount++;
+    }
+}
@@ -0,0 +1,125 @@
+package com.abhishek.realtimeinsighthub.service.archive;
+
+import java.nio.ByteBuffer;
+
+// Column encodings from Facebook's Gorilla paper. Timestamps store the delta of deltas, mostly a
+// single 0 bit for evenly spaced ticks. Values store the XOR with the previous value, written as
+// the meaningful bits between its leading and trailing zeros, reusing the previous window if the
+// new bits fit into it.
+final class GorillaCodec {
+
+    private GorillaCodec() {
+    }
+
+    static ByteBuffer encodeTimestamps(long[] timestamps, int count) {
+        BitOutput out = new BitOutput();
+        if (count == 0) return out.toByteBuffer();
+        out.write(timestamps[0], 64);
+        long previous = timestamps[0];
+        long previousDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long delta = timestamps[i] - previous;
+            long dod = delta - previousDelta;
+            if (dod == 0) {
+                out.write(0, 1);
+            } else if (dod >= -64 && dod <= 63) {
+                out.write(0b10, 2);
+                out.write(dod, 7);
+            } else if (dod >= -256 && dod <= 255) {
+                out.write(0b110, 3);
+                out.write(dod, 9);
+            } else if (dod >= -2048 && dod <= 2047) {
+                out.write(0b1110, 4);
+                out.write(dod, 12);
+            } else {
+                // a file holds one day in millis, the difference of two deltas fits an int
+                out.write(0b1111, 4);
+                out.write(dod, 32);
+            }
+            previous = timestamps[i];
+            previousDelta = delta;
+        }
+        return out.toByteBuffer();
+    }
+
+    static long[] decodeTimestamps(ByteBuffer column, int count) {
+        long[] timestamps = new long[count];
+        if (count == 0) return timestamps;
+        BitInput in = new BitInput(column);
+        timestamps[0] = in.read(64);
+        long delta = 0;
+        for (int i = 1; i < count; i++) {
+            long dod;
+            if (!in.readBit()) {
+                dod = 0;
+            } else if (!in.readBit()) {
+                dod = in.readSigned(7);
+            } else if (!in.readBit()) {
+                dod = in.readSigned(9);
+            } else if (!in.readBit()) {
+                dod = in.readSigned(12);
+            } else {
+                dod = in.readSigned(32);
+            }
+            delta += dod;
+            timestamps[i] = timestamps[i - 1] + delta;
+        }
+        return timestamps;
+    }
+
+    static ByteBuffer encodeValues(double[] values, int count) {
+        BitOutput out = new BitOutput();
+        if (count == 0) return out.toByteBuffer();
+        long previous = Double.doubleToRawLongBits(values[0]);
+        out.write(previous, 64);
+        int leadingWindow = -1;
+        int trailingWindow = 0;
+        for (int i = 1; i < count; i++) {
+            long current = Double.doubleToRawLongBits(values[i]);
+            long xor = current ^ previous;
+            previous = current;
+            if (xor == 0) {
+                out.write(0, 1);
+                continue;
+            }
+            // five bits hold the leading zeros
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (leadingWindow >= 0 && leading >= leadingWindow && trailing >= trailingWindow) {
+                out.write(0b10, 2);
+                out.write(xor >>> trailingWindow, 64 - leadingWindow - trailingWindow);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                out.write(0b11, 2);
+                out.write(leading, 5);
+                out.write(meaningful - 1, 6);
+                out.write(xor >>> trailing, meaningful);
+                leadingWindow = leading;
+                trailingWindow = trailing;
+            }
+        }
+        return out.toByteBuffer();
+    }
+
+    static double[] decodeValues(ByteBuffer column, int count) {
+        double[] values = new double[count];
+        if (count == 0) return values;
+        BitInput in = new BitInput(column);
+        long previous = in.read(64);
+        values[0] = Double.longBitsToDouble(previous);
+        int leadingWindow = 0;
+        int trailingWindow = 0;
+        for (int i = 1; i < count; i++) {
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    leadingWindow = (int) in.read(5);
+                    trailingWindow = 64 - leadingWindow - ((int) in.read(6) + 1);
+                }
+                long xor = in.read(64 - leadingWindow - trailingWindow) << trailingWindow;
+                previous ^= xor;
+            }
+            values[i] = Double.longBitsToDouble(previous);
+        }
+        return values;
+    }
+}
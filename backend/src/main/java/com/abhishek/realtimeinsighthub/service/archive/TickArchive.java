@@ -0,0 +1,300 @@
+package com.abhishek.realtimeinsighthub.service.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.abhishek.realtimeinsighthub.entity.PriceRollup;
+import com.abhishek.realtimeinsighthub.entity.PriceRollupId;
+import com.abhishek.realtimeinsighthub.service.rollup.RollupResolution;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+// Days about to be dropped from Postgres are compacted into one ArchiveFile per symbol under
+// storage.archive.path/yyyy-MM-dd/. A day directory is written under a temporary name and
+// renamed when complete, so a day either is archived or is not. Long chart ranges read the
+// archived days before archivedUntil() from here, as bars of a rollup resolution; segments()
+// tells them apart from days that never were archived.
+@Service
+public class TickArchive {
+
+    private static final String DAY_PRICES = """
+        SELECT stock, timestamp, price FROM prices
+        WHERE timestamp >= ? AND timestamp < ? ORDER BY stock, timestamp
+        """;
+
+    private static final String DAY_SENTIMENTS = """
+        SELECT stock, timestamp, sentiment, compound_score FROM sentiments
+        WHERE timestamp >= ? AND timestamp < ? ORDER BY stock, timestamp
+        """;
+
+    private static final String SUFFIX = ".ticks";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path root;
+    // archived days never change, their bars are kept until evicted
+    private final Cache<BarKey, List<PriceRollup>> bars;
+    private final NavigableSet<LocalDate> days = new ConcurrentSkipListSet<>();
+
+    @Autowired
+    public TickArchive(DataSource dataSource, PlatformTransactionManager transactionManager,
+        @Value("${storage.archive.path:data/archive}") String path,
+        @Value("${storage.archive.cache-size:20000}") long cacheSize) {
+        this(new JdbcTemplate(dataSource), new TransactionTemplate(transactionManager), path, cacheSize);
+    }
+
+    TickArchive(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, String path, long cacheSize) {
+        // a day is read through a cursor, which Postgres only keeps inside a transaction
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.readOnlyTransaction = transactionTemplate;
+        this.readOnlyTransaction.setReadOnly(true);
+        this.root = Path.of(path);
+        this.bars = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    @PostConstruct
+    public void scan() {
+        if (!Files.isDirectory(root)) return;
+        try (Stream<Path> entries = Files.list(root)) {
+            entries.map(TickArchive::day).flatMap(Optional::stream).forEach(days::add);
+        } catch (IOException e) {
+            System.err.println("Tick archive scan failed: " + e.getMessage());
+        }
+    }
+
+    // the end of the newest archived day; days before it are in the archive or were never archived
+    public Optional<Instant> archivedUntil() {
+        return days.isEmpty() ? Optional.empty() : Optional.of(startOf(days.last().plusDays(1)));
+    }
+
+    // [from, to) cut at day boundaries into runs of archived and not archived days, in order
+    public List<Segment> segments(Instant from, Instant to) {
+        List<Segment> segments = new ArrayList<>();
+        Instant start = from;
+        while (start.isBefore(to)) {
+            LocalDate day = LocalDate.ofInstant(start, ZoneOffset.UTC);
+            boolean archived = days.contains(day);
+            LocalDate next = day.plusDays(1);
+            while (startOf(next).isBefore(to) && days.contains(next) == archived) {
+                next = next.plusDays(1);
+            }
+            Instant end = startOf(next).isAfter(to) ? to : startOf(next);
+            segments.add(new Segment(start, end, archived));
+            start = end;
+        }
+        return segments;
+    }
+
+    public record Segment(Instant from, Instant to, boolean archived) {
+    }
+
+    // Archives the days not archived yet, oldest first, and returns how many were written.
+    // Throws if any of them fails, the caller must keep their rows then.
+    public int archive(List<LocalDate> days) {
+        int archived = 0;
+        for (LocalDate day : days.stream().sorted().toList()) {
+            if (Files.isDirectory(dayDirectory(day))) continue;
+            try {
+                long start = System.nanoTime();
+                int symbols = archiveDay(day);
+                System.out.println("Archived " + day + ": " + symbols + " symbols in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Archiving " + day + " failed", e);
+            }
+            this.days.add(day);
+            archived++;
+        }
+        return archived;
+    }
+
+    private int archiveDay(LocalDate day) throws IOException {
+        Path tmp = root.resolve(day + ".tmp");
+        deleteDirectory(tmp);
+        Files.createDirectories(tmp);
+        Timestamp from = Timestamp.from(startOf(day));
+        Timestamp to = Timestamp.from(startOf(day.plusDays(1)));
+
+        DayWriter writer = new DayWriter(tmp);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            // headlines are few, ticks are written out symbol by symbol as the cursor moves on
+            jdbcTemplate.query(DAY_SENTIMENTS, writer::addSentiment, from, to);
+            jdbcTemplate.query(DAY_PRICES, writer, from, to);
+        });
+        writer.finish();
+        Files.move(tmp, dayDirectory(day), StandardCopyOption.ATOMIC_MOVE);
+        return writer.written;
+    }
+
+    // bars with a bucket start in [from, to), days are read in parallel
+    public List<PriceRollup> getBars(String stock, Instant from, Instant to, RollupResolution resolution) {
+        Instant firstBucket = resolution.bucketStart(from);
+        LocalDate first = LocalDate.ofInstant(firstBucket, ZoneOffset.UTC);
+        LocalDate last = LocalDate.ofInstant(to.minusMillis(1), ZoneOffset.UTC);
+        if (last.isBefore(first)) return List.of();
+        return first.datesUntil(last.plusDays(1)).parallel()
+            .flatMap(day -> bars.get(new BarKey(stock, day, resolution), this::readBars).stream())
+            .filter(bar -> !bar.getId().getBucketStart().isBefore(firstBucket) && bar.getId().getBucketStart().isBefore(to))
+            .toList();
+    }
+
+    private List<PriceRollup> readBars(BarKey key) {
+        Path file = dayDirectory(key.day()).resolve(fileName(key.stock()));
+        if (!Files.isRegularFile(file)) return List.of();
+        DayTicks ticks;
+        try {
+            ticks = ArchiveFile.read(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        RollupResolution resolution = key.resolution();
+        Map<Instant, PriceRollup> bars = new TreeMap<>();
+        for (int i = 0; i < ticks.priceCount; i++) {
+            Instant ts = Instant.ofEpochMilli(ticks.priceTs[i]);
+            bar(bars, key.stock(), resolution, ts)
+                .addTick(ts, BigDecimal.valueOf(ticks.prices[i]).setScale(4, RoundingMode.HALF_UP));
+        }
+        for (int i = 0; i < ticks.sentimentCount; i++) {
+            if (Double.isNaN(ticks.compounds[i])) continue;
+            bar(bars, key.stock(), resolution, Instant.ofEpochMilli(ticks.sentimentTs[i])).addSentiment(ticks.compounds[i]);
+        }
+        return List.copyOf(bars.values());
+    }
+
+    private static PriceRollup bar(Map<Instant, PriceRollup> bars, String stock, RollupResolution resolution, Instant ts) {
+        return bars.computeIfAbsent(resolution.bucketStart(ts), bucket -> {
+            PriceRollup bar = new PriceRollup();
+            bar.setId(new PriceRollupId(stock, resolution.getSeconds(), bucket));
+            return bar;
+        });
+    }
+
+    private Path dayDirectory(LocalDate day) {
+        return root.resolve(day.toString());
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    static String fileName(String stock) {
+        return URLEncoder.encode(stock, StandardCharsets.UTF_8) + SUFFIX;
+    }
+
+    private static Optional<LocalDate> day(Path directory) {
+        try {
+            return Files.isDirectory(directory)
+                ? Optional.of(LocalDate.parse(directory.getFileName().toString()))
+                : Optional.empty();
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) return;
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private record BarKey(String stock, LocalDate day, RollupResolution resolution) {
+    }
+
+    // price rows arrive grouped by symbol; each symbol's file is written once its rows are done
+    static final class DayWriter implements RowCallbackHandler {
+
+        private final Path directory;
+        private final Map<String, DayTicks> sentiments = new HashMap<>();
+        private String stock;
+        private DayTicks ticks;
+        int written;
+
+        DayWriter(Path directory) {
+            this.directory = directory;
+        }
+
+        void addSentiment(ResultSet rs) throws SQLException {
+            double compound = rs.getDouble(4);
+            if (rs.wasNull()) {
+                compound = Double.NaN;
+            }
+            sentiments.computeIfAbsent(rs.getString(1), s -> new DayTicks()).addSentiment(
+                rs.getTimestamp(2).getTime(), compound, ArchiveFile.labelCode(rs.getString(3)));
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String next = rs.getString(1);
+            if (!next.equals(stock)) {
+                flush();
+                stock = next;
+                ticks = sentiments.containsKey(next) ? sentiments.remove(next) : new DayTicks();
+            }
+            BigDecimal price = rs.getBigDecimal(3);
+            if (price != null) {
+                ticks.addPrice(rs.getTimestamp(2).getTime(), price.doubleValue());
+            }
+        }
+
+        void finish() {
+            flush();
+            // symbols with headlines but no ticks that day
+            sentiments.forEach((s, t) -> write(s, t));
+        }
+
+        private void flush() {
+            if (stock != null) {
+                write(stock, ticks);
+            }
+        }
+
+        private void write(String symbol, DayTicks symbolTicks) {
+            try {
+                ArchiveFile.write(directory.resolve(fileName(symbol)), symbolTicks);
+                written++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
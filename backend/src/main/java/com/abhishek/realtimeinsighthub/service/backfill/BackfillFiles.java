@@ -0,0 +1,154 @@
+package com.abhishek.realtimeinsighthub.service.backfill;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Lazy readers for history files, one record per line. A .csv file starts with a header naming its
+// columns, anything else is read as NDJSON. Timestamps are ISO-8601 or epoch millis.
+//   ticks:     timestamp, stock, price
+//   headlines: timestamp, stock, headline, and optionally sentiment, neg, neu, pos, compound
+final class BackfillFiles {
+
+    private BackfillFiles() {
+    }
+
+    // scores is null for headlines that still have to be scored
+    record Headline(NewsDataDto news, String sentiment, Map<String, Double> scores) {
+    }
+
+    static Stream<Price> ticks(Path path, ObjectMapper mapper) {
+        return lines(path, mapper, row -> {
+            Price price = new Price();
+            price.setTimestamp(parseTimestamp(row.apply("timestamp")));
+            price.setStock(row.apply("stock"));
+            price.setPrice(new BigDecimal(row.apply("price")));
+            return price;
+        });
+    }
+
+    static Stream<Headline> headlines(Path path, ObjectMapper mapper) {
+        return lines(path, mapper, row -> {
+            NewsDataDto news = new NewsDataDto(parseTimestamp(row.apply("timestamp")), row.apply("stock"),
+                row.apply("headline"));
+            String compound = row.apply("compound");
+            if (compound == null || compound.isEmpty()) {
+                return new Headline(news, null, null);
+            }
+            Map<String, Double> scores = new HashMap<>(4);
+            scores.put("compound", Double.parseDouble(compound));
+            for (String key : List.of("neg", "neu", "pos")) {
+                String value = row.apply(key);
+                scores.put(key, value == null || value.isEmpty() ? 0.0 : Double.parseDouble(value));
+            }
+            return new Headline(news, row.apply("sentiment"), scores);
+        });
+    }
+
+    static Instant parseTimestamp(String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing timestamp");
+        }
+        boolean digits = value.chars().allMatch(Character::isDigit);
+        return digits ? Instant.ofEpochMilli(Long.parseLong(value)) : Instant.parse(value);
+    }
+
+    // Splits one CSV record: commas separate fields, double quotes enclose fields that contain
+    // commas or quotes, and a doubled quote inside them is a literal quote.
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // each line is handed to parse as a column lookup returning null for absent fields
+    private static <T> Stream<T> lines(Path path, ObjectMapper mapper, Function<Function<String, String>, T> parse) {
+        try {
+            BufferedReader reader = Files.newBufferedReader(path);
+            Stream<String> lines = reader.lines().filter(line -> !line.isBlank());
+            if (!path.getFileName().toString().toLowerCase().endsWith(".csv")) {
+                return lines.map(line -> parse.apply(field(readTree(mapper, line)))).onClose(() -> close(reader));
+            }
+
+            String header = reader.readLine();
+            if (header == null) {
+                close(reader);
+                return Stream.empty();
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = splitCsv(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).strip().toLowerCase(), i);
+            }
+            return lines.map(line -> {
+                List<String> fields = splitCsv(line);
+                return parse.apply(name -> {
+                    Integer i = columns.get(name);
+                    return i == null || i >= fields.size() ? null : fields.get(i).strip();
+                });
+            }).onClose(() -> close(reader));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonNode readTree(ObjectMapper mapper, String line) {
+        try {
+            return mapper.readTree(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Function<String, String> field(JsonNode node) {
+        return name -> {
+            JsonNode value = node.get(name);
+            return value == null || value.isNull() ? null : value.asText();
+        };
+    }
+
+    private static void close(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
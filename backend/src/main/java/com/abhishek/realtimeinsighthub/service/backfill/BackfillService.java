@@ -0,0 +1,275 @@
+package com.abhishek.realtimeinsighthub.service.backfill;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.SentimentResponseDto;
+import com.abhishek.realtimeinsighthub.dto.StockDataDto;
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.service.PartitionMaintenanceService;
+import com.abhishek.realtimeinsighthub.service.backfill.BackfillFiles.Headline;
+import com.abhishek.realtimeinsighthub.service.cache.ChartResponseCache;
+import com.abhishek.realtimeinsighthub.service.rollup.RollupService;
+import com.abhishek.realtimeinsighthub.service.sentiment.SentimentCache;
+import com.abhishek.realtimeinsighthub.service.sentiment.SentimentLabels;
+import com.abhishek.realtimeinsighthub.service.sentiment.SentimentScorer;
+import com.abhishek.realtimeinsighthub.service.wire.MarketDataCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Seeds prices and sentiments from history files on startup (see BackfillFiles for the formats).
+// By default rows are written with COPY and the rollups are rebuilt over the loaded range; with a
+// replay speed the files are instead published to the Kafka topics at that multiple of real time.
+// Either runs on its own thread once the application is ready.
+@Service
+public class BackfillService {
+
+    private static final String STOCK_TOPIC = "stock-topic";
+    private static final String NEWS_TOPIC = "news-topic";
+    // headlines per scorer request for files without scores
+    private static final int SCORE_BATCH = 256;
+
+    private final DataSource dataSource;
+    private final PartitionMaintenanceService partitions;
+    private final RollupService rollupService;
+    private final ChartResponseCache chartResponseCache;
+    private final SentimentCache sentimentCache;
+    private final SentimentScorer scorer;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final MarketDataCodec codec;
+    private final ObjectMapper objectMapper;
+    private final String pricesFile;
+    private final String headlinesFile;
+    private final int batchSize;
+    private final double replaySpeed;
+
+    public BackfillService(DataSource dataSource, PartitionMaintenanceService partitions,
+        RollupService rollupService, ChartResponseCache chartResponseCache, SentimentCache sentimentCache,
+        SentimentScorer scorer, KafkaTemplate<String, byte[]> kafkaTemplate,
+        KafkaListenerEndpointRegistry listenerRegistry, MarketDataCodec codec, ObjectMapper objectMapper,
+        @Value("${backfill.prices:}") String pricesFile,
+        @Value("${backfill.headlines:}") String headlinesFile,
+        @Value("${backfill.batch-size:50000}") int batchSize,
+        @Value("${backfill.replay-speed:0}") double replaySpeed) {
+        this.dataSource = dataSource;
+        this.partitions = partitions;
+        this.rollupService = rollupService;
+        this.chartResponseCache = chartResponseCache;
+        this.sentimentCache = sentimentCache;
+        this.scorer = scorer;
+        this.kafkaTemplate = kafkaTemplate;
+        this.listenerRegistry = listenerRegistry;
+        this.codec = codec;
+        this.objectMapper = objectMapper;
+        this.pricesFile = pricesFile;
+        this.headlinesFile = headlinesFile;
+        this.batchSize = batchSize;
+        this.replaySpeed = replaySpeed;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (pricesFile.isEmpty() && headlinesFile.isEmpty()) return;
+        Path prices = pricesFile.isEmpty() ? null : Path.of(pricesFile);
+        Path headlines = headlinesFile.isEmpty() ? null : Path.of(headlinesFile);
+        // scoring unscored headlines blocks, the ready event must not wait for it
+        Thread.ofVirtual().name("backfill").start(() -> backfill(prices, headlines));
+    }
+
+    private void backfill(Path prices, Path headlines) {
+        try {
+            if (replaySpeed > 0) {
+                replay(prices, headlines, replaySpeed);
+            } else {
+                load(prices, headlines);
+            }
+        } catch (Exception e) {
+            System.err.println("Backfill failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    public void load(Path pricesPath, Path headlinesPath) throws SQLException {
+        long start = System.nanoTime();
+        LoadedRange range = copy(pricesPath, headlinesPath);
+        if (range.rows == 0) return;
+
+        double seconds = Duration.ofNanos(System.nanoTime() - start).toMillis() / 1000.0;
+        System.out.println("Backfill loaded " + range.rows + " rows in " + seconds + "s ("
+            + Math.round(range.rows / Math.max(seconds, 0.001)) + " rows/s)");
+        // the same bars the live path maintains, recomputed from the raw rows. The listener containers
+        // are stopped meanwhile so no consumer adds to a bucket while it is rebuilt; their uncommitted
+        // records are redelivered once they start again.
+        List<MessageListenerContainer> stopped = stopListeners();
+        try {
+            rollupService.backfill(range.from, range.to.plusMillis(1));
+            chartResponseCache.invalidate(range.stocks);
+        } finally {
+            stopped.forEach(MessageListenerContainer::start);
+        }
+    }
+
+    private List<MessageListenerContainer> stopListeners() {
+        List<MessageListenerContainer> stopped = new ArrayList<>();
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            if (container.isRunning()) {
+                container.stop();
+                stopped.add(container);
+            }
+        }
+        return stopped;
+    }
+
+    private LoadedRange copy(Path pricesPath, Path headlinesPath) throws SQLException {
+        LoadedRange range = new LoadedRange();
+        try (Connection connection = dataSource.getConnection()) {
+            PostgresCopyWriter writer = new PostgresCopyWriter(connection, partitions);
+            if (pricesPath != null) {
+                try (Stream<Price> ticks = BackfillFiles.ticks(pricesPath, objectMapper)) {
+                    List<Price> batch = new ArrayList<>(batchSize);
+                    for (Iterator<Price> it = ticks.iterator(); it.hasNext(); ) {
+                        Price price = it.next();
+                        range.add(price.getStock(), price.getTimestamp());
+                        batch.add(price);
+                        if (batch.size() == batchSize || !it.hasNext()) {
+                            writer.copyPrices(batch);
+                            batch.clear();
+                        }
+                    }
+                }
+            }
+            if (headlinesPath != null) {
+                try (Stream<Headline> headlines = BackfillFiles.headlines(headlinesPath, objectMapper)) {
+                    List<Sentiment> batch = new ArrayList<>(batchSize);
+                    List<NewsDataDto> unscored = new ArrayList<>(SCORE_BATCH);
+                    for (Iterator<Headline> it = headlines.iterator(); it.hasNext(); ) {
+                        Headline headline = it.next();
+                        range.add(headline.news().getStock(), headline.news().getTimestamp());
+                        if (headline.scores() != null) {
+                            batch.add(toEntity(headline.news().getTimestamp(), headline.news().getStock(),
+                                headline.sentiment(), headline.scores()));
+                        } else {
+                            unscored.add(headline.news());
+                        }
+                        if (unscored.size() == SCORE_BATCH || (!it.hasNext() && !unscored.isEmpty())) {
+                            batch.addAll(score(unscored));
+                            unscored.clear();
+                        }
+                        if (batch.size() >= batchSize || (!it.hasNext() && !batch.isEmpty())) {
+                            writer.copySentiments(batch);
+                            batch.clear();
+                        }
+                    }
+                }
+            }
+        }
+        return range;
+    }
+
+    // Publishes ticks and headlines in timestamp order, sleeping so that history plays back at
+    // speed times real time. Both files are expected to be sorted by timestamp.
+    public void replay(Path pricesPath, Path headlinesPath, double speed) throws Exception {
+        try (Stream<Price> ticks = pricesPath == null ? Stream.empty() : BackfillFiles.ticks(pricesPath, objectMapper);
+            Stream<Headline> headlines = headlinesPath == null
+                ? Stream.empty()
+                : BackfillFiles.headlines(headlinesPath, objectMapper)) {
+            Iterator<Price> priceIt = ticks.iterator();
+            Iterator<Headline> headlineIt = headlines.iterator();
+            Price price = priceIt.hasNext() ? priceIt.next() : null;
+            Headline headline = headlineIt.hasNext() ? headlineIt.next() : null;
+
+            Instant origin = null;
+            long startNanos = System.nanoTime();
+            long sent = 0;
+            while (price != null || headline != null) {
+                boolean tickFirst = headline == null
+                    || (price != null && !price.getTimestamp().isAfter(headline.news().getTimestamp()));
+                Instant ts = tickFirst ? price.getTimestamp() : headline.news().getTimestamp();
+                if (origin == null) origin = ts;
+
+                long dueNanos = (long) (Duration.between(origin, ts).toNanos() / speed);
+                long waitNanos = dueNanos - (System.nanoTime() - startNanos);
+                if (waitNanos > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                }
+
+                if (tickFirst) {
+                    kafkaTemplate.send(codec.stockRecord(STOCK_TOPIC,
+                        new StockDataDto(price.getTimestamp(), price.getStock(), price.getPrice())));
+                    price = priceIt.hasNext() ? priceIt.next() : null;
+                } else {
+                    kafkaTemplate.send(codec.newsRecord(NEWS_TOPIC, headline.news()));
+                    headline = headlineIt.hasNext() ? headlineIt.next() : null;
+                }
+                sent++;
+            }
+            kafkaTemplate.flush();
+            System.out.println("Backfill replayed " + sent + " records at " + speed + "x");
+        }
+    }
+
+    private List<Sentiment> score(List<NewsDataDto> news) {
+        List<SentimentResponseDto> results = sentimentCache.score(news, scorer).block();
+        if (results == null) return Collections.emptyList();
+        List<Sentiment> entities = new ArrayList<>(results.size());
+        for (SentimentResponseDto response : results) {
+            entities.add(toEntity(response.getTimestamp(), response.getStock(), response.getSentiment(),
+                response.getScores()));
+        }
+        return entities;
+    }
+
+    private static Sentiment toEntity(Instant timestamp, String stock, String sentiment,
+        Map<String, Double> scores) {
+        Sentiment s = new Sentiment();
+        s.setTimestamp(timestamp);
+        s.setStock(stock);
+        // files with scores but no label get the label the scorers would give
+        s.setSentiment(sentiment != null ? sentiment : SentimentLabels.fromCompound(scores.getOrDefault("compound", 0.0)));
+        s.setNegScore(scores.getOrDefault("neg", 0.0));
+        s.setNeuScore(scores.getOrDefault("neu", 0.0));
+        s.setPosScore(scores.getOrDefault("pos", 0.0));
+        s.setCompoundScore(scores.getOrDefault("compound", 0.0));
+        s.setIngestedAt(Instant.now());
+        return s;
+    }
+
+    // symbols and time span touched by a load
+    private static class LoadedRange {
+        private final Set<String> stocks = new HashSet<>();
+        private Instant from;
+        private Instant to;
+        private long rows;
+
+        void add(String stock, Instant ts) {
+            stocks.add(stock);
+            if (from == null || ts.isBefore(from)) from = ts;
+            if (to == null || ts.isAfter(to)) to = ts;
+            rows++;
+        }
+    }
+}
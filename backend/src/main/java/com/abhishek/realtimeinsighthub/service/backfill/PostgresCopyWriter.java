@@ -0,0 +1,123 @@
+package com.abhishek.realtimeinsighthub.service.backfill;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.service.PartitionMaintenanceService;
+
+// Writes batches into the partitioned tables with COPY ... FROM STDIN over one connection. Ids come
+// from the same sequences as Hibernate, in blocks of 50 per nextval like its pooled optimizer.
+class PostgresCopyWriter {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String COPY_PRICES = "COPY prices (id, timestamp, stock, price) FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_SENTIMENTS = "COPY sentiments (id, timestamp, stock, sentiment, neg_score, "
+        + "neu_score, pos_score, compound_score, ingested_at) FROM STDIN WITH (FORMAT csv)";
+
+    private final Connection connection;
+    private final CopyManager copyManager;
+    private final PartitionMaintenanceService partitions;
+    private final Set<LocalDate> partitionedDays = new HashSet<>();
+
+    PostgresCopyWriter(Connection connection, PartitionMaintenanceService partitions) throws SQLException {
+        this.connection = connection;
+        this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        this.partitions = partitions;
+    }
+
+    void copyPrices(List<Price> prices) throws SQLException {
+        ensurePartitions(prices, Price::getTimestamp);
+        long[] ids = reserveIds("prices_seq", prices.size());
+        StringBuilder csv = new StringBuilder(prices.size() * 48);
+        for (int i = 0; i < prices.size(); i++) {
+            Price p = prices.get(i);
+            csv.append(ids[i]).append(',').append(p.getTimestamp()).append(',');
+            appendText(csv, p.getStock()).append(',').append(p.getPrice().toPlainString()).append('\n');
+        }
+        copy(COPY_PRICES, csv);
+    }
+
+    void copySentiments(List<Sentiment> sentiments) throws SQLException {
+        ensurePartitions(sentiments, Sentiment::getTimestamp);
+        long[] ids = reserveIds("sentiments_seq", sentiments.size());
+        StringBuilder csv = new StringBuilder(sentiments.size() * 96);
+        for (int i = 0; i < sentiments.size(); i++) {
+            Sentiment s = sentiments.get(i);
+            csv.append(ids[i]).append(',').append(s.getTimestamp()).append(',');
+            appendText(csv, s.getStock()).append(',');
+            appendText(csv, s.getSentiment()).append(',')
+                .append(s.getNegScore()).append(',')
+                .append(s.getNeuScore()).append(',')
+                .append(s.getPosScore()).append(',')
+                .append(s.getCompoundScore()).append(',')
+                .append(s.getIngestedAt()).append('\n');
+        }
+        copy(COPY_SENTIMENTS, csv);
+    }
+
+    // daily partitions are created before their first row, so nothing lands in the default partition
+    private <T> void ensurePartitions(List<T> rows, Function<T, Instant> timestamp) {
+        for (T row : rows) {
+            LocalDate day = LocalDate.ofInstant(timestamp.apply(row), ZoneOffset.UTC);
+            if (partitionedDays.add(day)) {
+                partitions.ensurePartitions(day, day);
+            }
+        }
+    }
+
+    private long[] reserveIds(String sequence, int count) throws SQLException {
+        long[] ids = new long[count];
+        int blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+        try (PreparedStatement statement = connection.prepareStatement(
+            "SELECT nextval('" + sequence + "') FROM generate_series(1, ?)")) {
+            statement.setInt(1, blocks);
+            try (ResultSet rs = statement.executeQuery()) {
+                int i = 0;
+                while (rs.next() && i < count) {
+                    long hi = rs.getLong(1);
+                    for (long id = hi - ALLOCATION_SIZE + 1; id <= hi && i < count; id++) {
+                        ids[i++] = id;
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void copy(String sql, StringBuilder csv) throws SQLException {
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        CopyIn copy = copyManager.copyIn(sql);
+        try {
+            copy.writeToCopy(bytes, 0, bytes.length);
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    private static StringBuilder appendText(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
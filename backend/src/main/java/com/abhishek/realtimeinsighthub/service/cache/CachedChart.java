@@ -0,0 +1,5 @@
+package com.abhishek.realtimeinsighthub.service.cache;
+
+// a rendered chart response and the symbol version it was rendered at
+public record CachedChart(long version, byte[] body, String etag) {
+}
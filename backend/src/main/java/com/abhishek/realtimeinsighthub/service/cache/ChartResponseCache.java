@@ -0,0 +1,118 @@
+package com.abhishek.realtimeinsighthub.service.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Rendered chart responses per (symbol, range). Every symbol has a version that the consumers bump
+// once a batch is persisted and its listeners ran; an entry rendered at an older version is
+// rendered again on the next request. The ttl only bounds how far the window edge drifts.
+@Component
+public class ChartResponseCache {
+
+    static final String CACHE_NAME = "chart-responses";
+
+    private final Cache<Key, CachedChart> cache;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<Key, CompletableFuture<CachedChart>> rendering = new ConcurrentHashMap<>();
+
+    public ChartResponseCache(MeterRegistry meterRegistry,
+        @Value("${chart.cache.max-size:64MB}") DataSize maxSize,
+        @Value("${chart.cache.ttl:PT1M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<Key, CachedChart>weigher((key, chart) -> chart.body().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // Concurrent misses for the same key render once. A write that lands while rendering leaves
+    // the entry at the old version, so it is not served again. The render runs outside any map
+    // lock: a JDBC read inside compute() would pin the virtual thread serving the request.
+    public CachedChart get(String stock, String range, Supplier<byte[]> render) {
+        Key key = new Key(stock, range);
+        long version = version(stock);
+        CachedChart cached = cache.getIfPresent(key);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+        CompletableFuture<CachedChart> mine = new CompletableFuture<>();
+        CompletableFuture<CachedChart> inFlight = rendering.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            CachedChart joined = join(inFlight);
+            // a render started before the last write is stale for this caller
+            if (joined.version() >= version) {
+                return joined;
+            }
+            return get(stock, range, render);
+        }
+        try {
+            byte[] body = render.get();
+            CachedChart chart = new CachedChart(version, body, etag(body));
+            cache.asMap().merge(key, chart, (current, next) -> current.version() > next.version() ? current : next);
+            mine.complete(chart);
+            return chart;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(key, mine);
+        }
+    }
+
+    public void invalidate(Collection<String> stocks) {
+        stocks.forEach(stock -> versions.computeIfAbsent(stock, s -> new AtomicLong()).incrementAndGet());
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static CachedChart join(CompletableFuture<CachedChart> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // reads never add a symbol, requests for arbitrary ones must not grow the map
+    private long version(String stock) {
+        AtomicLong version = versions.get(stock);
+        return version != null ? version.get() : 0;
+    }
+
+    // strong validator: 128 bits of SHA-256 over the exact bytes sent
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Key(String stock, String range) {
+    }
+}
@@ -1,5 +1,13 @@
 package com.abhishek.realtimeinsighthub.service.consumer;
 
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
 public interface ConsumerService {
-    void consume(String messageJson);
+    void consume(ConsumerRecord<String, byte[]> record);
+
+    default void consumeBatch(List<ConsumerRecord<String, byte[]>> records) {
+        records.forEach(this::consume);
+    }
 }
@@ -0,0 +1,22 @@
+package com.abhishek.realtimeinsighthub.service.consumer;
+
+import java.util.List;
+
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+
+// Notified by the consumers once a batch has been persisted. With write-behind on, in-memory
+// listeners are notified as soon as a batch is consumed and persistent ones once it is stored.
+public interface MarketDataListener {
+
+    // writes to the database itself, so it waits for the batch's own rows
+    default boolean persistent() {
+        return false;
+    }
+
+    default void onPrices(List<Price> prices) {
+    }
+
+    default void onSentiments(List<Sentiment> sentiments) {
+    }
+}
@@ -5,115 +5,377 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 
-import com.abhishek.realtimeinsighthub.controller.WebSocketController;
 import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
 import com.abhishek.realtimeinsighthub.dto.SentimentDataDto;
 import com.abhishek.realtimeinsighthub.dto.SentimentResponseDto;
 import com.abhishek.realtimeinsighthub.entity.Sentiment;
 import com.abhishek.realtimeinsighthub.repo.SentimentRepo;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.abhishek.realtimeinsighthub.service.cache.ChartResponseCache;
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+import com.abhishek.realtimeinsighthub.service.publisher.NewsDedupeIndex;
+import com.abhishek.realtimeinsighthub.service.push.MarketUpdateDispatcher;
+import com.abhishek.realtimeinsighthub.service.sentiment.SentimentCache;
+import com.abhishek.realtimeinsighthub.service.sentiment.SentimentScorer;
+import com.abhishek.realtimeinsighthub.service.wire.MarketDataCodec;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+// Kafka intake -> bounded queue -> up to maxInFlight scorer batches -> batched persistence -> push
+// With write-behind on, scored batches are pushed right away and persisted by the writer.
+// Scoring failures are retried with capped backoff while the batch holds its permit, so an ML outage
+// stalls intake through the pause below instead of dropping headlines that were already marked seen.
+// A headline's record is acknowledged once its row is stored (or it is dropped), the container
+// commits an offset only when every earlier record is acknowledged too. Headlines that were
+// stored but not committed before a restart are delivered again and skipped by store().
 @Service
 public class SentimentDataConsumer implements ConsumerService {
 
     private final String TOPIC = "news-topic";
     private final String GROUP_ID = "news-consumer";
+    private final String LISTENER_ID = "sentiment-consumer";
+
+    private record Pending(NewsDataDto headline, Instant fetchedAt, Acknowledgment ack) {
+    }
 
     private final SentimentRepo sentimentRepo;
-    private final ObjectMapper objectMapper;
+    private final List<MarketDataListener> listeners;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final MarketDataCodec codec;
+    private final PipelineMetrics metrics;
 
-    private final List<NewsDataDto> buffer = new ArrayList<>();
-    private final Object lock = new Object();
-    private final int BATCH_SIZE = 10;
-    private final Duration FLUSH_INTERVAL = Duration.ofSeconds(5);
+    private final BlockingQueue<Pending> queue;
+    private final Semaphore inFlight;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration requestTimeout;
+    private final Duration retryInitialBackoff;
+    private final Duration retryMaxBackoff;
+    // listener is paused above the high watermark and resumed below the low one
+    private final int highWatermark;
+    private final int lowWatermark;
 
-    private final WebClient webClient;
+    private final SentimentScorer scorer;
+    private final SentimentCache sentimentCache;
+    private final ChartResponseCache chartResponseCache;
+    private final ExecutorService persistExecutor;
+    private final WriteBehindWriter<Sentiment> writer;
+    private Thread dispatcher;
+    private volatile boolean running;
 
     @Autowired
-    private WebSocketController webSocketController;
+    private MarketUpdateDispatcher marketUpdateDispatcher;
 
-    public SentimentDataConsumer(SentimentRepo sentimentRepo, @Value("${fastapi.url}") String fastApiUrl) {
+    public SentimentDataConsumer(SentimentRepo sentimentRepo, List<MarketDataListener> listeners,
+        KafkaListenerEndpointRegistry listenerRegistry, SentimentScorer scorer,
+        SentimentCache sentimentCache, MarketDataCodec codec, PipelineMetrics metrics,
+        ChartResponseCache chartResponseCache, WriteBehindWriters writers,
+        @Value("${sentiment.pipeline.batch-size:10}") int batchSize,
+        @Value("${sentiment.pipeline.max-in-flight:4}") int maxInFlight,
+        @Value("${sentiment.pipeline.queue-capacity:1000}") int queueCapacity,
+        @Value("${sentiment.pipeline.flush-interval:PT5S}") Duration flushInterval,
+        @Value("${sentiment.pipeline.request-timeout:PT30S}") Duration requestTimeout,
+        @Value("${sentiment.pipeline.retry.initial-backoff:PT1S}") Duration retryInitialBackoff,
+        @Value("${sentiment.pipeline.retry.max-backoff:PT30S}") Duration retryMaxBackoff) {
         this.sentimentRepo = sentimentRepo;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.findAndRegisterModules();
-        this.webClient = WebClient.builder()
-                .baseUrl(fastApiUrl)
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .build();
-        Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(this::flushBuffer
-        , FLUSH_INTERVAL.toSeconds(), FLUSH_INTERVAL.toSeconds(), TimeUnit.SECONDS);
+        this.listeners = listeners;
+        this.listenerRegistry = listenerRegistry;
+        this.codec = codec;
+        this.metrics = metrics;
+        this.scorer = scorer;
+        this.sentimentCache = sentimentCache;
+        this.chartResponseCache = chartResponseCache;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.requestTimeout = requestTimeout;
+        this.retryInitialBackoff = retryInitialBackoff;
+        this.retryMaxBackoff = retryMaxBackoff;
+        this.highWatermark = Math.max(1, queueCapacity * 3 / 4);
+        this.lowWatermark = queueCapacity / 4;
+        this.writer = writers.create(PipelineMetrics.NEWS, this::store);
+        // a batch holds its permit until persisted, so at most maxInFlight of these threads exist
+        this.persistExecutor = metrics.monitor(Executors.newVirtualThreadPerTaskExecutor(), "sentiment-persist");
+        metrics.gauge("sentiment.queue.depth", "Headlines waiting to be scored", queue::size);
+        metrics.gauge("sentiment.batches.in.flight", "Batches being scored or persisted",
+            () -> maxInFlight - inFlight.availablePermits());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = Thread.ofVirtual().name("sentiment-dispatcher").start(this::dispatchLoop);
+        if (writer != null) {
+            writer.start();
+        }
+    }
+
+    // headlines not stored by now were never acknowledged, Kafka delivers them again after the restart
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(flushInterval.toMillis());
+        persistExecutor.shutdown();
+        persistExecutor.awaitTermination(requestTimeout.toSeconds(), TimeUnit.SECONDS);
+        if (writer != null) {
+            writer.stop(Duration.ofSeconds(10));
+        }
     }
 
     @Override
-    @KafkaListener(topics = TOPIC, groupId = GROUP_ID)
-    public void consume(String messageJson) {
+    public void consume(ConsumerRecord<String, byte[]> record) {
+        consume(record, () -> {});
+    }
+
+    @KafkaListener(id = LISTENER_ID, topics = TOPIC, groupId = GROUP_ID, containerFactory = "asyncAckContainerFactory")
+    public void consume(ConsumerRecord<String, byte[]> record, Acknowledgment ack) {
+        NewsDataDto dto;
+        Instant fetchedAt;
         try {
-            NewsDataDto dto = objectMapper.readValue(messageJson, NewsDataDto.class);
-            synchronized (lock) {
-                buffer.add(dto);
-                if (buffer.size() >= BATCH_SIZE) {
-                    flushBuffer();
-                }
-            }
+            dto = codec.decodeNews(record);
+            fetchedAt = codec.fetchedAt(record);
+            metrics.stage(PipelineMetrics.NEWS, PipelineMetrics.CONSUMED, dto.getStock(), fetchedAt);
         } catch (Exception e) {
             System.err.println("Failed to process sentiment message: " + e.getMessage());
             e.printStackTrace();
+            // a redelivery would fail the same way
+            ack.acknowledge();
+            return;
+        }
+        try {
+            // only blocks for records that were already polled when the container got paused
+            queue.put(new Pending(dto, fetchedAt, ack));
+            if (queue.size() >= highWatermark) {
+                setListenerPaused(true);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                List<Pending> batch = nextBatch();
+                if (batch.isEmpty()) continue;
+
+                if (queue.size() <= lowWatermark) {
+                    setListenerPaused(false);
+                }
+
+                inFlight.acquire();
+                score(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Sentiment dispatcher error: " + e.getMessage());
+            }
         }
     }
 
-    private void flushBuffer() {
-        List<NewsDataDto> batch;
-        synchronized (lock) {
-            if (buffer.isEmpty()) return;
-            batch = mergeNewsWithEqualTimestamp(new ArrayList<>(buffer));
-            buffer.clear();
+    // waits for the first headline, then up to flushInterval for the batch to fill
+    private List<Pending> nextBatch() throws InterruptedException {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        Pending first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) return batch;
+        batch.add(first);
+
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) continue;
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
         }
+        return batch;
+    }
 
-        try {
-            List<SentimentResponseDto> results = webClient.post()
-                    .uri("")
-                    .bodyValue(batch)
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<List<SentimentResponseDto>>() {})
-                    .block();
+    private void score(List<Pending> batch) {
+        List<NewsDataDto> merged = mergeNewsWithEqualTimestamp(batch.stream().map(Pending::headline).toList());
+        List<Acknowledgment> acks = batch.stream().map(Pending::ack).toList();
+        // a merged headline counts from its earliest fetch
+        Map<String, Instant> fetchedAt = batch.stream()
+            .filter(pending -> pending.fetchedAt() != null)
+            .collect(Collectors.toMap(pending -> key(pending.headline().getStock(), pending.headline().getTimestamp()),
+                Pending::fetchedAt, (a, b) -> a.isBefore(b) ? a : b));
+        Mono.defer(() -> scoreOnce(merged))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, retryInitialBackoff)
+                    .maxBackoff(retryMaxBackoff)
+                    .filter(e -> running))
+                .subscribe(
+                    results -> {
+                        try {
+                            persistExecutor.execute(() -> persist(merged, fetchedAt, results, acks));
+                        } catch (RejectedExecutionException e) {
+                            // shutting down, left unacknowledged so Kafka delivers them again
+                            inFlight.release();
+                        }
+                    },
+                    e -> {
+                        // only given up on when stopping, left unacknowledged so Kafka delivers them again
+                        inFlight.release();
+                        System.err.println("Gave up scoring " + merged.size() + " headlines: " + e.getMessage());
+                    });
+    }
 
+    // only cache misses reach the scorer; deferred so a scorer that throws instead of returning an
+    // error is retried like any other failure
+    private Mono<List<SentimentResponseDto>> scoreOnce(List<NewsDataDto> merged) {
+        long start = System.nanoTime();
+        return Mono.defer(() -> sentimentCache.score(merged, scorer))
+                .timeout(requestTimeout)
+                .defaultIfEmpty(List.of())
+                .doOnNext(results -> metrics.scored(merged.size(), Duration.ofNanos(System.nanoTime() - start), true))
+                .doOnError(e -> {
+                    metrics.scored(merged.size(), Duration.ofNanos(System.nanoTime() - start), false);
+                    System.err.println("Failed to score " + merged.size() + " headlines, retrying: " + e.getMessage());
+                });
+    }
+
+    private void persist(List<NewsDataDto> merged, Map<String, Instant> fetchedAt, List<SentimentResponseDto> results,
+        List<Acknowledgment> acks) {
+        try {
+            // merged holds one headline text per symbol and timestamp
+            Map<String, String> headlines = merged.stream()
+                .collect(Collectors.toMap(news -> key(news.getStock(), news.getTimestamp()),
+                    news -> String.valueOf(news.getNewsData())));
             List<Sentiment> entities = results.stream()
-                .map(this::mapResponseToEntity)
+                .map(response -> mapResponseToEntity(response,
+                    headlines.get(key(response.getStock(), response.getTimestamp()))))
                 .toList();
-
-            sentimentRepo.saveAll(entities);
-            
-            for (Sentiment sentimentEntity : entities) {
-                SentimentDataDto sentimentData = new SentimentDataDto(
-                    sentimentEntity.getTimestamp(),
-                    sentimentEntity.getStock(),
-                    sentimentEntity.getSentiment(), 
-                    sentimentEntity.getCompoundScore()
-                );
-                webSocketController.sendSentimentUpdate(sentimentData);
+            if (writer != null) {
+                writeBehind(entities, fetchedAt, acks);
+                return;
             }
+
+            long start = System.nanoTime();
+            store(entities);
+            metrics.persisted(PipelineMetrics.NEWS, Duration.ofNanos(System.nanoTime() - start));
+
+            List<Sentiment> stored = stored(entities);
+            notifyListeners(stored, listener -> true);
+            // after the listeners, so a re-render sees the live buffer and rollups updated
+            chartResponseCache.invalidate(stocks(stored));
+
+            publish(stored, fetchedAt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            inFlight.release();
+        }
+        acks.forEach(Acknowledgment::acknowledge);
+    }
+
+    // the permit is released once the batch is queued, the writer's own queue bounds the rest
+    private void writeBehind(List<Sentiment> entities, Map<String, Instant> fetchedAt, List<Acknowledgment> acks)
+        throws InterruptedException {
+        notifyListeners(entities, listener -> !listener.persistent());
+        chartResponseCache.invalidate(stocks(entities));
+        publish(entities, fetchedAt);
+
+        writer.submit(entities, () -> {
+            List<Sentiment> stored = stored(entities);
+            notifyListeners(stored, MarketDataListener::persistent);
+            chartResponseCache.invalidate(stocks(stored));
+            acks.forEach(Acknowledgment::acknowledge);
+        });
+    }
+
+    // Redelivered headlines conflict with their stored row on (stock, headline_hash, timestamp) and
+    // are skipped by the insert itself. Only the rows written get an id, see stored(). ingestedAt is
+    // stamped here rather than when scored, chart update cursors expect a row to be visible within a
+    // few seconds of it.
+    private void store(List<Sentiment> entities) {
+        // ids handed out by a failed attempt must not mark its rows as stored
+        entities.forEach(entity -> entity.setId(null));
+        if (entities.isEmpty()) return;
+        Instant now = Instant.now();
+        entities.forEach(entity -> entity.setIngestedAt(now));
+        sentimentRepo.insertNew(entities);
+    }
+
+    private static List<Sentiment> stored(List<Sentiment> entities) {
+        return entities.stream().filter(entity -> entity.getId() != null).toList();
+    }
+
+    private static String key(String stock, Instant timestamp) {
+        return stock + '|' + timestamp.toEpochMilli();
+    }
+
+    private void notifyListeners(List<Sentiment> entities, Predicate<MarketDataListener> which) {
+        if (entities.isEmpty()) return;
+        for (MarketDataListener listener : listeners) {
+            if (!which.test(listener)) continue;
+            try {
+                listener.onSentiments(entities);
+            } catch (Exception e) {
+                System.err.println("Sentiment listener " + listener.getClass().getSimpleName() + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void publish(List<Sentiment> entities, Map<String, Instant> fetchedAt) {
+        for (Sentiment sentimentEntity : entities) {
+            SentimentDataDto sentimentData = new SentimentDataDto(
+                sentimentEntity.getTimestamp(),
+                sentimentEntity.getStock(),
+                sentimentEntity.getSentiment(),
+                sentimentEntity.getCompoundScore(),
+                fetchedAt.get(key(sentimentEntity.getStock(), sentimentEntity.getTimestamp()))
+            );
+            marketUpdateDispatcher.publishSentiment(sentimentData);
+        }
+    }
+
+    private static List<String> stocks(List<Sentiment> entities) {
+        return entities.stream().map(Sentiment::getStock).distinct().toList();
+    }
+
+    private void setListenerPaused(boolean paused) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null || container.isPauseRequested() == paused) return;
+        if (paused) {
+            container.pause();
+        } else {
+            container.resume();
         }
     }
 
-    private Sentiment mapResponseToEntity(SentimentResponseDto response) {
+    private Sentiment mapResponseToEntity(SentimentResponseDto response, String headline) {
         Sentiment s = new Sentiment();
         s.setTimestamp(response.getTimestamp());
         s.setStock(response.getStock());
+        s.setHeadlineHash(NewsDedupeIndex.key(response.getStock(), headline != null ? headline : ""));
         s.setSentiment(response.getSentiment());
         s.setNegScore(response.getScores().getOrDefault("neg", 0.0));
         s.setNeuScore(response.getScores().getOrDefault("neu", 0.0));
@@ -122,7 +384,7 @@ public class SentimentDataConsumer implements ConsumerService {
         return s;
     }
 
-    private static List<NewsDataDto> mergeNewsWithEqualTimestamp(List<NewsDataDto> newsList) {
+    static List<NewsDataDto> mergeNewsWithEqualTimestamp(List<NewsDataDto> newsList) {
         return newsList.stream()
             .collect(Collectors.groupingBy(
                 n -> Arrays.asList(n.getStock(), n.getTimestamp()), // group key
@@ -133,7 +395,7 @@ public class SentimentDataConsumer implements ConsumerService {
             .map(entry -> new NewsDataDto(
                     (Instant) entry.getKey().get(1), // timestamp
                     (String) entry.getKey().get(0), // stock
-                    String.join(" ", 
+                    String.join(" ",
                     entry.getValue().stream().map(Object::toString).toList())
                     ))
             .toList();
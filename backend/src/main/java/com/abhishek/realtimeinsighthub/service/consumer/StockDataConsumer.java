@@ -1,53 +1,196 @@
 package com.abhishek.realtimeinsighthub.service.consumer;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
-import com.abhishek.realtimeinsighthub.controller.WebSocketController;
 import com.abhishek.realtimeinsighthub.dto.StockDataDto;
 import com.abhishek.realtimeinsighthub.entity.Price;
 import com.abhishek.realtimeinsighthub.repo.PriceRepo;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.abhishek.realtimeinsighthub.service.cache.ChartResponseCache;
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+import com.abhishek.realtimeinsighthub.service.push.MarketUpdateDispatcher;
+import com.abhishek.realtimeinsighthub.service.wire.MarketDataCodec;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
+// With write-behind on, a batch is pushed and fed to the in-memory listeners as soon as it is
+// consumed; the writer stores it, then the persistent listeners run and its offsets are committed.
 @Service
 public class StockDataConsumer implements ConsumerService {
 
     private final String TOPIC = "stock-topic";
     private final String GROUP_ID = "stock-consumer";
+    private final String LISTENER_ID = "stock-consumer";
 
     private final PriceRepo priceRepo;
-    private final ObjectMapper objectMapper;
+    private final List<MarketDataListener> listeners;
+    private final MarketDataCodec codec;
+    private final PipelineMetrics metrics;
+    private final ChartResponseCache chartResponseCache;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final WriteBehindWriter<Price> writer;
 
     @Autowired
-    private WebSocketController webSocketController;
+    private MarketUpdateDispatcher marketUpdateDispatcher;
 
-    public StockDataConsumer(PriceRepo priceRepo) {
+    public StockDataConsumer(PriceRepo priceRepo, List<MarketDataListener> listeners, MarketDataCodec codec,
+        PipelineMetrics metrics, ChartResponseCache chartResponseCache, KafkaListenerEndpointRegistry listenerRegistry,
+        WriteBehindWriters writers) {
         this.priceRepo = priceRepo;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.findAndRegisterModules();
+        this.listeners = listeners;
+        this.codec = codec;
+        this.metrics = metrics;
+        this.chartResponseCache = chartResponseCache;
+        this.listenerRegistry = listenerRegistry;
+        this.writer = writers.create(PipelineMetrics.STOCK, this::store);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (writer != null) {
+            writer.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer != null) {
+            writer.stop(Duration.ofSeconds(10));
+        }
     }
 
     @Override
-    @KafkaListener(topics = TOPIC, groupId = GROUP_ID)
-    public void consume(String messageJson) {
-        try {
-            StockDataDto dto = objectMapper.readValue(messageJson, StockDataDto.class);
+    public void consume(ConsumerRecord<String, byte[]> record) {
+        consumeBatch(List.of(record));
+    }
 
-            Price price = new Price();
-            price.setTimestamp(dto.getTimestamp());
-            price.setStock(dto.getStock());
-            price.setPrice(dto.getPrice());
+    @Override
+    public void consumeBatch(List<ConsumerRecord<String, byte[]>> records) {
+        consumeBatch(records, () -> {});
+    }
 
-            priceRepo.save(price);
+    // one poll's worth of ticks, written with a single JDBC batch
+    @KafkaListener(id = LISTENER_ID, topics = TOPIC, groupId = GROUP_ID, batch = "true",
+        containerFactory = "manualAckContainerFactory")
+    public void consumeBatch(List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        List<StockDataDto> dtos = new ArrayList<>(records.size());
+        List<Price> prices = new ArrayList<>(records.size());
+        List<Instant> fetchedAt = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            try {
+                StockDataDto dto = codec.decodeStock(record);
+                Instant fetched = codec.fetchedAt(record);
+                metrics.stage(PipelineMetrics.STOCK, PipelineMetrics.CONSUMED, dto.getStock(), fetched);
 
-            webSocketController.sendStockUpdate(dto);
+                Price price = new Price();
+                price.setTimestamp(dto.getTimestamp());
+                price.setStock(dto.getStock());
+                price.setPrice(dto.getPrice());
+
+                dtos.add(dto);
+                prices.add(price);
+                fetchedAt.add(fetched);
+            } catch (Exception e) {
+                System.err.println("Failed to process stock message: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        if (writer != null) {
+            writeBehind(dtos, prices, fetchedAt, ack);
+            return;
+        }
+        if (prices.isEmpty()) {
+            ack.acknowledge();
+            return;
+        }
+
+        try {
+            long start = System.nanoTime();
+            priceRepo.saveAll(prices);
+            metrics.persisted(PipelineMetrics.STOCK, Duration.ofNanos(System.nanoTime() - start));
+            fetchedAt.forEach(fetched -> metrics.latency(PipelineMetrics.STOCK, PipelineMetrics.PERSISTED, fetched));
+            notifyListeners(prices, listener -> true);
+            // after the listeners, so a re-render sees the live buffer and rollups updated
+            chartResponseCache.invalidate(stocks(prices));
+
+            dtos.forEach(marketUpdateDispatcher::publishStock);
 
         } catch (Exception e) {
-            System.err.println("Failed to process stock message: " + e.getMessage());
+            System.err.println("Failed to persist " + prices.size() + " stock messages: " + e.getMessage());
             e.printStackTrace();
         }
-        
+        ack.acknowledge();
     }
 
+    private void writeBehind(List<StockDataDto> dtos, List<Price> prices, List<Instant> fetchedAt, Acknowledgment ack) {
+        if (!prices.isEmpty()) {
+            notifyListeners(prices, listener -> !listener.persistent());
+            chartResponseCache.invalidate(stocks(prices));
+            dtos.forEach(marketUpdateDispatcher::publishStock);
+        }
+
+        // empty batches go through the writer too, so offsets are still committed in order
+        try {
+            writer.submit(prices, () -> {
+                fetchedAt.forEach(fetched -> metrics.latency(PipelineMetrics.STOCK, PipelineMetrics.PERSISTED, fetched));
+                if (!prices.isEmpty()) {
+                    notifyListeners(prices, MarketDataListener::persistent);
+                    chartResponseCache.invalidate(stocks(prices));
+                }
+                ack.acknowledge();
+                if (writer.backlog() <= writer.capacity() / 4) {
+                    setListenerPaused(false);
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (writer.backlog() >= writer.capacity() * 3 / 4) {
+            setListenerPaused(true);
+        }
+    }
+
+    private void store(List<Price> prices) {
+        // ids handed out by a failed attempt would turn the retry into updates
+        prices.forEach(price -> price.setId(null));
+        priceRepo.saveAll(prices);
+    }
+
+    private void notifyListeners(List<Price> prices, Predicate<MarketDataListener> which) {
+        for (MarketDataListener listener : listeners) {
+            if (!which.test(listener)) continue;
+            try {
+                listener.onPrices(prices);
+            } catch (Exception e) {
+                System.err.println("Price listener " + listener.getClass().getSimpleName() + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static List<String> stocks(List<Price> prices) {
+        return prices.stream().map(Price::getStock).distinct().toList();
+    }
+
+    private void setListenerPaused(boolean paused) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null || container.isPauseRequested() == paused) return;
+        if (paused) {
+            container.pause();
+        } else {
+            container.resume();
+        }
+    }
 }
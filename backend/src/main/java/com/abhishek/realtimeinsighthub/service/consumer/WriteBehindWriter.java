@@ -0,0 +1,144 @@
+package com.abhishek.realtimeinsighthub.service.consumer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+
+// Stores consumed batches off the listener thread. One writer takes batches in arrival order,
+// joins queued ones up to maxRows into a single write and retries a failed write with capped
+// exponential backoff until it succeeds, unless the database rejects the rows themselves.
+// A batch's callback runs only once its rows are stored, so Kafka offsets acknowledged there
+// are never ahead of the database.
+public class WriteBehindWriter<T> {
+
+    private record Batch<T>(List<T> rows, Runnable onWritten, long submittedNanos) {
+    }
+
+    private final String type;
+    private final Consumer<List<T>> store;
+    private final PipelineMetrics metrics;
+    private final BlockingQueue<Batch<T>> queue;
+    private final int maxRows;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final AtomicInteger backlogRows = new AtomicInteger();
+    private Thread writer;
+    private volatile boolean running;
+
+    public WriteBehindWriter(String type, Consumer<List<T>> store, PipelineMetrics metrics, int capacity, int maxRows,
+        Duration initialBackoff, Duration maxBackoff) {
+        this.type = type;
+        this.store = store;
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxRows = maxRows;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        metrics.gauge("writebehind.backlog", "Rows handed to the write-behind writer and not stored yet",
+            backlogRows::get, "type", type);
+    }
+
+    public void start() {
+        running = true;
+        writer = Thread.ofVirtual().name(type + "-write-behind").start(this::writeLoop);
+    }
+
+    // Queued batches are still written; a write that keeps failing is given up after timeout and
+    // its callback never runs, Kafka delivers those records again after the restart.
+    public void stop(Duration timeout) throws InterruptedException {
+        running = false;
+        writer.join(timeout.toMillis());
+        if (writer.isAlive()) {
+            writer.interrupt();
+            System.err.println("Write-behind " + type + " stopped with " + backlogRows.get() + " rows not stored");
+        }
+    }
+
+    // blocks while the queue is full
+    public void submit(List<T> rows, Runnable onWritten) throws InterruptedException {
+        backlogRows.addAndGet(rows.size());
+        queue.put(new Batch<>(rows, onWritten, System.nanoTime()));
+    }
+
+    public int backlog() {
+        return queue.size();
+    }
+
+    public int capacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Batch<T> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                List<Batch<T>> batches = new ArrayList<>();
+                batches.add(first);
+                int rows = first.rows().size();
+                while (rows < maxRows) {
+                    Batch<T> next = queue.peek();
+                    if (next == null || rows + next.rows().size() > maxRows) break;
+                    batches.add(queue.poll());
+                    rows += next.rows().size();
+                }
+                write(batches, rows);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<Batch<T>> batches, int rows) throws InterruptedException {
+        List<T> all = new ArrayList<>(rows);
+        batches.forEach(batch -> all.addAll(batch.rows()));
+
+        Duration backoff = initialBackoff;
+        while (true) {
+            try {
+                long start = System.nanoTime();
+                store.accept(all);
+                metrics.persisted(type, Duration.ofNanos(System.nanoTime() - start));
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // retrying cannot help; the joined batches are tried one by one so only the bad one is lost
+                if (batches.size() > 1) {
+                    for (Batch<T> batch : batches) {
+                        write(List.of(batch), batch.rows().size());
+                    }
+                    return;
+                }
+                System.err.println("Write-behind " + type + " dropped " + rows + " rows the database rejects: "
+                    + e.getMessage());
+                break;
+            } catch (Exception e) {
+                metrics.writeBehindRetry(type);
+                System.err.println("Write-behind " + type + " write of " + rows + " rows failed, retrying in "
+                    + backoff.toMillis() + " ms: " + e.getMessage());
+                Thread.sleep(backoff.toMillis());
+                backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+            }
+        }
+
+        long now = System.nanoTime();
+        for (Batch<T> batch : batches) {
+            backlogRows.addAndGet(-batch.rows().size());
+            metrics.writeBehindLag(type, Duration.ofNanos(now - batch.submittedNanos()));
+            try {
+                batch.onWritten().run();
+            } catch (Exception e) {
+                System.err.println("Write-behind " + type + " callback failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.abhishek.realtimeinsighthub.service.consumer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+
+// storage.write-behind settings shared by the consumers
+@Component
+public class WriteBehindWriters {
+
+    private final PipelineMetrics metrics;
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final int maxRows;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public WriteBehindWriters(PipelineMetrics metrics,
+        @Value("${storage.write-behind.enabled:true}") boolean enabled,
+        @Value("${storage.write-behind.queue-capacity:64}") int queueCapacity,
+        @Value("${storage.write-behind.max-rows:5000}") int maxRows,
+        @Value("${storage.write-behind.retry.initial-backoff:PT0.1S}") Duration initialBackoff,
+        @Value("${storage.write-behind.retry.max-backoff:PT10S}") Duration maxBackoff) {
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        this.maxRows = maxRows;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    // null when write-behind is off, the consumers then store each batch before pushing it
+    public <T> WriteBehindWriter<T> create(String type, Consumer<List<T>> store) {
+        if (!enabled) return null;
+        return new WriteBehindWriter<>(type, store, metrics, queueCapacity, maxRows, initialBackoff, maxBackoff);
+    }
+}
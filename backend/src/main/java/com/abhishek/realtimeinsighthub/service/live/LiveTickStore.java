@@ -0,0 +1,112 @@
+package com.abhishek.realtimeinsighthub.service.live;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.abhishek.realtimeinsighthub.dto.PricePoint;
+import com.abhishek.realtimeinsighthub.dto.SentimentPoint;
+import com.abhishek.realtimeinsighthub.dto.StockChartDto;
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.service.consumer.MarketDataListener;
+
+@Component
+public class LiveTickStore implements MarketDataListener {
+
+    private final Map<String, TickRingBuffer> buffers = new ConcurrentHashMap<>();
+    private final int capacity;
+    // nothing older than our own start can be assumed to be in memory
+    private final long startedAt;
+    // symbols seeded even when the database has nothing for them yet
+    private final Set<String> symbols;
+
+    public LiveTickStore(int capacity) {
+        this(capacity, List.of());
+    }
+
+    @Autowired
+    public LiveTickStore(@Value("${chart.live.capacity:4096}") int capacity,
+        @Value("${market.symbols:}") List<String> symbols) {
+        this.capacity = capacity;
+        this.startedAt = Instant.now().toEpochMilli();
+        this.symbols = Set.copyOf(symbols);
+    }
+
+    @Override
+    public void onPrices(List<Price> prices) {
+        for (Price price : prices) {
+            buffer(price.getStock()).appendPrice(price.getTimestamp().toEpochMilli(), price.getPrice());
+        }
+    }
+
+    @Override
+    public void onSentiments(List<Sentiment> sentiments) {
+        for (Sentiment sentiment : sentiments) {
+            buffer(sentiment.getStock()).appendSentiment(sentiment.getTimestamp().toEpochMilli(),
+                sentiment.getSentiment(), sentiment.getCompoundScore());
+        }
+    }
+
+    // rows of one symbol written after a restored snapshot, oldest first
+    public void append(String stock, Collection<PricePoint> prices, Collection<SentimentPoint> sentiments) {
+        TickRingBuffer buffer = buffer(stock);
+        for (PricePoint price : prices) {
+            buffer.appendPrice(price.getTimestamp().toEpochMilli(), price.getPrice());
+        }
+        for (SentimentPoint sentiment : sentiments) {
+            buffer.appendSentiment(sentiment.getTimestamp().toEpochMilli(), sentiment.getSentiment(),
+                sentiment.getCompound());
+        }
+    }
+
+    // empty when the buffer does not hold the whole window yet
+    public Optional<List<StockChartDto>> getChartData(String stock, Instant from) {
+        TickRingBuffer buffer = buffers.get(stock);
+        long fromMillis = from.toEpochMilli();
+        if (buffer == null) {
+            return fromMillis >= startedAt ? Optional.of(List.of()) : Optional.empty();
+        }
+        synchronized (buffer) {
+            if (!buffer.covers(fromMillis)) {
+                return Optional.empty();
+            }
+            return Optional.of(buffer.chartSince(fromMillis));
+        }
+    }
+
+    // A buffer is only created for a symbol that has rows or is configured, so requests for
+    // arbitrary names do not allocate buffers that every snapshot then carries
+    public void seed(String stock, Instant from, List<PricePoint> prices, List<SentimentPoint> sentiments) {
+        if (prices.isEmpty() && sentiments.isEmpty() && !buffers.containsKey(stock) && !symbols.contains(stock)) {
+            return;
+        }
+        buffer(stock).seed(from.toEpochMilli(), prices, sentiments);
+    }
+
+    public Map<String, TickRingBuffer> buffers() {
+        return Collections.unmodifiableMap(buffers);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // buffers read back from a snapshot, before any tick is consumed
+    public void restore(Map<String, TickRingBuffer> restored) {
+        buffers.putAll(restored);
+    }
+
+    private TickRingBuffer buffer(String stock) {
+        return buffers.computeIfAbsent(stock, s -> new TickRingBuffer(capacity, startedAt));
+    }
+}
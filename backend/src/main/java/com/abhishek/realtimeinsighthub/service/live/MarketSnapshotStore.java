@@ -0,0 +1,173 @@
+package com.abhishek.realtimeinsighthub.service.live;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.abhishek.realtimeinsighthub.dto.MarketSnapshotDto;
+import com.abhishek.realtimeinsighthub.dto.PricePoint;
+import com.abhishek.realtimeinsighthub.dto.SentimentPoint;
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.service.consumer.MarketDataListener;
+
+// Latest price, previous close and latest sentiment of every symbol, kept current by the consumers.
+// The database is read once on startup; a snapshot request only copies the table.
+@Component
+public class MarketSnapshotStore implements MarketDataListener {
+
+    private static final ZoneId MARKET_ZONE = ZoneId.of("America/New_York");
+    // how far back the startup read looks for a previous close and a sentiment
+    private static final Duration LOOKBACK = Duration.ofDays(7);
+
+    private static final String LATEST_PRICES = """
+        SELECT DISTINCT ON (stock) stock, timestamp, price FROM prices
+        WHERE timestamp >= ? AND timestamp < ? ORDER BY stock, timestamp DESC
+        """;
+
+    private static final String LATEST_SENTIMENTS = """
+        SELECT DISTINCT ON (stock) stock, timestamp, sentiment, compound_score FROM sentiments
+        WHERE timestamp >= ? AND compound_score IS NOT NULL ORDER BY stock, timestamp DESC
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<String> symbols;
+    private final Map<String, SymbolState> states = new ConcurrentHashMap<>();
+    // the hot-state snapshot already filled the table, the startup read is skipped
+    private volatile boolean restored;
+
+    public MarketSnapshotStore(JdbcTemplate jdbcTemplate,
+        @Value("${market.symbols:AAPL,TSLA,MSFT,GOOGL,AMZN,NVDA,META}") List<String> symbols) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.symbols = symbols;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (restored) return;
+        try {
+            Instant now = Instant.now();
+            Instant dayStart = tradingDay(now).atStartOfDay(MARKET_ZONE).toInstant();
+            Instant lookback = dayStart.minus(LOOKBACK);
+            // previous close first, so today's price finds it as its reference
+            jdbcTemplate.query(LATEST_PRICES, rs -> {
+                updatePrice(rs.getString(1), rs.getTimestamp(2).toInstant(), rs.getBigDecimal(3));
+            }, Timestamp.from(lookback), Timestamp.from(dayStart));
+            jdbcTemplate.query(LATEST_PRICES, rs -> {
+                updatePrice(rs.getString(1), rs.getTimestamp(2).toInstant(), rs.getBigDecimal(3));
+            }, Timestamp.from(dayStart), Timestamp.from(now.plus(Duration.ofDays(1))));
+            jdbcTemplate.query(LATEST_SENTIMENTS, rs -> {
+                updateSentiment(rs.getString(1), rs.getTimestamp(2).toInstant(), rs.getString(3), rs.getDouble(4));
+            }, Timestamp.from(lookback));
+            System.out.println("Market snapshot loaded for " + states.size() + " symbols");
+        } catch (Exception e) {
+            System.err.println("Market snapshot load failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void onPrices(List<Price> prices) {
+        for (Price price : prices) {
+            updatePrice(price.getStock(), price.getTimestamp(), price.getPrice());
+        }
+    }
+
+    @Override
+    public void onSentiments(List<Sentiment> sentiments) {
+        for (Sentiment sentiment : sentiments) {
+            if (sentiment.getCompoundScore() == null) continue;
+            updateSentiment(sentiment.getStock(), sentiment.getTimestamp(), sentiment.getSentiment(),
+                sentiment.getCompoundScore());
+        }
+    }
+
+    // configured symbols first, in order, then any other symbol data arrived for
+    public List<MarketSnapshotDto> snapshot() {
+        Set<String> stocks = new LinkedHashSet<>(symbols);
+        states.keySet().stream().sorted().forEach(stocks::add);
+        List<MarketSnapshotDto> result = new ArrayList<>(stocks.size());
+        for (String stock : stocks) {
+            result.add(states.getOrDefault(stock, SymbolState.EMPTY).toDto(stock));
+        }
+        return result;
+    }
+
+    // a row of snapshot(), read back before any tick is consumed
+    public void restore(MarketSnapshotDto row) {
+        states.put(row.getStock(), new SymbolState(row.getTimestamp(), row.getPrice(), row.getPreviousClose(),
+            row.getSentimentTimestamp(), row.getSentiment(), row.getCompound()));
+        restored = true;
+    }
+
+    // rows of one symbol written after a restored snapshot, oldest first
+    public void restore(String stock, Collection<PricePoint> prices, Collection<SentimentPoint> sentiments) {
+        for (PricePoint price : prices) {
+            updatePrice(stock, price.getTimestamp(), price.getPrice());
+        }
+        for (SentimentPoint sentiment : sentiments) {
+            if (sentiment.getCompound() == null) continue;
+            updateSentiment(stock, sentiment.getTimestamp(), sentiment.getSentiment(), sentiment.getCompound());
+        }
+    }
+
+    private void updatePrice(String stock, Instant timestamp, BigDecimal price) {
+        states.merge(stock, SymbolState.EMPTY.withPrice(timestamp, price),
+            (current, next) -> current.withPrice(timestamp, price));
+    }
+
+    private void updateSentiment(String stock, Instant timestamp, String sentiment, double compound) {
+        states.merge(stock, SymbolState.EMPTY.withSentiment(timestamp, sentiment, compound),
+            (current, next) -> current.withSentiment(timestamp, sentiment, compound));
+    }
+
+    public static LocalDate tradingDay(Instant timestamp) {
+        return LocalDate.ofInstant(timestamp, MARKET_ZONE);
+    }
+
+    // replaced as a whole, so a reader never sees a price paired with another day's close
+    private record SymbolState(Instant priceTimestamp, BigDecimal price, BigDecimal previousClose,
+        Instant sentimentTimestamp, String sentiment, Double compound) {
+
+        static final SymbolState EMPTY = new SymbolState(null, null, null, null, null, null);
+
+        // a late tick never replaces a newer one; the first tick of a new day turns the last one into the close
+        SymbolState withPrice(Instant timestamp, BigDecimal newPrice) {
+            if (priceTimestamp != null && timestamp.isBefore(priceTimestamp)) return this;
+            BigDecimal close = priceTimestamp != null && !tradingDay(timestamp).equals(tradingDay(priceTimestamp))
+                ? price
+                : previousClose;
+            return new SymbolState(timestamp, newPrice, close, sentimentTimestamp, sentiment, compound);
+        }
+
+        SymbolState withSentiment(Instant timestamp, String newSentiment, double newCompound) {
+            if (sentimentTimestamp != null && timestamp.isBefore(sentimentTimestamp)) return this;
+            return new SymbolState(priceTimestamp, price, previousClose, timestamp, newSentiment, newCompound);
+        }
+
+        MarketSnapshotDto toDto(String stock) {
+            BigDecimal change = price != null && previousClose != null ? price.subtract(previousClose) : null;
+            Double changePercent = change != null && previousClose.signum() != 0
+                ? change.multiply(BigDecimal.valueOf(100)).divide(previousClose, 4, RoundingMode.HALF_UP).doubleValue()
+                : null;
+            return new MarketSnapshotDto(stock, priceTimestamp, price, previousClose, change, changePercent,
+                sentimentTimestamp, sentiment, compound);
+        }
+    }
+}
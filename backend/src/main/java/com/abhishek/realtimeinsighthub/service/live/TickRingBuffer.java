@@ -0,0 +1,255 @@
+package com.abhishek.realtimeinsighthub.service.live;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.abhishek.realtimeinsighthub.dto.PricePoint;
+import com.abhishek.realtimeinsighthub.dto.SentimentPoint;
+import com.abhishek.realtimeinsighthub.dto.StockChartDto;
+
+// Fixed-size window of the latest price ticks and sentiment scores of one symbol,
+// kept in primitive arrays sorted by timestamp. Late arrivals are shifted into
+// place and the oldest entry is evicted once the buffer is full.
+public class TickRingBuffer {
+
+    static final int PRICE_SCALE = 4;
+
+    private static final String[] LABELS = {"negative", "neutral", "positive"};
+
+    // price series
+    private final long[] priceTs;
+    private final long[] priceScaled;
+    private int priceHead;
+    private int priceSize;
+    // every price tick with timestamp > priceCoveredAfter is in the buffer
+    private long priceCoveredAfter;
+
+    // sentiment series
+    private final long[] sentimentTs;
+    private final double[] compound;
+    private final byte[] label;
+    private int sentimentHead;
+    private int sentimentSize;
+    private long sentimentCoveredAfter;
+
+    public TickRingBuffer(int capacity, long coveredAfterMillis) {
+        this.priceTs = new long[capacity];
+        this.priceScaled = new long[capacity];
+        this.sentimentTs = new long[capacity];
+        this.compound = new double[capacity];
+        this.label = new byte[capacity];
+        this.priceCoveredAfter = coveredAfterMillis;
+        this.sentimentCoveredAfter = coveredAfterMillis;
+    }
+
+    public synchronized void appendPrice(long ts, BigDecimal price) {
+        appendScaled(ts, toScaled(price));
+    }
+
+    private void appendScaled(long ts, long scaled) {
+        int capacity = priceTs.length;
+        if (priceSize == capacity) {
+            long oldest = priceTs[priceHead];
+            if (ts < oldest) {
+                // older than anything we keep, the window simply starts later
+                priceCoveredAfter = Math.max(priceCoveredAfter, ts);
+                return;
+            }
+            priceCoveredAfter = Math.max(priceCoveredAfter, oldest);
+            priceHead = (priceHead + 1) % capacity;
+            priceSize--;
+        }
+
+        // shift later ticks one slot to the right until the new one fits
+        int pos = priceSize;
+        while (pos > 0) {
+            int prev = (priceHead + pos - 1) % capacity;
+            if (priceTs[prev] <= ts) break;
+            int cur = (priceHead + pos) % capacity;
+            priceTs[cur] = priceTs[prev];
+            priceScaled[cur] = priceScaled[prev];
+            pos--;
+        }
+        int slot = (priceHead + pos) % capacity;
+        priceTs[slot] = ts;
+        priceScaled[slot] = scaled;
+        priceSize++;
+    }
+
+    public synchronized void appendSentiment(long ts, String sentiment, double compoundScore) {
+        appendSentiment(ts, labelCode(sentiment), compoundScore);
+    }
+
+    private void appendSentiment(long ts, byte labelCode, double compoundScore) {
+        int capacity = sentimentTs.length;
+        if (sentimentSize == capacity) {
+            long oldest = sentimentTs[sentimentHead];
+            if (ts < oldest) {
+                sentimentCoveredAfter = Math.max(sentimentCoveredAfter, ts);
+                return;
+            }
+            sentimentCoveredAfter = Math.max(sentimentCoveredAfter, oldest);
+            sentimentHead = (sentimentHead + 1) % capacity;
+            sentimentSize--;
+        }
+
+        int pos = sentimentSize;
+        while (pos > 0) {
+            int prev = (sentimentHead + pos - 1) % capacity;
+            if (sentimentTs[prev] <= ts) break;
+            int cur = (sentimentHead + pos) % capacity;
+            sentimentTs[cur] = sentimentTs[prev];
+            compound[cur] = compound[prev];
+            label[cur] = label[prev];
+            pos--;
+        }
+        int slot = (sentimentHead + pos) % capacity;
+        sentimentTs[slot] = ts;
+        compound[slot] = compoundScore;
+        label[slot] = labelCode;
+        sentimentSize++;
+    }
+
+    public synchronized boolean covers(long fromMillis) {
+        return priceCoveredAfter <= fromMillis && sentimentCoveredAfter <= fromMillis;
+    }
+
+    // Fills the part of (fromMillis, coveredAfter] the buffer has not seen yet
+    // with rows loaded from the database; newer rows already came through the consumers.
+    public synchronized void seed(long fromMillis, List<PricePoint> prices, List<SentimentPoint> sentiments) {
+        long priceCutoff = priceCoveredAfter;
+        priceCoveredAfter = Math.min(priceCoveredAfter, fromMillis);
+        for (PricePoint p : prices) {
+            long ts = p.getTimestamp().toEpochMilli();
+            if (ts > fromMillis && ts <= priceCutoff) {
+                appendPrice(ts, p.getPrice());
+            }
+        }
+
+        long sentimentCutoff = sentimentCoveredAfter;
+        sentimentCoveredAfter = Math.min(sentimentCoveredAfter, fromMillis);
+        for (SentimentPoint s : sentiments) {
+            long ts = s.getTimestamp().toEpochMilli();
+            if (ts > fromMillis && ts <= sentimentCutoff) {
+                appendSentiment(ts, s.getSentiment(), s.getCompound());
+            }
+        }
+    }
+
+    // Same shape as the database path: every price after fromMillis with the latest
+    // sentiment at or before it, or the sentiment points alone when there are no prices.
+    public synchronized List<StockChartDto> chartSince(long fromMillis) {
+        int priceStart = firstAfter(priceTs, priceHead, priceSize, fromMillis);
+        int sentimentStart = firstAfter(sentimentTs, sentimentHead, sentimentSize, fromMillis);
+        int pCapacity = priceTs.length;
+        int sCapacity = sentimentTs.length;
+
+        if (priceStart == priceSize) {
+            List<StockChartDto> result = new ArrayList<>(sentimentSize - sentimentStart);
+            for (int i = sentimentStart; i < sentimentSize; i++) {
+                int s = (sentimentHead + i) % sCapacity;
+                result.add(new StockChartDto(Instant.ofEpochMilli(sentimentTs[s]), null,
+                    labelName(label[s]), compound[s]));
+            }
+            return result;
+        }
+
+        List<StockChartDto> result = new ArrayList<>(priceSize - priceStart);
+        int si = sentimentStart;
+        int closest = -1;
+        for (int i = priceStart; i < priceSize; i++) {
+            int p = (priceHead + i) % pCapacity;
+            long ts = priceTs[p];
+            while (si < sentimentSize && sentimentTs[(sentimentHead + si) % sCapacity] <= ts) {
+                int s = (sentimentHead + si) % sCapacity;
+                // equal timestamps keep the first score, like the database path
+                if (closest < 0 || sentimentTs[closest] != sentimentTs[s]) {
+                    closest = s;
+                }
+                si++;
+            }
+            result.add(new StockChartDto(
+                Instant.ofEpochMilli(ts),
+                BigDecimal.valueOf(priceScaled[p], PRICE_SCALE),
+                closest >= 0 ? labelName(label[closest]) : null,
+                closest >= 0 ? compound[closest] : null));
+        }
+        return result;
+    }
+
+    // coverage, then the price and sentiment series oldest first, see snapshot/HotStateSnapshot
+    public synchronized ByteBuffer encode() {
+        ByteBuffer out = ByteBuffer.allocate(8 + 8 + 4 + priceSize * 16 + 4 + sentimentSize * 17);
+        out.putLong(priceCoveredAfter).putLong(sentimentCoveredAfter);
+        out.putInt(priceSize);
+        for (int i = 0; i < priceSize; i++) {
+            int p = (priceHead + i) % priceTs.length;
+            out.putLong(priceTs[p]).putLong(priceScaled[p]);
+        }
+        out.putInt(sentimentSize);
+        for (int i = 0; i < sentimentSize; i++) {
+            int s = (sentimentHead + i) % sentimentTs.length;
+            out.putLong(sentimentTs[s]).putDouble(compound[s]).put(label[s]);
+        }
+        return out.flip();
+    }
+
+    // Entries after upToMillis are left out, the caller reloads them. A smaller capacity than the
+    // encoded buffer's keeps the newest entries and moves the coverage up accordingly.
+    public static TickRingBuffer decode(ByteBuffer in, int capacity, long upToMillis) {
+        TickRingBuffer buffer = new TickRingBuffer(capacity, 0);
+        buffer.priceCoveredAfter = in.getLong();
+        buffer.sentimentCoveredAfter = in.getLong();
+        int prices = in.getInt();
+        for (int i = 0; i < prices; i++) {
+            long ts = in.getLong();
+            long scaled = in.getLong();
+            if (ts <= upToMillis) {
+                buffer.appendScaled(ts, scaled);
+            }
+        }
+        int sentiments = in.getInt();
+        for (int i = 0; i < sentiments; i++) {
+            long ts = in.getLong();
+            double score = in.getDouble();
+            byte code = in.get();
+            if (ts <= upToMillis) {
+                buffer.appendSentiment(ts, code, score);
+            }
+        }
+        return buffer;
+    }
+
+    private static int firstAfter(long[] ts, int head, int size, long fromMillis) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ts[(head + mid) % ts.length] > fromMillis) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    static long toScaled(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static byte labelCode(String sentiment) {
+        for (byte i = 0; i < LABELS.length; i++) {
+            if (LABELS[i].equals(sentiment)) return i;
+        }
+        return -1;
+    }
+
+    private static String labelName(byte code) {
+        return code >= 0 ? LABELS[code] : null;
+    }
+}
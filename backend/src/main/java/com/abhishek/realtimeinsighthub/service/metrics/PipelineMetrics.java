@@ -0,0 +1,139 @@
+package com.abhishek.realtimeinsighthub.service.metrics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+// Stage latencies are measured from the moment a tick or headline was fetched upstream:
+//   pipeline.latency{type=stock|news, stage=published|consumed|persisted|pushed}
+// plus message counts, fetch failures, sentiment batch statistics and the write-behind backlog,
+// lag and retries. Counts carry a symbol tag only for the symbols in metrics.symbols, every other
+// symbol is counted as "other" so the simulator's thousand symbols do not become series each.
+@Component
+public class PipelineMetrics {
+
+    public static final String STOCK = "stock";
+    public static final String NEWS = "news";
+
+    public static final String PUBLISHED = "published";
+    public static final String CONSUMED = "consumed";
+    public static final String PERSISTED = "persisted";
+    public static final String PUSHED = "pushed";
+
+    static final String OTHER_SYMBOL = "other";
+
+    private final MeterRegistry registry;
+    // meters are cached so the per-message path is a map lookup, not a registry lookup
+    private final Map<String, Timer> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> persistTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> scoreTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> writeBehindLags = new ConcurrentHashMap<>();
+    private final DistributionSummary sentimentBatchSize;
+    private final Set<String> taggedSymbols;
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this(registry, List.of());
+    }
+
+    @Autowired
+    public PipelineMetrics(MeterRegistry registry, @Value("${metrics.symbols:}") List<String> taggedSymbols) {
+        this.registry = registry;
+        this.taggedSymbols = Set.copyOf(taggedSymbols);
+        this.sentimentBatchSize = DistributionSummary.builder("sentiment.batch.size")
+                .description("Headlines per sentiment scoring batch")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void stage(String type, String stage, String stock, Instant fetchedAt) {
+        String symbol = symbolTag(stock);
+        counters.computeIfAbsent(type + '|' + stage + '|' + symbol, k -> Counter.builder("pipeline.messages")
+                .description("Messages per pipeline stage, by symbol for the tagged ones")
+                .tags("type", type, "stage", stage, "symbol", symbol)
+                .register(registry)).increment();
+        latency(type, stage, fetchedAt);
+    }
+
+    public void latency(String type, String stage, Instant fetchedAt) {
+        if (fetchedAt == null) return;
+        long millis = System.currentTimeMillis() - fetchedAt.toEpochMilli();
+        latencies.computeIfAbsent(type + '|' + stage, k -> Timer.builder("pipeline.latency")
+                .description("Time from upstream fetch to the end of a pipeline stage")
+                .tags("type", type, "stage", stage)
+                .publishPercentileHistogram()
+                // client-side p50/p99 over a decaying window, read by the simulator report
+                .publishPercentiles(0.5, 0.99)
+                .register(registry)).record(Math.max(0, millis), TimeUnit.MILLISECONDS);
+    }
+
+    public void fetchFailed(String type, String stock) {
+        String symbol = symbolTag(stock);
+        counters.computeIfAbsent(type + "|failed|" + symbol, k -> Counter.builder("pipeline.fetch.failures")
+                .description("Upstream fetches that failed or returned no data")
+                .tags("type", type, "symbol", symbol)
+                .register(registry)).increment();
+    }
+
+    public void persisted(String type, Duration elapsed) {
+        persistTimers.computeIfAbsent(type, t -> Timer.builder("pipeline.persist.duration")
+                .description("Time to write one consumed batch")
+                .tags("type", t)
+                .register(registry)).record(elapsed);
+    }
+
+    public void scored(int batchSize, Duration elapsed, boolean success) {
+        sentimentBatchSize.record(batchSize);
+        scoreTimers.computeIfAbsent(success ? "success" : "failure", outcome -> Timer.builder("sentiment.batch.latency")
+                .description("Sentiment scorer latency per batch, cache hits included")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry)).record(elapsed);
+    }
+
+    // time a batch waited in the write-behind writer until its rows were stored
+    public void writeBehindLag(String type, Duration lag) {
+        writeBehindLags.computeIfAbsent(type, t -> Timer.builder("writebehind.lag")
+                .description("Time from handing a batch to the write-behind writer until it is stored")
+                .tags("type", t)
+                .publishPercentileHistogram()
+                .register(registry)).record(lag);
+    }
+
+    public void writeBehindRetry(String type) {
+        counters.computeIfAbsent(type + "|writebehind-retry", k -> Counter.builder("writebehind.retries")
+                .description("Write-behind writes that failed and were retried")
+                .tags("type", type)
+                .register(registry)).increment();
+    }
+
+    private String symbolTag(String stock) {
+        return taggedSymbols.contains(stock) ? stock : OTHER_SYMBOL;
+    }
+
+    public void gauge(String name, String description, Supplier<Number> value, String... tags) {
+        Gauge.builder(name, value).description(description).tags(tags).register(registry);
+    }
+
+    // executor.execution / executor.idle timers tagged name, plus pool gauges for thread pools
+    public ExecutorService monitor(ExecutorService executor, String name) {
+        return ExecutorServiceMetrics.monitor(registry, executor, name);
+    }
+}
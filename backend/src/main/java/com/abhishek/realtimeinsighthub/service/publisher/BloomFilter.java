@@ -0,0 +1,91 @@
+package com.abhishek.realtimeinsighthub.service.publisher;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-size, lock-free Bloom filter over 64-bit keys that are already uniformly distributed
+// (a prefix of SHA-256). Probe positions use double hashing on the two 32-bit halves.
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final LongAdder count = new LongAdder();
+
+    BloomFilter(long expectedInsertions, double fpp) {
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact((Math.max(m, 64) + 63) / 64));
+        this.bitSize = bits.length() * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) m / expectedInsertions * Math.log(2)));
+    }
+
+    boolean mightContain(long key) {
+        long h1 = (int) key;
+        long h2 = (int) (key >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long index = ((h1 + i * h2) & Long.MAX_VALUE) % bitSize;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // true if the key was not in the filter before
+    boolean put(long key) {
+        long h1 = (int) key;
+        long h2 = (int) (key >>> 32);
+        boolean changed = false;
+        for (int i = 1; i <= hashFunctions; i++) {
+            long index = ((h1 + i * h2) & Long.MAX_VALUE) % bitSize;
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = bits.get(word);
+            while ((current & mask) == 0) {
+                if (bits.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+                current = bits.get(word);
+            }
+        }
+        if (changed) {
+            count.increment();
+        }
+        return changed;
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long sizeInBytes() {
+        return bitSize / 8;
+    }
+
+    int encodedSize() {
+        return 8 + 4 + bits.length() * 8;
+    }
+
+    // words are copied one at a time, a concurrent put may or may not make it in
+    void writeTo(ByteBuffer out) {
+        out.putLong(count()).putInt(bits.length());
+        for (int i = 0; i < bits.length(); i++) {
+            out.putLong(bits.get(i));
+        }
+    }
+
+    // null when the encoded filter was sized differently
+    static BloomFilter readFrom(ByteBuffer in, long expectedInsertions, double fpp) {
+        long count = in.getLong();
+        int words = in.getInt();
+        BloomFilter filter = new BloomFilter(expectedInsertions, fpp);
+        if (words != filter.bits.length()) return null;
+        for (int i = 0; i < words; i++) {
+            filter.bits.set(i, in.getLong());
+        }
+        filter.count.add(count);
+        return filter;
+    }
+}
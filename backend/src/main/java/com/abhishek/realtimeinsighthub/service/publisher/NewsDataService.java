@@ -1,134 +1,169 @@
 package com.abhishek.realtimeinsighthub.service.publisher;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+import com.abhishek.realtimeinsighthub.service.wire.MarketDataCodec;
 
-import io.netty.channel.ChannelOption;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.netty.http.client.HttpClient;
 
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 
+// the live upstream feeds, replaced by the simulator when market.source is simulator
 @Service
+@ConditionalOnProperty(name = "market.source", havingValue = "live", matchIfMissing = true)
 public class NewsDataService implements MarketDataService {
 
-    private final String[] STOCKS = {"AAPL", "TSLA", "MSFT", "GOOGL", "AMZN", "NVDA", "META"};
     private final String TOPIC = "news-topic";
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
     private final WebClient webClient;
 
-    private final ObjectMapper objectMapper;
+    private final MarketDataCodec codec;
+    private final PipelineMetrics metrics;
 
-    private final Map<String, Instant> lastSeen ;
+    private final NewsDedupeIndex dedupeIndex;
 
-    public NewsDataService(KafkaTemplate<String, String> kafkaTemplate,
-        ObjectMapper objectMapper) {
+    private final List<String> stocks;
+    private final int concurrency;
+    private final Duration requestTimeout;
+
+    public NewsDataService(KafkaTemplate<String, byte[]> kafkaTemplate,
+        MarketDataCodec codec, PipelineMetrics metrics, HttpClient marketDataHttpClient, NewsDedupeIndex dedupeIndex,
+        @Value("${apis.news.base-url:https://api.tickertick.com}") String baseUrl,
+        @Value("${market.symbols:AAPL,TSLA,MSFT,GOOGL,AMZN,NVDA,META}") List<String> stocks,
+        @Value("${publisher.concurrency:16}") int concurrency,
+        @Value("${publisher.request-timeout:PT5S}") Duration requestTimeout) {
         this.kafkaTemplate = kafkaTemplate;
-        this.webClient = WebClient.builder().baseUrl("https://api.tickertick.com")
-            .clientConnector(new ReactorClientHttpConnector(
-                HttpClient.create()
-                    .option(ChannelOption.SO_KEEPALIVE, false)
-                    .keepAlive(false) // do not keep connections alive
-            )).build();
-        this.objectMapper = objectMapper;
-        this.lastSeen = new ConcurrentHashMap<>();
+        this.webClient = WebClient.builder().baseUrl(baseUrl)
+            .clientConnector(new ReactorClientHttpConnector(marketDataHttpClient))
+            .build();
+        this.codec = codec;
+        this.metrics = metrics;
+        this.dedupeIndex = dedupeIndex;
+        this.stocks = stocks;
+        this.concurrency = concurrency;
+        this.requestTimeout = requestTimeout;
     }
 
     @Override
     public void fetchAndPublishData() {
-        for (String stock : STOCKS) {
-            try {
+        fetchAndPublish().block();
+    }
+
+    public Mono<Void> fetchAndPublish() {
+        return Flux.fromIterable(stocks)
+            .flatMap(stock -> fetchStories(stock)
+                // claiming articles is a JDBC round trip, keep it off the event loop
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(articles -> publishNewArticles(stock, articles))
+                .onErrorResume(e -> {
+                    metrics.fetchFailed(PipelineMetrics.NEWS, stock);
+                    System.err.println("Error fetching news data for " + stock + ": " + e.getMessage());
+                    return Mono.empty();
+                }), concurrency)
+            .then();
+    }
 
-                Map<String, Object> newsData = webClient.get()
-                        .uri(uriBuilder -> uriBuilder
-                                .path("/feed")
-                                .queryParam("q", String.format("tt:%s", stock.toLowerCase()))
-                                .queryParam("n", 5)
-                                .build())
-                        .retrieve()
-                        .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                        .block();
-
-                if (newsData == null || !newsData.containsKey("stories")) {
-                    System.err.println("No news data for " + stock);
-                    continue;
-                }
-
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> articles = (List<Map<String, Object>>) newsData.get("stories");
-
-                Instant last = lastSeen.getOrDefault(stock, Instant.MIN);
-
-                List<Map<String, Object>> newArticles = articles.stream()
-                    .filter(article -> {
-                        Object timeValue = article.get("time");
-                        Instant publishedAt = null;
-
-                        if (timeValue instanceof Number) {
-                            publishedAt = Instant.ofEpochMilli(((Number) timeValue).longValue());
-                        } else if (timeValue instanceof String) {
-                            publishedAt = Instant.parse((String) timeValue);
-                        }
-
-                        return publishedAt != null && publishedAt.isAfter(last);
-                        })
-                    .toList();
-
-                if (!newArticles.isEmpty()) {
-                    // Find the maximum timestamp among the new articles
-                    Instant newestTime = newArticles.stream()
-                        .map(article -> {
-                            Object timeValue = article.get("time");
-                            if (timeValue instanceof Number) {
-                                return Instant.ofEpochMilli(((Number) timeValue).longValue());
-                            } else if (timeValue instanceof String) {
-                                return Instant.parse((String) timeValue);
-                            }
-                            return Instant.MIN;
-                        })
-                        .max(Instant::compareTo)
-                        .orElse(last);
-                        
-                    lastSeen.put(stock, newestTime);
-
-                    for (Map<String, Object> article : newArticles) {
-                        String title = (String) article.getOrDefault("title", "");
-                        String description = (String) article.getOrDefault("description", "");
-                        String text = (title + " " + description).trim();
-
-                        Object articleTime = article.get("time");
-                        Instant publishedAt;
-                        if (articleTime instanceof Number) {
-                            publishedAt = Instant.ofEpochMilli(((Number) articleTime).longValue());
-                        } else if (articleTime instanceof String) {
-                            publishedAt = Instant.parse((String) articleTime);
-                        } else {
-                            publishedAt = Instant.now();
-                        }
-
-                        NewsDataDto dto = new NewsDataDto(
-                            publishedAt,
-                            stock,
-                            text
-                        );
-
-                        kafkaTemplate.send(TOPIC, objectMapper.writeValueAsString(dto));
-                        System.out.println("Published News Data: " + dto);
+    private Mono<List<Map<String, Object>>> fetchStories(String stock) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/feed")
+                        .queryParam("q", String.format("tt:%s", stock.toLowerCase()))
+                        .queryParam("n", 5)
+                        .build())
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .timeout(requestTimeout)
+                .flatMap(newsData -> {
+                    if (!newsData.containsKey("stories")) {
+                        metrics.fetchFailed(PipelineMetrics.NEWS, stock);
+                        System.err.println("No news data for " + stock);
+                        return Mono.empty();
                     }
-                }
+                    @SuppressWarnings("unchecked")
+                    List<Map<String, Object>> articles = (List<Map<String, Object>>) newsData.get("stories");
+                    return Mono.just(articles);
+                });
+    }
+
+    private void publishNewArticles(String stock, List<Map<String, Object>> articles) {
+        Instant fetchedAt = Instant.now();
+
+        Map<Long, Map<String, Object>> byKey = new LinkedHashMap<>();
+        Map<Long, Instant> publishedAt = new LinkedHashMap<>();
+        for (Map<String, Object> article : articles) {
+            Instant time = publishedAt(article);
+            if (time == null) continue;
+            long key = NewsDedupeIndex.key(stock, articleId(article));
+            byKey.put(key, article);
+            publishedAt.put(key, time);
+        }
+        if (byKey.isEmpty()) return;
+
+        Set<Long> newArticles = dedupeIndex.claim(stock, publishedAt);
+
+        for (long key : newArticles) {
+            Map<String, Object> article = byKey.get(key);
+            String title = (String) article.getOrDefault("title", "");
+            String description = (String) article.getOrDefault("description", "");
+            String text = (title + " " + description).trim();
+
+            NewsDataDto dto = new NewsDataDto(
+                publishedAt.get(key),
+                stock,
+                text
+            );
+
+            try {
+                kafkaTemplate.send(codec.newsRecord(TOPIC, dto, fetchedAt)).whenComplete((result, e) -> {
+                    if (e != null) {
+                        dedupeIndex.release(key);
+                        System.err.println("Failed to publish news data for " + stock + ": " + e.getMessage());
+                    } else {
+                        dedupeIndex.published(key);
+                        metrics.stage(PipelineMetrics.NEWS, PipelineMetrics.PUBLISHED, stock, fetchedAt);
+                    }
+                });
             } catch (Exception e) {
-                System.err.println("Error fetching news data for " + stock + ": " + e.getMessage());
+                dedupeIndex.release(key);
+                System.err.println("Error publishing news data for " + stock + ": " + e.getMessage());
             }
         }
     }
+
+    // TickerTick story id, falling back to the url for feeds without one
+    private static String articleId(Map<String, Object> article) {
+        Object id = article.get("id");
+        if (id != null) return id.toString();
+        Object url = article.get("url");
+        if (url != null) return url.toString();
+        return article.getOrDefault("title", "") + "|" + article.get("time");
+    }
+
+    private static Instant publishedAt(Map<String, Object> article) {
+        Object timeValue = article.get("time");
+        if (timeValue instanceof Number) {
+            return Instant.ofEpochMilli(((Number) timeValue).longValue());
+        } else if (timeValue instanceof String) {
+            return Instant.parse((String) timeValue);
+        }
+        return null;
+    }
 }
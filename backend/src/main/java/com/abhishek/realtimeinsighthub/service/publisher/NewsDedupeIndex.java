@@ -0,0 +1,171 @@
+package com.abhishek.realtimeinsighthub.service.publisher;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+
+// Articles already published to news-topic, keyed by a 64-bit hash of (symbol, article id).
+// news_seen is the shared record: an article is published by whichever instance inserts its row
+// first. Two in-memory Bloom generations answer "seen" without a round trip; a key that is not
+// in them is claimed in the table. A false positive (fpp) skips an unseen article.
+@Component
+@ConditionalOnProperty(name = "market.source", havingValue = "live", matchIfMissing = true)
+public class NewsDedupeIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long capacity;
+    private final double fpp;
+    private final Duration retention;
+
+    // the previous generation is dropped when the current one fills up, memory stays at two filters
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    // set when the filters came from the hot-state snapshot, only newer keys are read on startup
+    private volatile Instant restoredAt;
+
+    public NewsDedupeIndex(JdbcTemplate jdbcTemplate, PipelineMetrics metrics,
+        @Value("${news.dedupe.capacity:1000000}") long capacity,
+        @Value("${news.dedupe.fpp:0.000001}") double fpp,
+        @Value("${news.dedupe.retention:P30D}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = capacity;
+        this.fpp = fpp;
+        this.retention = retention;
+        this.current = new BloomFilter(capacity, fpp);
+        metrics.gauge("news.dedupe.entries", "Article keys held in the in-memory dedupe filters",
+            () -> current.count() + (previous != null ? previous.count() : 0));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Instant since = restoredAt != null ? restoredAt : Instant.EPOCH;
+        // oldest first, so the newest keys end up in the current generation
+        jdbcTemplate.query("SELECT hash FROM news_seen WHERE published_at >= ? AND seen_at >= ? ORDER BY seen_at",
+            rs -> {
+                remember(rs.getLong(1));
+            }, Timestamp.from(Instant.now().minus(retention)), Timestamp.from(since));
+        System.out.println("News dedupe index loaded " + current.count() + " keys ("
+            + current.sizeInBytes() / 1024 + " KiB per generation)");
+    }
+
+    // Returns the keys this instance should publish. Those are claimed in news_seen but stay out of
+    // the filters until published() or release() is called for them.
+    public Set<Long> claim(String stock, Map<Long, Instant> publishedAt) {
+        Instant cutoff = Instant.now().minus(retention);
+        List<Object> args = new ArrayList<>();
+        for (Map.Entry<Long, Instant> article : publishedAt.entrySet()) {
+            // older than retention would be claimed again after the purge
+            if (mightHaveSeen(article.getKey()) || article.getValue().isBefore(cutoff)) continue;
+            args.add(article.getKey());
+            args.add(stock);
+            args.add(Timestamp.from(article.getValue()));
+        }
+        if (args.isEmpty()) return Set.of();
+
+        String sql = "INSERT INTO news_seen (hash, stock, published_at) VALUES "
+            + String.join(", ", Collections.nCopies(args.size() / 3, "(?, ?, ?)"))
+            + " ON CONFLICT (hash) DO NOTHING RETURNING hash";
+        Set<Long> won = new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, args.toArray()));
+        for (int i = 0; i < args.size(); i += 3) {
+            long key = (Long) args.get(i);
+            // another instance published it
+            if (!won.contains(key)) {
+                remember(key);
+            }
+        }
+        return won;
+    }
+
+    public void published(long key) {
+        remember(key);
+    }
+
+    // the send failed, the next fetch may claim the article again
+    public void release(long key) {
+        jdbcTemplate.update("DELETE FROM news_seen WHERE hash = ?", key);
+    }
+
+    @Scheduled(cron = "0 15 2 * * ?")
+    public void purge() {
+        int purged = jdbcTemplate.update("DELETE FROM news_seen WHERE published_at < ?",
+            Timestamp.from(Instant.now().minus(retention)));
+        System.out.println("News dedupe purge: " + purged + " keys removed.");
+    }
+
+    // both generations, for the hot-state snapshot
+    public ByteBuffer encode() {
+        BloomFilter newer = current;
+        BloomFilter older = previous;
+        ByteBuffer out = ByteBuffer.allocate(8 + 8 + newer.encodedSize() + 1
+            + (older != null ? older.encodedSize() : 0));
+        out.putLong(capacity).putDouble(fpp);
+        newer.writeTo(out);
+        out.put((byte) (older != null ? 1 : 0));
+        if (older != null) {
+            older.writeTo(out);
+        }
+        return out.flip();
+    }
+
+    // False when the snapshot was taken with another capacity or fpp. Keys seen after
+    // snapshotAt are read from news_seen by load().
+    public boolean restore(ByteBuffer in, Instant snapshotAt) {
+        if (in.getLong() != capacity || in.getDouble() != fpp) return false;
+        BloomFilter newer = BloomFilter.readFrom(in, capacity, fpp);
+        BloomFilter older = newer != null && in.get() == 1 ? BloomFilter.readFrom(in, capacity, fpp) : null;
+        if (newer == null) return false;
+        current = newer;
+        previous = older;
+        restoredAt = snapshotAt;
+        return true;
+    }
+
+    boolean mightHaveSeen(long key) {
+        BloomFilter older = previous;
+        return current.mightContain(key) || (older != null && older.mightContain(key));
+    }
+
+    private void remember(long key) {
+        BloomFilter filter = current;
+        if (filter.put(key) && filter.count() >= capacity) {
+            rotate(filter);
+        }
+    }
+
+    private synchronized void rotate(BloomFilter full) {
+        if (current != full) return;
+        previous = full;
+        current = new BloomFilter(capacity, fpp);
+    }
+
+    // first 8 bytes of SHA-256, an article tagged with two symbols is published once per symbol
+    public static long key(String stock, String articleId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest((stock + '|' + articleId).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
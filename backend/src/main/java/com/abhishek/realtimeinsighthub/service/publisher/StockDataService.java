@@ -1,74 +1,119 @@
 package com.abhishek.realtimeinsighthub.service.publisher;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.abhishek.realtimeinsighthub.dto.StockDataDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+import com.abhishek.realtimeinsighthub.service.wire.MarketDataCodec;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 
+// the live upstream feeds, replaced by the simulator when market.source is simulator
 @Service
+@ConditionalOnProperty(name = "market.source", havingValue = "live", matchIfMissing = true)
 public class StockDataService implements MarketDataService{
 
-    private final String[] STOCKS = {"AAPL", "TSLA", "MSFT", "GOOGL", "AMZN", "NVDA", "META"};
     private final String TOPIC = "stock-topic";
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private ObjectMapper objectMapper;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final MarketDataCodec codec;
+    private final PipelineMetrics metrics;
     private final WebClient webClient;
     private final String STOCK_API_KEY;
+    private final List<String> stocks;
+    private final int concurrency;
+    private final Duration requestTimeout;
 
-    public StockDataService(KafkaTemplate<String, String> kafkaTemplate, @Value("${apikeys.stock}") String stockApiKey,
-        ObjectMapper objectMapper
+    public StockDataService(KafkaTemplate<String, byte[]> kafkaTemplate, @Value("${apikeys.stock}") String stockApiKey,
+        MarketDataCodec codec, PipelineMetrics metrics, HttpClient marketDataHttpClient,
+        @Value("${apis.stock.base-url:https://finnhub.io/api/v1/}") String baseUrl,
+        @Value("${market.symbols:AAPL,TSLA,MSFT,GOOGL,AMZN,NVDA,META}") List<String> stocks,
+        @Value("${publisher.concurrency:16}") int concurrency,
+        @Value("${publisher.request-timeout:PT5S}") Duration requestTimeout
     ) {
         this.kafkaTemplate = kafkaTemplate;
         this.STOCK_API_KEY = stockApiKey;
-        this.objectMapper = objectMapper;
-        this.webClient = WebClient.builder().baseUrl("https://finnhub.io/api/v1/").build();
+        this.codec = codec;
+        this.metrics = metrics;
+        this.webClient = WebClient.builder().baseUrl(baseUrl)
+            .clientConnector(new ReactorClientHttpConnector(marketDataHttpClient))
+            .build();
+        this.stocks = stocks;
+        this.concurrency = concurrency;
+        this.requestTimeout = requestTimeout;
     }
 
     @Override
     public void fetchAndPublishData() {
-        for (String stock : STOCKS) {
-            try {
-                
-                Map<String, Object> stockData = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                        .path("/quote")
-                        .queryParam("symbol", stock)
-                        .queryParam("token", STOCK_API_KEY)
-                        .build())
-                    .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                    .block();
+        fetchAndPublish().block();
+    }
 
-                if (stockData == null || stockData.get("c") == null) {
+    // at most `concurrency` quotes in flight, a cycle takes ~ceil(N / concurrency) round trips
+    public Mono<Void> fetchAndPublish() {
+        return Flux.fromIterable(stocks)
+            .flatMap(stock -> fetchQuote(stock)
+                // send() can block on metadata or a full buffer, keep it off the event loop
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(this::publish)
+                .onErrorResume(e -> {
+                    metrics.fetchFailed(PipelineMetrics.STOCK, stock);
+                    System.err.println("Error fetching stock data for " + stock + ": " + e.getMessage());
+                    return Mono.empty();
+                }), concurrency)
+            .then();
+    }
+
+    private Mono<StockDataDto> fetchQuote(String stock) {
+        return webClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/quote")
+                .queryParam("symbol", stock)
+                .queryParam("token", STOCK_API_KEY)
+                .build())
+            .retrieve()
+            .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+            .timeout(requestTimeout)
+            .flatMap(stockData -> {
+                if (stockData.get("c") == null) {
+                    metrics.fetchFailed(PipelineMetrics.STOCK, stock);
                     System.err.println("No price data for stock: " + stock);
-                    continue;
+                    return Mono.empty();
                 }
-
                 BigDecimal price = new BigDecimal(stockData.get("c").toString());
+                return Mono.just(new StockDataDto(Instant.now(), stock, price));
+            });
+    }
 
-                StockDataDto stockDataDto = new StockDataDto(
-                    Instant.now(),
-                    stock,
-                    price);
-
-                String jsonMessage = objectMapper.writeValueAsString(stockDataDto);
-
-                kafkaTemplate.send(TOPIC, jsonMessage);
-                System.out.println("Published Stock Data: " + stockDataDto);
-            } catch (Exception e) {
-                System.err.println("Error fetching stock data for " + stock + ": " + e.getMessage());
-            }
-        }    
+    private void publish(StockDataDto stockDataDto) {
+        try {
+            // the quote timestamp is taken when the quote arrives
+            Instant fetchedAt = stockDataDto.getTimestamp();
+            kafkaTemplate.send(codec.stockRecord(TOPIC, stockDataDto, fetchedAt)).whenComplete((result, e) -> {
+                if (e != null) {
+                    System.err.println("Failed to publish stock data for " + stockDataDto.getStock() + ": " + e.getMessage());
+                } else {
+                    metrics.stage(PipelineMetrics.STOCK, PipelineMetrics.PUBLISHED, stockDataDto.getStock(), fetchedAt);
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Error publishing stock data for " + stockDataDto.getStock() + ": " + e.getMessage());
+        }
     }
 
 }
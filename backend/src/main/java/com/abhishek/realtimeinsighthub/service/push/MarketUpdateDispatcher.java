@@ -0,0 +1,127 @@
+package com.abhishek.realtimeinsighthub.service.push;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.abhishek.realtimeinsighthub.controller.WebSocketController;
+import com.abhishek.realtimeinsighthub.dto.AlertDto;
+import com.abhishek.realtimeinsighthub.dto.AnalyticsDto;
+import com.abhishek.realtimeinsighthub.dto.SentimentDataDto;
+import com.abhishek.realtimeinsighthub.dto.StockDataDto;
+import com.abhishek.realtimeinsighthub.service.FixedDelayLoop;
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Conflates updates per symbol: only the newest price and sentiment of each symbol are
+// pushed once per interval, and symbols without subscribers are never serialized.
+@Component
+public class MarketUpdateDispatcher {
+
+    private final WebSocketController webSocketController;
+    private final SubscriptionRegistry subscriptions;
+    private final PipelineMetrics metrics;
+    private final Duration interval;
+
+    private final Map<String, StockDataDto> pendingPrices = new ConcurrentHashMap<>();
+    private final Map<String, SentimentDataDto> pendingSentiments = new ConcurrentHashMap<>();
+    private final Map<String, AnalyticsDto> pendingAnalytics = new ConcurrentHashMap<>();
+    private FixedDelayLoop flusher;
+
+    public MarketUpdateDispatcher(WebSocketController webSocketController, SubscriptionRegistry subscriptions,
+        PipelineMetrics metrics,
+        @Value("${websocket.conflation-interval:250ms}") Duration interval) {
+        this.webSocketController = webSocketController;
+        this.subscriptions = subscriptions;
+        this.metrics = metrics;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    public void start() {
+        // a zero interval pushes every update as it arrives
+        if (interval.isZero()) return;
+        // its own thread, a flush never waits behind other periodic work
+        flusher = FixedDelayLoop.start("websocket-flush", interval, interval, this::flush);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.stop();
+        }
+    }
+
+    public void publishStock(StockDataDto update) {
+        if (!subscriptions.hasSubscribers(WebSocketController.stockTopic(update.getStock()))) return;
+        if (flusher == null) {
+            sendStock(update);
+            return;
+        }
+        // a late tick never replaces a newer one
+        pendingPrices.merge(update.getStock(), update,
+            (current, next) -> next.getTimestamp().isBefore(current.getTimestamp()) ? current : next);
+    }
+
+    public void publishSentiment(SentimentDataDto update) {
+        if (!subscriptions.hasSubscribers(WebSocketController.sentimentTopic(update.getStock()))) return;
+        if (flusher == null) {
+            sendSentiment(update);
+            return;
+        }
+        pendingSentiments.merge(update.getStock(), update,
+            (current, next) -> next.getTimestamp().isBefore(current.getTimestamp()) ? current : next);
+    }
+
+    // analytics are a snapshot of the symbol, the latest one published always wins
+    public void publishAnalytics(AnalyticsDto update) {
+        if (!subscriptions.hasSubscribers(WebSocketController.analyticsTopic(update.getStock()))) return;
+        if (flusher == null) {
+            webSocketController.sendAnalyticsUpdate(update);
+            return;
+        }
+        pendingAnalytics.put(update.getStock(), update);
+    }
+
+    // alerts are events, every one is sent right away
+    public void publishAlert(AlertDto alert) {
+        if (!subscriptions.hasSubscribers(WebSocketController.alertsDestination(alert.getUserId()))) return;
+        webSocketController.sendAlert(alert);
+    }
+
+    void flush() {
+        try {
+            drain(pendingPrices, this::sendStock);
+            drain(pendingSentiments, this::sendSentiment);
+            drain(pendingAnalytics, webSocketController::sendAnalyticsUpdate);
+        } catch (Exception e) {
+            System.err.println("WebSocket flush failed: " + e.getMessage());
+        }
+    }
+
+    private void sendStock(StockDataDto update) {
+        webSocketController.sendStockUpdate(update);
+        // a tick is stamped when it is fetched
+        metrics.stage(PipelineMetrics.STOCK, PipelineMetrics.PUSHED, update.getStock(), update.getTimestamp());
+    }
+
+    private void sendSentiment(SentimentDataDto update) {
+        webSocketController.sendSentimentUpdate(update);
+        metrics.stage(PipelineMetrics.NEWS, PipelineMetrics.PUSHED, update.getStock(), update.getFetchedAt());
+    }
+
+    private <T> void drain(Map<String, T> pending, Consumer<T> send) {
+        for (String stock : pending.keySet()) {
+            T update = pending.remove(stock);
+            if (update != null) {
+                send.accept(update);
+            }
+        }
+    }
+}
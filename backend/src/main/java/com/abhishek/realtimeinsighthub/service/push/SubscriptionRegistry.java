@@ -0,0 +1,78 @@
+package com.abhishek.realtimeinsighthub.service.push;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+// Live STOMP subscriber count per destination, so pushes nobody listens to are skipped
+@Component
+public class SubscriptionRegistry {
+
+    private static final String USER_PREFIX = "/user/";
+
+    // sessionId -> subscriptionId -> destination
+    private final Map<String, Map<String, String>> sessions = new HashMap<>();
+    private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        subscribe(headers.getSessionId(), headers.getSubscriptionId(),
+            destination(headers.getUser(), headers.getDestination()));
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        unsubscribe(headers.getSessionId(), headers.getSubscriptionId());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        disconnect(event.getSessionId());
+    }
+
+    // User destinations are counted per user, as the /user/{name}/... that convertAndSendToUser
+    // sends to. Nothing reaches a session without a principal, so its subscription is not counted.
+    static String destination(Principal user, String destination) {
+        if (destination == null || !destination.startsWith(USER_PREFIX)) return destination;
+        return user == null ? null : USER_PREFIX + user.getName() + destination.substring(USER_PREFIX.length() - 1);
+    }
+
+    public boolean hasSubscribers(String destination) {
+        return counts.containsKey(destination);
+    }
+
+    synchronized void subscribe(String sessionId, String subscriptionId, String destination) {
+        if (sessionId == null || subscriptionId == null || destination == null) return;
+        String previous = sessions.computeIfAbsent(sessionId, s -> new HashMap<>()).put(subscriptionId, destination);
+        if (previous != null) decrement(previous);
+        counts.merge(destination, 1, Integer::sum);
+    }
+
+    synchronized void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        if (subscriptions == null) return;
+        String destination = subscriptions.remove(subscriptionId);
+        if (destination != null) decrement(destination);
+        if (subscriptions.isEmpty()) sessions.remove(sessionId);
+    }
+
+    synchronized void disconnect(String sessionId) {
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions == null) return;
+        subscriptions.values().forEach(this::decrement);
+    }
+
+    private void decrement(String destination) {
+        counts.computeIfPresent(destination, (d, n) -> n > 1 ? n - 1 : null);
+    }
+}
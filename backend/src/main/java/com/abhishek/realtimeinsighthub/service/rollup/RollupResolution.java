@@ -0,0 +1,30 @@
+package com.abhishek.realtimeinsighthub.service.rollup;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public enum RollupResolution {
+
+    ONE_MINUTE(Duration.ofMinutes(1)),
+    FIFTEEN_MINUTES(Duration.ofMinutes(15)),
+    ONE_HOUR(Duration.ofHours(1));
+
+    private final Duration duration;
+
+    RollupResolution(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getSeconds() {
+        return (int) duration.toSeconds();
+    }
+
+    public Instant bucketStart(Instant ts) {
+        long millis = duration.toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(ts.toEpochMilli(), millis) * millis);
+    }
+}
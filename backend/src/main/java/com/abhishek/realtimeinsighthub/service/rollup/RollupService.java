@@ -0,0 +1,262 @@
+package com.abhishek.realtimeinsighthub.service.rollup;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.abhishek.realtimeinsighthub.dto.StockChartDto;
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.PriceRollup;
+import com.abhishek.realtimeinsighthub.entity.PriceRollupId;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.repo.PriceRollupRepo;
+import com.abhishek.realtimeinsighthub.service.consumer.MarketDataListener;
+import com.abhishek.realtimeinsighthub.service.sentiment.SentimentLabels;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class RollupService implements MarketDataListener {
+
+    private static final String UPSERT_PRICE = """
+        INSERT INTO price_rollups (stock, resolution_seconds, bucket_start, open, high, low, close,
+            first_ts, last_ts, tick_count, sentiment_count, sentiment_sum)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0)
+        ON CONFLICT (stock, resolution_seconds, bucket_start) DO UPDATE SET
+            open = CASE WHEN price_rollups.first_ts IS NULL OR EXCLUDED.first_ts < price_rollups.first_ts
+                THEN EXCLUDED.open ELSE price_rollups.open END,
+            close = CASE WHEN price_rollups.last_ts IS NULL OR EXCLUDED.last_ts >= price_rollups.last_ts
+                THEN EXCLUDED.close ELSE price_rollups.close END,
+            first_ts = LEAST(price_rollups.first_ts, EXCLUDED.first_ts),
+            last_ts = GREATEST(price_rollups.last_ts, EXCLUDED.last_ts),
+            high = GREATEST(price_rollups.high, EXCLUDED.high),
+            low = LEAST(price_rollups.low, EXCLUDED.low),
+            tick_count = price_rollups.tick_count + EXCLUDED.tick_count
+        """;
+
+    private static final String UPSERT_SENTIMENT = """
+        INSERT INTO price_rollups (stock, resolution_seconds, bucket_start, tick_count,
+            sentiment_count, sentiment_sum, sentiment_min, sentiment_max)
+        VALUES (?, ?, ?, 0, ?, ?, ?, ?)
+        ON CONFLICT (stock, resolution_seconds, bucket_start) DO UPDATE SET
+            sentiment_count = price_rollups.sentiment_count + EXCLUDED.sentiment_count,
+            sentiment_sum = price_rollups.sentiment_sum + EXCLUDED.sentiment_sum,
+            sentiment_min = LEAST(price_rollups.sentiment_min, EXCLUDED.sentiment_min),
+            sentiment_max = GREATEST(price_rollups.sentiment_max, EXCLUDED.sentiment_max)
+        """;
+
+    // backfills recompute whole buckets from the raw rows, so running them twice is harmless
+    private static final String BACKFILL_PRICES = """
+        INSERT INTO price_rollups (stock, resolution_seconds, bucket_start, open, high, low, close,
+            first_ts, last_ts, tick_count, sentiment_count, sentiment_sum)
+        SELECT p.stock, ?, date_bin(make_interval(secs => ?), p.timestamp, TIMESTAMPTZ 'epoch') AS bucket,
+            (array_agg(p.price ORDER BY p.timestamp ASC))[1], MAX(p.price), MIN(p.price),
+            (array_agg(p.price ORDER BY p.timestamp DESC))[1], MIN(p.timestamp), MAX(p.timestamp), COUNT(*), 0, 0
+        FROM prices p
+        WHERE p.timestamp >= ? AND p.timestamp < ?
+        GROUP BY p.stock, bucket
+        ON CONFLICT (stock, resolution_seconds, bucket_start) DO UPDATE SET
+            open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low, close = EXCLUDED.close,
+            first_ts = EXCLUDED.first_ts, last_ts = EXCLUDED.last_ts, tick_count = EXCLUDED.tick_count
+        """;
+
+    private static final String BACKFILL_SENTIMENTS = """
+        INSERT INTO price_rollups (stock, resolution_seconds, bucket_start, tick_count,
+            sentiment_count, sentiment_sum, sentiment_min, sentiment_max)
+        SELECT s.stock, ?, date_bin(make_interval(secs => ?), s.timestamp, TIMESTAMPTZ 'epoch') AS bucket,
+            0, COUNT(*), SUM(s.compound_score), MIN(s.compound_score), MAX(s.compound_score)
+        FROM sentiments s
+        WHERE s.timestamp >= ? AND s.timestamp < ? AND s.compound_score IS NOT NULL
+        GROUP BY s.stock, bucket
+        ON CONFLICT (stock, resolution_seconds, bucket_start) DO UPDATE SET
+            sentiment_count = EXCLUDED.sentiment_count, sentiment_sum = EXCLUDED.sentiment_sum,
+            sentiment_min = EXCLUDED.sentiment_min, sentiment_max = EXCLUDED.sentiment_max
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PriceRollupRepo priceRollupRepo;
+    private final int minPoints;
+    private final boolean backfillOnStartup;
+
+    public RollupService(JdbcTemplate jdbcTemplate, PriceRollupRepo priceRollupRepo,
+        @Value("${chart.rollup.min-points:600}") int minPoints,
+        @Value("${chart.rollup.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.priceRollupRepo = priceRollupRepo;
+        this.minPoints = minPoints;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    @Override
+    public boolean persistent() {
+        return true;
+    }
+
+    @Override
+    public void onPrices(List<Price> prices) {
+        // one row per bucket, a multi-row upsert must not touch the same bar twice
+        Map<PriceRollupId, PriceRollup> bars = new LinkedHashMap<>();
+        for (Price p : prices) {
+            for (RollupResolution resolution : RollupResolution.values()) {
+                PriceRollupId key = new PriceRollupId(p.getStock(), resolution.getSeconds(),
+                    resolution.bucketStart(p.getTimestamp()));
+                bars.computeIfAbsent(key, this::emptyBar).addTick(p.getTimestamp(), p.getPrice());
+            }
+        }
+
+        List<Object[]> args = new ArrayList<>(bars.size());
+        for (PriceRollup bar : bars.values()) {
+            PriceRollupId id = bar.getId();
+            args.add(new Object[] {
+                id.getStock(), id.getResolutionSeconds(), Timestamp.from(id.getBucketStart()),
+                bar.getOpen(), bar.getHigh(), bar.getLow(), bar.getClose(),
+                Timestamp.from(bar.getFirstTs()), Timestamp.from(bar.getLastTs()), bar.getTickCount()
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_PRICE, args);
+    }
+
+    @Override
+    public void onSentiments(List<Sentiment> sentiments) {
+        Map<PriceRollupId, PriceRollup> bars = new LinkedHashMap<>();
+        for (Sentiment s : sentiments) {
+            if (s.getCompoundScore() == null) continue;
+            for (RollupResolution resolution : RollupResolution.values()) {
+                PriceRollupId key = new PriceRollupId(s.getStock(), resolution.getSeconds(),
+                    resolution.bucketStart(s.getTimestamp()));
+                bars.computeIfAbsent(key, this::emptyBar).addSentiment(s.getCompoundScore());
+            }
+        }
+
+        List<Object[]> args = new ArrayList<>(bars.size());
+        for (PriceRollup bar : bars.values()) {
+            PriceRollupId id = bar.getId();
+            args.add(new Object[] {
+                id.getStock(), id.getResolutionSeconds(), Timestamp.from(id.getBucketStart()),
+                bar.getSentimentCount(), bar.getSentimentSum(), bar.getSentimentMin(), bar.getSentimentMax()
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SENTIMENT, args);
+    }
+
+    private PriceRollup emptyBar(PriceRollupId id) {
+        PriceRollup bar = new PriceRollup();
+        bar.setId(id);
+        return bar;
+    }
+
+    // Runs before the Kafka listener containers start, so no consumer adds to a bucket while it is
+    // recomputed. Only buckets from the newest one already rolled up on are rebuilt; an empty table
+    // is filled from all history once.
+    @PostConstruct
+    public void backfillOnStartup() {
+        if (!backfillOnStartup) return;
+        Instant now = Instant.now();
+        for (RollupResolution resolution : RollupResolution.values()) {
+            backfill(resolution, newestBucket(resolution).orElse(Instant.EPOCH), now);
+        }
+    }
+
+    public void backfill(Instant from, Instant to) {
+        for (RollupResolution resolution : RollupResolution.values()) {
+            backfill(resolution, from, to);
+        }
+    }
+
+    private void backfill(RollupResolution resolution, Instant from, Instant to) {
+        try {
+            Timestamp fromTs = Timestamp.from(resolution.bucketStart(from));
+            Timestamp toTs = Timestamp.from(to);
+            int bars = jdbcTemplate.update(BACKFILL_PRICES, resolution.getSeconds(), resolution.getSeconds(),
+                fromTs, toTs);
+            jdbcTemplate.update(BACKFILL_SENTIMENTS, resolution.getSeconds(), resolution.getSeconds(),
+                fromTs, toTs);
+            System.out.println("Rollup backfill " + resolution + " from " + fromTs.toInstant() + ": "
+                + bars + " price bars");
+        } catch (Exception e) {
+            System.err.println("Rollup backfill failed: " + e.getMessage());
+        }
+    }
+
+    private Optional<Instant> newestBucket(RollupResolution resolution) {
+        Timestamp newest = jdbcTemplate.queryForObject(
+            "SELECT MAX(bucket_start) FROM price_rollups WHERE resolution_seconds = ?",
+            Timestamp.class, resolution.getSeconds());
+        return Optional.ofNullable(newest).map(Timestamp::toInstant);
+    }
+
+    // coarsest resolution that still yields minPoints bars over the period
+    public Optional<RollupResolution> pickResolution(Duration period) {
+        RollupResolution[] resolutions = RollupResolution.values();
+        for (int i = resolutions.length - 1; i >= 0; i--) {
+            if (period.dividedBy(resolutions[i].getDuration()) >= minPoints) {
+                return Optional.of(resolutions[i]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<StockChartDto> getChartData(String stock, Instant from, RollupResolution resolution) {
+        return toChart(getBars(stock, from, resolution));
+    }
+
+    public List<PriceRollup> getBars(String stock, Instant from, RollupResolution resolution) {
+        return priceRollupRepo.findBars(stock, resolution.getSeconds(), resolution.bucketStart(from));
+    }
+
+    public List<PriceRollup> getBars(String stock, Instant from, Instant to, RollupResolution resolution) {
+        return priceRollupRepo.findBars(stock, resolution.getSeconds(), resolution.bucketStart(from), to);
+    }
+
+    // one query for all symbols, charts keyed by symbol
+    public Map<String, List<StockChartDto>> getChartData(Collection<String> stocks, Instant from,
+        RollupResolution resolution) {
+        Map<String, List<PriceRollup>> bars = priceRollupRepo
+            .findBars(stocks, resolution.getSeconds(), resolution.bucketStart(from))
+            .stream()
+            .collect(Collectors.groupingBy(bar -> bar.getId().getStock()));
+        Map<String, List<StockChartDto>> charts = new LinkedHashMap<>();
+        for (String stock : stocks) {
+            charts.put(stock, toChart(bars.getOrDefault(stock, List.of())));
+        }
+        return charts;
+    }
+
+    // one point per bar with its OHLC prices, bars sorted by bucket start
+    public static List<StockChartDto> toChart(List<PriceRollup> bars) {
+        boolean hasPrices = bars.stream().anyMatch(b -> b.getClose() != null);
+        List<StockChartDto> result = new ArrayList<>(bars.size());
+        Double compound = null;
+        for (PriceRollup bar : bars) {
+            if (bar.getSentimentCount() > 0) {
+                compound = bar.getSentimentMean();
+                if (!hasPrices) {
+                    result.add(new StockChartDto(bar.getId().getBucketStart(), null,
+                        SentimentLabels.fromCompound(compound), compound));
+                }
+            }
+            if (hasPrices && bar.getClose() != null) {
+                result.add(new StockChartDto(
+                    bar.getId().getBucketStart(),
+                    bar.getClose(),
+                    compound != null ? SentimentLabels.fromCompound(compound) : null,
+                    compound,
+                    bar.getOpen(),
+                    bar.getHigh(),
+                    bar.getLow()));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,40 @@
+package com.abhishek.realtimeinsighthub.service.sentiment;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.SentimentResponseDto;
+
+import reactor.core.publisher.Mono;
+
+// Delegates to the ml-service over HTTP
+@Service
+@ConditionalOnProperty(name = "sentiment.scorer", havingValue = "http", matchIfMissing = true)
+public class HttpSentimentScorer implements SentimentScorer {
+
+    private final WebClient webClient;
+
+    public HttpSentimentScorer(@Value("${fastapi.url}") String fastApiUrl) {
+        this.webClient = WebClient.builder()
+                .baseUrl(fastApiUrl)
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
+
+    @Override
+    public Mono<List<SentimentResponseDto>> score(List<NewsDataDto> batch) {
+        return webClient.post()
+                .uri("")
+                .bodyValue(batch)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<SentimentResponseDto>>() {});
+    }
+}
@@ -0,0 +1,114 @@
+package com.abhishek.realtimeinsighthub.service.sentiment;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.SentimentResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+// Scores keyed by a SHA-256 of the normalised headline text, so syndicated stories and
+// re-fetched windows are scored once. Exposed as cache.gets{cache=sentiment-scores,result=hit|miss}.
+@Component
+public class SentimentCache {
+
+    static final String CACHE_NAME = "sentiment-scores";
+
+    private final Cache<TextKey, SentimentResponseDto> cache;
+
+    public SentimentCache(MeterRegistry meterRegistry,
+        @Value("${sentiment.cache.max-size:100000}") long maxSize,
+        @Value("${sentiment.cache.ttl:PT24H}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // Answers hits from the cache and sends each distinct missed text to the scorer once.
+    // Results come back in batch order.
+    public Mono<List<SentimentResponseDto>> score(List<NewsDataDto> batch, SentimentScorer scorer) {
+        SentimentResponseDto[] results = new SentimentResponseDto[batch.size()];
+        Map<TextKey, List<Integer>> misses = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            NewsDataDto news = batch.get(i);
+            TextKey key = TextKey.of(news.getNewsData());
+            SentimentResponseDto hit = cache.getIfPresent(key);
+            if (hit != null) {
+                results[i] = forNews(hit, news);
+            } else {
+                misses.computeIfAbsent(key, k -> new ArrayList<>(1)).add(i);
+            }
+        }
+        if (misses.isEmpty()) {
+            return Mono.just(List.of(results));
+        }
+
+        List<TextKey> keys = new ArrayList<>(misses.keySet());
+        List<NewsDataDto> request = keys.stream()
+                .map(key -> batch.get(misses.get(key).get(0)))
+                .toList();
+        return scorer.score(request).map(scored -> {
+            for (int k = 0; k < scored.size() && k < keys.size(); k++) {
+                SentimentResponseDto response = scored.get(k);
+                cache.put(keys.get(k), response);
+                for (int i : misses.get(keys.get(k))) {
+                    results[i] = forNews(response, batch.get(i));
+                }
+            }
+            List<SentimentResponseDto> all = new ArrayList<>(results.length);
+            for (SentimentResponseDto result : results) {
+                if (result != null) all.add(result);
+            }
+            return all;
+        });
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static SentimentResponseDto forNews(SentimentResponseDto scored, NewsDataDto news) {
+        return new SentimentResponseDto(news.getTimestamp(), news.getStock(), scored.getSentiment(), scored.getScores());
+    }
+
+    // 128 bits of SHA-256 over NFC text with whitespace runs collapsed. Case and punctuation
+    // are kept because VADER scores them.
+    private record TextKey(long high, long low) {
+
+        static TextKey of(Object newsData) {
+            String normalized = Normalizer.normalize(String.valueOf(newsData), Normalizer.Form.NFC)
+                    .strip()
+                    .replaceAll("\\s+", " ");
+            ByteBuffer digest = ByteBuffer.wrap(sha256().digest(normalized.getBytes(StandardCharsets.UTF_8)));
+            return new TextKey(digest.getLong(), digest.getLong());
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
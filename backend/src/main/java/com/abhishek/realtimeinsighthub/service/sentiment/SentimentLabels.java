@@ -0,0 +1,18 @@
+package com.abhishek.realtimeinsighthub.service.sentiment;
+
+public final class SentimentLabels {
+
+    public static final String POSITIVE = "positive";
+    public static final String NEGATIVE = "negative";
+    public static final String NEUTRAL = "neutral";
+
+    private SentimentLabels() {
+    }
+
+    // same thresholds as the ml-service
+    public static String fromCompound(double compound) {
+        if (compound >= 0.05) return POSITIVE;
+        if (compound <= -0.05) return NEGATIVE;
+        return NEUTRAL;
+    }
+}
@@ -0,0 +1,15 @@
+package com.abhishek.realtimeinsighthub.service.sentiment;
+
+import java.util.List;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.SentimentResponseDto;
+
+import reactor.core.publisher.Mono;
+
+// Scores a batch of headlines; selected with sentiment.scorer (http or vader)
+public interface SentimentScorer {
+
+    // one result per headline, in request order
+    Mono<List<SentimentResponseDto>> score(List<NewsDataDto> batch);
+}
@@ -0,0 +1,109 @@
+package com.abhishek.realtimeinsighthub.service.sentiment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Open-addressing token -> valence table that is probed with a slice of a char
+// buffer, so scoring never has to materialise a String per token.
+final class VaderLexicon {
+
+    private final String[] keys;
+    private final double[] values;
+    private final int mask;
+    private final int size;
+
+    private VaderLexicon(Map<String, Double> entries) {
+        int capacity = Integer.highestOneBit(Math.max(4, entries.size() * 2 - 1)) << 1;
+        this.keys = new String[capacity];
+        this.values = new double[capacity];
+        this.mask = capacity - 1;
+        this.size = entries.size();
+        entries.forEach(this::put);
+    }
+
+    static VaderLexicon of(Map<String, Double> entries) {
+        return new VaderLexicon(entries);
+    }
+
+    // "token<TAB>mean valence" per line, later duplicates win like in vaderSentiment
+    static VaderLexicon load(InputStream in) {
+        Map<String, Double> entries = new LinkedHashMap<>(16384);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                int tab = line.indexOf('\t');
+                if (tab <= 0) continue;
+                int end = line.indexOf('\t', tab + 1);
+                entries.put(line.substring(0, tab),
+                    Double.parseDouble(line.substring(tab + 1, end < 0 ? line.length() : end)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read sentiment lexicon", e);
+        }
+        return new VaderLexicon(entries);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(char[] buf, int start, int end) {
+        return slot(buf, start, end) >= 0;
+    }
+
+    // NaN when the token is not in the table
+    double get(char[] buf, int start, int end) {
+        int slot = slot(buf, start, end);
+        return slot >= 0 ? values[slot] : Double.NaN;
+    }
+
+    double get(CharSequence token) {
+        int h = 0;
+        for (int i = 0; i < token.length(); i++) {
+            h = 31 * h + token.charAt(i);
+        }
+        for (int slot = spread(h) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot].contentEquals(token)) return values[slot];
+        }
+        return Double.NaN;
+    }
+
+    private void put(String key, double value) {
+        int slot = spread(key.hashCode()) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    private int slot(char[] buf, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + buf[i];
+        }
+        for (int slot = spread(h) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (matches(keys[slot], buf, start, end)) return slot;
+        }
+        return -1;
+    }
+
+    private static boolean matches(String key, char[] buf, int start, int end) {
+        if (key.length() != end - start) return false;
+        for (int i = start; i < end; i++) {
+            if (key.charAt(i - start) != buf[i]) return false;
+        }
+        return true;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,391 @@
+package com.abhishek.realtimeinsighthub.service.sentiment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Port of vaderSentiment 3.3.2 (SentimentIntensityAnalyzer.polarity_scores), including
+// its quirks, so scores match the ml-service. Tokens are kept as offsets into one
+// lower-cased copy of the text and looked up in the lexicon without per-token Strings.
+// Emoji are not translated to their text descriptions.
+public class VaderSentimentAnalyzer {
+
+    static final String LEXICON_RESOURCE = "sentiment/vader_lexicon.txt";
+
+    private static final double B_INCR = 0.293;
+    private static final double B_DECR = -0.293;
+    private static final double C_INCR = 0.733;
+    private static final double N_SCALAR = -0.74;
+    private static final String PUNCTUATION = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~";
+
+    private static final VaderLexicon NEGATE = VaderLexicon.of(constant(0.0,
+        "aint", "arent", "cannot", "cant", "couldnt", "darent", "didnt", "doesnt",
+        "ain't", "aren't", "can't", "couldn't", "daren't", "didn't", "doesn't",
+        "dont", "hadnt", "hasnt", "havent", "isnt", "mightnt", "mustnt", "neither",
+        "don't", "hadn't", "hasn't", "haven't", "isn't", "mightn't", "mustn't",
+        "neednt", "needn't", "never", "none", "nope", "nor", "not", "nothing", "nowhere",
+        "oughtnt", "shant", "shouldnt", "uhuh", "wasnt", "werent",
+        "oughtn't", "shan't", "shouldn't", "uh-uh", "wasn't", "weren't",
+        "without", "wont", "wouldnt", "won't", "wouldn't", "rarely", "seldom", "despite"));
+
+    private static final VaderLexicon BOOSTERS;
+
+    static {
+        Map<String, Double> boosters = constant(B_INCR,
+            "absolutely", "amazingly", "awfully", "completely", "considerable", "considerably",
+            "decidedly", "deeply", "effing", "enormous", "enormously", "entirely", "especially",
+            "exceptional", "exceptionally", "extreme", "extremely", "fabulously", "flipping", "flippin",
+            "frackin", "fracking", "fricking", "frickin", "frigging", "friggin", "fully", "fuckin",
+            "fucking", "fuggin", "fugging", "greatly", "hella", "highly", "hugely", "incredible",
+            "incredibly", "intensely", "major", "majorly", "more", "most", "particularly", "purely",
+            "quite", "really", "remarkably", "so", "substantially", "thoroughly", "total", "totally",
+            "tremendous", "tremendously", "uber", "unbelievably", "unusually", "utter", "utterly", "very");
+        boosters.putAll(constant(B_DECR,
+            "almost", "barely", "hardly", "just enough", "kind of", "kinda", "kindof", "kind-of",
+            "less", "little", "marginal", "marginally", "occasional", "occasionally", "partly",
+            "scarce", "scarcely", "slight", "slightly", "somewhat", "sort of", "sorta", "sortof", "sort-of"));
+        BOOSTERS = VaderLexicon.of(boosters);
+    }
+
+    private static final VaderLexicon SPECIAL_CASES = VaderLexicon.of(Map.of(
+        "the shit", 3.0, "the bomb", 3.0, "bad ass", 1.5, "badass", 1.5, "bus stop", 0.0,
+        "yeah right", -2.0, "kiss of death", -1.5, "to die for", 3.0,
+        "beating heart", 3.1, "broken heart", -2.9));
+
+    private final VaderLexicon lexicon;
+
+    VaderSentimentAnalyzer(VaderLexicon lexicon) {
+        this.lexicon = lexicon;
+    }
+
+    public static VaderSentimentAnalyzer fromClasspath() {
+        try (InputStream in = VaderSentimentAnalyzer.class.getClassLoader().getResourceAsStream(LEXICON_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Sentiment lexicon " + LEXICON_RESOURCE + " not on classpath");
+            }
+            return new VaderSentimentAnalyzer(VaderLexicon.load(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // neg/neu/pos rounded to 3 places and compound to 4, like polarity_scores
+    public Map<String, Double> polarityScores(String text) {
+        Tokens tokens = new Tokens(text.strip());
+        int count = tokens.count;
+        double[] sentiments = new double[count];
+
+        for (int i = 0; i < count; i++) {
+            if (BOOSTERS.contains(tokens.lower, tokens.start[i], tokens.end[i])) continue;
+            if (i < count - 1 && tokens.is(i, "kind") && tokens.is(i + 1, "of")) continue;
+            sentiments[i] = valence(tokens, i);
+        }
+        butCheck(tokens, sentiments);
+        return scoreValence(sentiments, tokens.text);
+    }
+
+    private double valence(Tokens t, int i) {
+        double lexValence = lexicon.get(t.lower, t.start[i], t.end[i]);
+        if (Double.isNaN(lexValence)) return 0;
+
+        double valence = lexValence;
+        // "no" directly before another lexicon word negates it instead of scoring itself
+        if (t.is(i, "no") && i != t.count - 1 && inLexicon(t, i + 1)) {
+            valence = 0.0;
+        }
+        if ((i > 0 && t.is(i - 1, "no"))
+                || (i > 1 && t.is(i - 2, "no"))
+                || (i > 2 && t.is(i - 3, "no") && (t.is(i - 1, "or") || t.is(i - 1, "nor")))) {
+            valence = lexValence * N_SCALAR;
+        }
+
+        if (t.upper[i] && t.capDifferential) {
+            valence = valence > 0 ? valence + C_INCR : valence - C_INCR;
+        }
+
+        for (int startI = 0; startI < 3; startI++) {
+            int j = i - (startI + 1);
+            if (i > startI && !inLexicon(t, j)) {
+                double s = scalarIncDec(t, j, valence);
+                if (startI == 1 && s != 0) s = s * 0.95;
+                if (startI == 2 && s != 0) s = s * 0.9;
+                valence = valence + s;
+                valence = negationCheck(t, valence, startI, i);
+                if (startI == 2) {
+                    valence = specialIdiomsCheck(t, valence, i);
+                }
+            }
+        }
+        return leastCheck(t, valence, i);
+    }
+
+    private double scalarIncDec(Tokens t, int j, double valence) {
+        double scalar = BOOSTERS.get(t.lower, t.start[j], t.end[j]);
+        if (Double.isNaN(scalar)) return 0.0;
+        if (valence < 0) scalar *= -1;
+        if (t.upper[j] && t.capDifferential) {
+            scalar = valence > 0 ? scalar + C_INCR : scalar - C_INCR;
+        }
+        return scalar;
+    }
+
+    private static double negationCheck(Tokens t, double valence, int startI, int i) {
+        if (startI == 0) {
+            if (negated(t, i - 1)) valence = valence * N_SCALAR;
+        } else if (startI == 1) {
+            if (t.is(i - 2, "never") && (t.is(i - 1, "so") || t.is(i - 1, "this"))) {
+                valence = valence * 1.25;
+            } else if (t.is(i - 2, "without") && t.is(i - 1, "doubt")) {
+                // "without doubt" keeps the valence
+            } else if (negated(t, i - 2)) {
+                valence = valence * N_SCALAR;
+            }
+        } else {
+            // the upstream condition binds as (never and (so or this)) or (so or this)
+            if ((t.is(i - 3, "never") && (t.is(i - 2, "so") || t.is(i - 2, "this")))
+                    || (t.is(i - 1, "so") || t.is(i - 1, "this"))) {
+                valence = valence * 1.25;
+            } else if (t.is(i - 3, "without") && (t.is(i - 2, "doubt") || t.is(i - 1, "doubt"))) {
+                // "without doubt" keeps the valence
+            } else if (negated(t, i - 3)) {
+                valence = valence * N_SCALAR;
+            }
+        }
+        return valence;
+    }
+
+    private static double specialIdiomsCheck(Tokens t, double valence, int i) {
+        StringBuilder sb = new StringBuilder(48);
+        int[][] sequences = {{i - 1, i}, {i - 2, i}, {i - 2, i - 1}, {i - 3, i - 1}, {i - 3, i - 2}};
+        for (int[] seq : sequences) {
+            double special = SPECIAL_CASES.get(t.join(sb, seq[0], seq[1]));
+            if (!Double.isNaN(special)) {
+                valence = special;
+                break;
+            }
+        }
+        if (t.count - 1 > i) {
+            double special = SPECIAL_CASES.get(t.join(sb, i, i + 1));
+            if (!Double.isNaN(special)) valence = special;
+        }
+        if (t.count - 1 > i + 1) {
+            double special = SPECIAL_CASES.get(t.join(sb, i, i + 2));
+            if (!Double.isNaN(special)) valence = special;
+        }
+        // booster/dampener n-grams such as "sort of" or "kind of"
+        int[][] nGrams = {{i - 3, i - 1}, {i - 3, i - 2}, {i - 2, i - 1}};
+        for (int[] nGram : nGrams) {
+            double booster = BOOSTERS.get(t.join(sb, nGram[0], nGram[1]));
+            if (!Double.isNaN(booster)) valence = valence + booster;
+        }
+        return valence;
+    }
+
+    private double leastCheck(Tokens t, double valence, int i) {
+        if (i > 1 && !inLexicon(t, i - 1) && t.is(i - 1, "least")) {
+            if (!t.is(i - 2, "at") && !t.is(i - 2, "very")) {
+                valence = valence * N_SCALAR;
+            }
+        } else if (i > 0 && !inLexicon(t, i - 1) && t.is(i - 1, "least")) {
+            valence = valence * N_SCALAR;
+        }
+        return valence;
+    }
+
+    // Halves everything before the first "but" and boosts everything after it. Mirrors the
+    // upstream loop, which locates each score with list.index() and so rewrites the first equal value.
+    private static void butCheck(Tokens t, double[] sentiments) {
+        int bi = -1;
+        for (int k = 0; k < t.count && bi < 0; k++) {
+            if (t.is(k, "but")) bi = k;
+        }
+        if (bi < 0) return;
+        for (int k = 0; k < sentiments.length; k++) {
+            double sentiment = sentiments[k];
+            int si = 0;
+            while (sentiments[si] != sentiment) si++;
+            if (si < bi) {
+                sentiments[si] = sentiment * 0.5;
+            } else if (si > bi) {
+                sentiments[si] = sentiment * 1.5;
+            }
+        }
+    }
+
+    private static Map<String, Double> scoreValence(double[] sentiments, String text) {
+        if (sentiments.length == 0) {
+            return scores(0.0, 0.0, 0.0, 0.0);
+        }
+        double sum = 0.0;
+        for (double s : sentiments) sum += s;
+
+        double punctEmphasis = amplifyExclamations(text) + amplifyQuestions(text);
+        if (sum > 0) {
+            sum += punctEmphasis;
+        } else if (sum < 0) {
+            sum -= punctEmphasis;
+        }
+        double compound = normalize(sum);
+
+        double posSum = 0.0;
+        double negSum = 0.0;
+        int neuCount = 0;
+        for (double s : sentiments) {
+            // +/-1 compensates for neutral words being counted as 1
+            if (s > 0) posSum += s + 1;
+            if (s < 0) negSum += s - 1;
+            if (s == 0) neuCount++;
+        }
+        if (posSum > Math.abs(negSum)) {
+            posSum += punctEmphasis;
+        } else if (posSum < Math.abs(negSum)) {
+            negSum -= punctEmphasis;
+        }
+        double total = posSum + Math.abs(negSum) + neuCount;
+        return scores(Math.abs(negSum / total), Math.abs(neuCount / total), Math.abs(posSum / total), compound);
+    }
+
+    private static double amplifyExclamations(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '!') count++;
+        }
+        return Math.min(count, 4) * 0.292;
+    }
+
+    private static double amplifyQuestions(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '?') count++;
+        }
+        if (count <= 1) return 0;
+        return count <= 3 ? count * 0.18 : 0.96;
+    }
+
+    private static double normalize(double score) {
+        double normalized = score / Math.sqrt(score * score + 15);
+        return Math.max(-1.0, Math.min(1.0, normalized));
+    }
+
+    private static Map<String, Double> scores(double neg, double neu, double pos, double compound) {
+        return Map.of("neg", round(neg, 3), "neu", round(neu, 3), "pos", round(pos, 3), "compound", round(compound, 4));
+    }
+
+    // Python's round(): half-even on the exact binary value
+    private static double round(double value, int places) {
+        return new BigDecimal(value).setScale(places, RoundingMode.HALF_EVEN).doubleValue();
+    }
+
+    private boolean inLexicon(Tokens t, int i) {
+        return lexicon.contains(t.lower, t.start[i], t.end[i]);
+    }
+
+    private static boolean negated(Tokens t, int i) {
+        if (NEGATE.contains(t.lower, t.start[i], t.end[i])) return true;
+        for (int c = t.start[i]; c + 2 < t.end[i]; c++) {
+            if (t.lower[c] == 'n' && t.lower[c + 1] == '\'' && t.lower[c + 2] == 't') return true;
+        }
+        return false;
+    }
+
+    private static Map<String, Double> constant(double value, String... words) {
+        Map<String, Double> map = new HashMap<>();
+        for (String word : words) map.put(word, value);
+        return map;
+    }
+
+    // Whitespace-split tokens as [start, end) offsets into the lower-cased text. Surrounding
+    // punctuation is dropped unless that leaves two characters or fewer (keeps ":)" and "a.").
+    private static final class Tokens {
+
+        final String text;
+        final char[] lower;
+        int[] start = new int[16];
+        int[] end = new int[16];
+        boolean[] upper = new boolean[16];
+        int count;
+        // some but not all tokens are in ALL CAPS
+        final boolean capDifferential;
+
+        Tokens(String text) {
+            this.text = text;
+            int n = text.length();
+            this.lower = new char[n];
+            for (int i = 0; i < n; i++) {
+                lower[i] = Character.toLowerCase(text.charAt(i));
+            }
+
+            int allCaps = 0;
+            int i = 0;
+            while (i < n) {
+                while (i < n && isSpace(text.charAt(i))) i++;
+                if (i == n) break;
+                int s = i;
+                while (i < n && !isSpace(text.charAt(i))) i++;
+                int ps = s;
+                int pe = i;
+                while (ps < pe && PUNCTUATION.indexOf(text.charAt(ps)) >= 0) ps++;
+                while (pe > ps && PUNCTUATION.indexOf(text.charAt(pe - 1)) >= 0) pe--;
+                if (pe - ps > 2) {
+                    add(ps, pe);
+                } else {
+                    add(s, i);
+                }
+                if (upper[count - 1]) allCaps++;
+            }
+            int differential = count - allCaps;
+            this.capDifferential = differential > 0 && differential < count;
+        }
+
+        private void add(int s, int e) {
+            if (count == start.length) {
+                start = Arrays.copyOf(start, count * 2);
+                end = Arrays.copyOf(end, count * 2);
+                upper = Arrays.copyOf(upper, count * 2);
+            }
+            start[count] = s;
+            end[count] = e;
+            upper[count] = isUpper(s, e);
+            count++;
+        }
+
+        // str.isupper(): at least one cased character and none of them lower case
+        private boolean isUpper(int s, int e) {
+            boolean cased = false;
+            for (int c = s; c < e; c++) {
+                char ch = text.charAt(c);
+                if (Character.isLowerCase(ch) || Character.isTitleCase(ch)) return false;
+                if (Character.isUpperCase(ch)) cased = true;
+            }
+            return cased;
+        }
+
+        boolean is(int i, String word) {
+            int len = end[i] - start[i];
+            if (len != word.length()) return false;
+            for (int c = 0; c < len; c++) {
+                if (lower[start[i] + c] != word.charAt(c)) return false;
+            }
+            return true;
+        }
+
+        // space-joined tokens from..to inclusive, reusing the builder
+        CharSequence join(StringBuilder sb, int from, int to) {
+            sb.setLength(0);
+            for (int k = from; k <= to; k++) {
+                if (k > from) sb.append(' ');
+                sb.append(lower, start[k], end[k] - start[k]);
+            }
+            return sb;
+        }
+
+        private static boolean isSpace(char c) {
+            return Character.isWhitespace(c) || Character.isSpaceChar(c);
+        }
+    }
+}
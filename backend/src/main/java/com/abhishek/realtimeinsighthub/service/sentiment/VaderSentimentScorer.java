@@ -0,0 +1,34 @@
+package com.abhishek.realtimeinsighthub.service.sentiment;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.SentimentResponseDto;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// Scores in-process with the same VADER rules and lexicon as the ml-service
+@Service
+@ConditionalOnProperty(name = "sentiment.scorer", havingValue = "vader")
+public class VaderSentimentScorer implements SentimentScorer {
+
+    private final VaderSentimentAnalyzer analyzer = VaderSentimentAnalyzer.fromClasspath();
+
+    @Override
+    public Mono<List<SentimentResponseDto>> score(List<NewsDataDto> batch) {
+        // CPU bound, keep it off the caller's thread
+        return Mono.fromCallable(() -> batch.stream().map(this::score).toList())
+                .subscribeOn(Schedulers.parallel());
+    }
+
+    public SentimentResponseDto score(NewsDataDto news) {
+        Map<String, Double> scores = analyzer.polarityScores(String.valueOf(news.getNewsData()));
+        return new SentimentResponseDto(news.getTimestamp(), news.getStock(),
+            SentimentLabels.fromCompound(scores.get("compound")), scores);
+    }
+}
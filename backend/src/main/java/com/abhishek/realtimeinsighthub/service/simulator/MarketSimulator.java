@@ -0,0 +1,86 @@
+package com.abhishek.realtimeinsighthub.service.simulator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.StockDataDto;
+
+// Deterministic source of ticks and headlines: the same seed and call sequence gives the same
+// prices and texts. Prices follow a geometric random walk per symbol; headlines are assembled
+// from templates whose wording leans with the symbol's recent move, so scorers see a mix.
+class MarketSimulator {
+
+    private static final String[] UP = {"surges", "jumps", "rallies", "climbs", "beats estimates"};
+    private static final String[] DOWN = {"slumps", "falls", "tumbles", "slides", "misses estimates"};
+    private static final String[] CAUSES = {
+        "after strong quarterly earnings", "on upbeat guidance", "as analysts upgrade the stock",
+        "after a disappointing outlook", "amid a regulatory probe", "as demand weakens",
+        "ahead of its product launch", "following a leadership change", "on heavy trading volume"
+    };
+
+    // per-step volatility of the log price
+    private final double volatility;
+    private final SplittableRandom random;
+    private final List<String> symbols;
+    private final double[] prices;
+    private final double[] drift;
+    private int cursor;
+
+    MarketSimulator(List<String> symbols, long seed, double volatility) {
+        this.symbols = symbols;
+        this.volatility = volatility;
+        this.random = new SplittableRandom(seed);
+        this.prices = new double[symbols.size()];
+        this.drift = new double[symbols.size()];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 10 + random.nextDouble() * 490;
+        }
+    }
+
+    List<String> symbols() {
+        return symbols;
+    }
+
+    // the next count ticks, cycling through the symbols
+    List<StockDataDto> nextTicks(int count, Instant now) {
+        List<StockDataDto> ticks = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            int i = cursor;
+            cursor = (cursor + 1) % prices.length;
+            double step = volatility * random.nextGaussian();
+            prices[i] *= Math.exp(step - volatility * volatility / 2);
+            drift[i] = 0.9 * drift[i] + step;
+            ticks.add(new StockDataDto(now, symbols.get(i),
+                BigDecimal.valueOf(prices[i]).setScale(4, RoundingMode.HALF_EVEN)));
+        }
+        return ticks;
+    }
+
+    List<NewsDataDto> nextHeadlines(int count, Instant now) {
+        List<NewsDataDto> headlines = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            int i = random.nextInt(prices.length);
+            // mostly follows the recent move, sometimes against it
+            boolean up = (drift[i] >= 0) != (random.nextDouble() < 0.3);
+            String[] verbs = up ? UP : DOWN;
+            String text = symbols.get(i) + " " + verbs[random.nextInt(verbs.length)] + " "
+                + CAUSES[random.nextInt(CAUSES.length)];
+            headlines.add(new NewsDataDto(now, symbols.get(i), text));
+        }
+        return headlines;
+    }
+
+    static List<String> symbols(List<String> configured, int count) {
+        // the configured symbols first, so charts for them show simulated data too
+        List<String> symbols = new ArrayList<>(configured.subList(0, Math.min(count, configured.size())));
+        for (int i = 0; symbols.size() < count; i++) {
+            symbols.add(String.format("SIM%04d", i));
+        }
+        return symbols;
+    }
+}
@@ -0,0 +1,157 @@
+package com.abhishek.realtimeinsighthub.service.simulator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.StockDataDto;
+import com.abhishek.realtimeinsighthub.service.FixedDelayLoop;
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+import com.abhishek.realtimeinsighthub.service.publisher.MarketDataService;
+import com.abhishek.realtimeinsighthub.service.wire.MarketDataCodec;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+// Offline stand-in for the Finnhub and TickerTick publishers (market.source: simulator). Publishes
+// simulated ticks and headlines to the same topics at a fixed rate, and prints a throughput and
+// latency report every report interval and when the run ends.
+@Service
+@ConditionalOnProperty(name = "market.source", havingValue = "simulator")
+public class SimulatedMarketDataService implements MarketDataService {
+
+    private final String STOCK_TOPIC = "stock-topic";
+    private final String NEWS_TOPIC = "news-topic";
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final MarketDataCodec codec;
+    private final PipelineMetrics metrics;
+    private final TaskScheduler taskScheduler;
+    private final MarketSimulator simulator;
+    private final SimulationReport report;
+    private final double tickRate;
+    private final double headlineRate;
+    private final Duration interval;
+    private final Duration duration;
+    private final Duration reportInterval;
+
+    private FixedDelayLoop publisher;
+    private ScheduledFuture<?> reporter;
+    private long startedNanos;
+    private long lastRunNanos;
+    private double tickBacklog;
+    private double headlineBacklog;
+
+    public SimulatedMarketDataService(KafkaTemplate<String, byte[]> kafkaTemplate, MarketDataCodec codec,
+        PipelineMetrics metrics, MeterRegistry meterRegistry, TaskScheduler taskScheduler,
+        @Value("${market.symbols:AAPL,TSLA,MSFT,GOOGL,AMZN,NVDA,META}") List<String> configuredSymbols,
+        @Value("${simulator.symbols:1000}") int symbols,
+        @Value("${simulator.tick-rate:1000}") double tickRate,
+        @Value("${simulator.headline-rate:10}") double headlineRate,
+        @Value("${simulator.seed:42}") long seed,
+        @Value("${simulator.volatility:0.001}") double volatility,
+        @Value("${simulator.interval:PT0.1S}") Duration interval,
+        @Value("${simulator.duration:PT0S}") Duration duration,
+        @Value("${simulator.report-interval:PT1M}") Duration reportInterval) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.codec = codec;
+        this.metrics = metrics;
+        this.taskScheduler = taskScheduler;
+        this.simulator = new MarketSimulator(MarketSimulator.symbols(configuredSymbols, symbols), seed, volatility);
+        this.report = new SimulationReport(meterRegistry);
+        this.tickRate = tickRate;
+        this.headlineRate = headlineRate;
+        this.interval = interval;
+        this.duration = duration;
+        this.reportInterval = reportInterval;
+    }
+
+    // fixed delay on its own thread, so a slow send never stacks runs up or delays other periodic
+    // work; the rate is kept by sizing each run from the time that actually passed since the previous one
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        startedNanos = System.nanoTime();
+        lastRunNanos = startedNanos;
+        report.next();
+        publisher = FixedDelayLoop.start("simulator", Duration.ZERO, interval, this::fetchAndPublishData);
+        reporter = taskScheduler.scheduleAtFixedRate(() -> System.out.println(report.next()),
+            Instant.now().plus(reportInterval), reportInterval);
+        System.out.println("Simulating " + simulator.symbols().size() + " symbols at " + tickRate + " ticks/s and "
+            + headlineRate + " headlines/s");
+    }
+
+    // not synchronized while waiting for the loop, its last run may be the one calling stop()
+    @PreDestroy
+    public void stop() {
+        FixedDelayLoop loop;
+        synchronized (this) {
+            loop = publisher;
+            publisher = null;
+        }
+        if (loop == null) return;
+        loop.stop();
+        reporter.cancel(false);
+        System.out.println(report.next());
+    }
+
+    // ticks and headlines due since the previous run, fractions carry over to the next one
+    @Override
+    public void fetchAndPublishData() {
+        long nowNanos = System.nanoTime();
+        if (!duration.isZero() && nowNanos - startedNanos >= duration.toNanos()) {
+            stop();
+            return;
+        }
+        double seconds = (nowNanos - lastRunNanos) / 1e9;
+        lastRunNanos = nowNanos;
+        tickBacklog += tickRate * seconds;
+        headlineBacklog += headlineRate * seconds;
+        int ticks = (int) tickBacklog;
+        int headlines = (int) headlineBacklog;
+        tickBacklog -= ticks;
+        headlineBacklog -= headlines;
+
+        Instant now = Instant.now();
+        for (StockDataDto tick : simulator.nextTicks(ticks, now)) {
+            publish(tick);
+        }
+        for (NewsDataDto headline : simulator.nextHeadlines(headlines, now)) {
+            publish(headline);
+        }
+    }
+
+    private void publish(StockDataDto tick) {
+        try {
+            kafkaTemplate.send(codec.stockRecord(STOCK_TOPIC, tick, tick.getTimestamp())).whenComplete((result, e) -> {
+                if (e == null) {
+                    metrics.stage(PipelineMetrics.STOCK, PipelineMetrics.PUBLISHED, tick.getStock(), tick.getTimestamp());
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Failed to publish simulated tick for " + tick.getStock() + ": " + e.getMessage());
+        }
+    }
+
+    private void publish(NewsDataDto headline) {
+        try {
+            kafkaTemplate.send(codec.newsRecord(NEWS_TOPIC, headline, headline.getTimestamp())).whenComplete((result, e) -> {
+                if (e == null) {
+                    metrics.stage(PipelineMetrics.NEWS, PipelineMetrics.PUBLISHED, headline.getStock(),
+                        headline.getTimestamp());
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Failed to publish simulated headline for " + headline.getStock() + ": " + e.getMessage());
+        }
+    }
+}
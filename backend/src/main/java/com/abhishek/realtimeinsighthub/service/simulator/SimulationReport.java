@@ -0,0 +1,69 @@
+package com.abhishek.realtimeinsighthub.service.simulator;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+// Summarises a simulator run from the pipeline meters: messages per second through each stage
+// since the previous report, and the p99 latency from fetch to that stage.
+class SimulationReport {
+
+    private static final List<String> TYPES = List.of(PipelineMetrics.STOCK, PipelineMetrics.NEWS);
+    private static final List<String> STAGES = List.of(PipelineMetrics.PUBLISHED, PipelineMetrics.CONSUMED,
+        PipelineMetrics.PERSISTED, PipelineMetrics.PUSHED);
+
+    private final MeterRegistry registry;
+    private final Map<String, Double> lastCounts = new HashMap<>();
+    private long lastNanos = System.nanoTime();
+
+    SimulationReport(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    synchronized String next() {
+        long now = System.nanoTime();
+        double seconds = Math.max(Duration.ofNanos(now - lastNanos).toMillis() / 1000.0, 0.001);
+        lastNanos = now;
+
+        StringBuilder report = new StringBuilder("Simulator report over ").append(seconds).append("s");
+        for (String type : TYPES) {
+            for (String stage : STAGES) {
+                double count = messages(type, stage);
+                double rate = (count - lastCounts.getOrDefault(type + stage, 0.0)) / seconds;
+                lastCounts.put(type + stage, count);
+                report.append(String.format("%n  %-5s %-9s %10.1f msg/s  p99 %s", type, stage, rate, p99(type, stage)));
+            }
+        }
+        return report.toString();
+    }
+
+    // persisted ticks are only timed, not counted per symbol
+    private double messages(String type, String stage) {
+        double total = 0;
+        for (Counter counter : registry.find("pipeline.messages").tags("type", type, "stage", stage).counters()) {
+            total += counter.count();
+        }
+        Timer timer = registry.find("pipeline.latency").tags("type", type, "stage", stage).timer();
+        return total == 0 && timer != null ? timer.count() : total;
+    }
+
+    private String p99(String type, String stage) {
+        Timer timer = registry.find("pipeline.latency").tags("type", type, "stage", stage).timer();
+        if (timer == null) return "-";
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.99) {
+                return Math.round(percentile.value(TimeUnit.MILLISECONDS)) + "ms";
+            }
+        }
+        return "-";
+    }
+}
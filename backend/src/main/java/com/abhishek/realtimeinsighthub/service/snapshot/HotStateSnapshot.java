@@ -0,0 +1,283 @@
+package com.abhishek.realtimeinsighthub.service.snapshot;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.abhishek.realtimeinsighthub.dto.MarketSnapshotDto;
+import com.abhishek.realtimeinsighthub.dto.PricePoint;
+import com.abhishek.realtimeinsighthub.dto.SentimentPoint;
+import com.abhishek.realtimeinsighthub.dto.StockPricePoint;
+import com.abhishek.realtimeinsighthub.dto.StockSentimentPoint;
+import com.abhishek.realtimeinsighthub.repo.PriceRepo;
+import com.abhishek.realtimeinsighthub.repo.SentimentRepo;
+import com.abhishek.realtimeinsighthub.service.FixedDelayLoop;
+import com.abhishek.realtimeinsighthub.service.live.LiveTickStore;
+import com.abhishek.realtimeinsighthub.service.live.MarketSnapshotStore;
+import com.abhishek.realtimeinsighthub.service.live.TickRingBuffer;
+import com.abhishek.realtimeinsighthub.service.publisher.NewsDedupeIndex;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Writes the in-memory market state to a memory-mapped file every interval and on shutdown, and
+// reads it back on startup instead of querying the database symbol by symbol: the live tick
+// buffers, the market snapshot table and the news dedupe filters. Ticks newer than the snapshot
+// are streamed with one query per table before the Kafka listeners start, keeping per symbol only
+// as many as a live buffer holds. Headlines still waiting to
+// be scored are not kept, their records were never acknowledged and Kafka delivers them again.
+@Component
+public class HotStateSnapshot {
+
+    static final int LIVE_TICKS = 1;
+    static final int MARKET_SNAPSHOT = 2;
+    static final int NEWS_DEDUPE = 3;
+
+    // restored buffers are cut this far before the snapshot, so a tick consumed after the snapshot
+    // but stamped a little earlier is still read back from the database
+    static final Duration GAP_MARGIN = Duration.ofMinutes(1);
+
+    private final LiveTickStore liveTickStore;
+    private final MarketSnapshotStore marketSnapshotStore;
+    private final ObjectProvider<NewsDedupeIndex> newsDedupeIndex;
+    private final PriceRepo priceRepo;
+    private final SentimentRepo sentimentRepo;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path path;
+    private final Duration interval;
+    private final Duration maxAge;
+
+    private FixedDelayLoop writer;
+
+    public HotStateSnapshot(LiveTickStore liveTickStore, MarketSnapshotStore marketSnapshotStore,
+        ObjectProvider<NewsDedupeIndex> newsDedupeIndex, PriceRepo priceRepo, SentimentRepo sentimentRepo,
+        PlatformTransactionManager transactionManager,
+        @Value("${storage.snapshot.path:data/hot-state.snapshot}") String path,
+        @Value("${storage.snapshot.interval:PT30S}") Duration interval,
+        @Value("${storage.snapshot.max-age:PT1H}") Duration maxAge) {
+        this.liveTickStore = liveTickStore;
+        this.marketSnapshotStore = marketSnapshotStore;
+        this.newsDedupeIndex = newsDedupeIndex;
+        this.priceRepo = priceRepo;
+        this.sentimentRepo = sentimentRepo;
+        // the gap is read through cursors, which Postgres only keeps inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // an empty path turns snapshots off
+        this.path = path.isBlank() ? null : Path.of(path);
+        this.interval = interval;
+        this.maxAge = maxAge;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (path == null) return;
+        try {
+            restore();
+        } catch (Exception e) {
+            System.err.println("Hot-state snapshot restore failed, loading from the database: " + e.getMessage());
+        }
+        writer = FixedDelayLoop.start("hot-state-snapshot", interval, interval, () -> write(false));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writer == null) return;
+        writer.stop();
+        write(true);
+    }
+
+    synchronized void write(boolean shutdown) {
+        try {
+            long start = System.nanoTime();
+            Instant createdAt = Instant.now();
+            Map<Integer, ByteBuffer> sections = new LinkedHashMap<>();
+            sections.put(LIVE_TICKS, SnapshotFile.blocks(liveTickStore.buffers().entrySet().parallelStream()
+                .map(e -> encodeTicks(e.getKey(), e.getValue()))
+                .toList()));
+            sections.put(MARKET_SNAPSHOT, SnapshotFile.blocks(marketSnapshotStore.snapshot().stream()
+                .filter(row -> row.getTimestamp() != null || row.getSentimentTimestamp() != null)
+                .map(HotStateSnapshot::encodeMarket)
+                .toList()));
+            NewsDedupeIndex dedupe = newsDedupeIndex.getIfAvailable();
+            if (dedupe != null) {
+                sections.put(NEWS_DEDUPE, dedupe.encode());
+            }
+            SnapshotFile.write(path, createdAt, sections);
+            if (shutdown) {
+                System.out.println("Hot-state snapshot written to " + path + " in "
+                    + Duration.ofNanos(System.nanoTime() - start).toMillis() + " ms");
+            }
+        } catch (Exception e) {
+            System.err.println("Hot-state snapshot write failed: " + e.getMessage());
+        }
+    }
+
+    // false when there was nothing usable to restore
+    boolean restore() throws Exception {
+        SnapshotFile.Snapshot snapshot = SnapshotFile.read(path);
+        if (snapshot == null) return false;
+        Instant now = Instant.now();
+        if (snapshot.createdAt().isBefore(now.minus(maxAge))) {
+            System.out.println("Hot-state snapshot from " + snapshot.createdAt() + " is too old, ignored");
+            return false;
+        }
+        long start = System.nanoTime();
+        Instant cut = snapshot.createdAt().minus(GAP_MARGIN);
+
+        // decoded and topped up before anything is installed, a failure leaves the stores untouched
+        ByteBuffer ticks = snapshot.section(LIVE_TICKS);
+        Map<String, TickRingBuffer> buffers = ticks == null ? Map.of() : SnapshotFile.blocks(ticks).parallelStream()
+            .map(block -> Map.entry(SnapshotFile.getString(block),
+                TickRingBuffer.decode(block, liveTickStore.capacity(), cut.toEpochMilli())))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        ByteBuffer market = snapshot.section(MARKET_SNAPSHOT);
+        List<MarketSnapshotDto> rows = market == null ? List.of() : SnapshotFile.blocks(market).stream()
+            .map(HotStateSnapshot::decodeMarket)
+            .toList();
+        Map<String, Gap> gaps = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<StockPricePoint> prices = priceRepo.streamPointsAfter(cut)) {
+                prices.forEach(p -> gap(gaps, p.getStock()).addPrice(p.toPoint()));
+            }
+            try (Stream<StockSentimentPoint> sentiments = sentimentRepo.streamPointsAfter(cut)) {
+                sentiments.forEach(s -> gap(gaps, s.getStock()).addSentiment(s.toPoint()));
+            }
+        });
+
+        liveTickStore.restore(buffers);
+        rows.forEach(marketSnapshotStore::restore);
+        gaps.forEach((stock, gap) -> {
+            liveTickStore.append(stock, gap.prices, gap.sentiments);
+            marketSnapshotStore.restore(stock, gap.marketPrices(), gap.sentiments);
+        });
+
+        ByteBuffer dedupe = snapshot.section(NEWS_DEDUPE);
+        NewsDedupeIndex index = newsDedupeIndex.getIfAvailable();
+        boolean dedupeRestored = dedupe != null && index != null && index.restore(dedupe, cut);
+
+        System.out.println("Hot state restored from " + path + " (" + Duration.between(snapshot.createdAt(), now).toSeconds()
+            + " s old): " + buffers.size() + " tick buffers, " + rows.size() + " market rows, "
+            + (dedupeRestored ? "dedupe filters, " : "")
+            + gaps.values().stream().mapToLong(gap -> gap.priceRows).sum() + " prices and "
+            + gaps.values().stream().mapToLong(gap -> gap.sentimentRows).sum() + " sentiments reloaded since, in "
+            + Duration.ofNanos(System.nanoTime() - start).toMillis() + " ms");
+        return true;
+    }
+
+    private Gap gap(Map<String, Gap> gaps, String stock) {
+        return gaps.computeIfAbsent(stock, s -> new Gap(liveTickStore.capacity()));
+    }
+
+    // Rows of one symbol written after the snapshot. Only the newest ones a live buffer holds are
+    // kept, plus the last price of the trading day before them, which the market table needs as the close.
+    private static final class Gap {
+
+        private final int capacity;
+        private final ArrayDeque<PricePoint> prices = new ArrayDeque<>();
+        private final ArrayDeque<SentimentPoint> sentiments = new ArrayDeque<>();
+        private PricePoint close;
+        private long priceRows;
+        private long sentimentRows;
+
+        Gap(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void addPrice(PricePoint price) {
+            PricePoint last = prices.peekLast();
+            if (last != null && !MarketSnapshotStore.tradingDay(price.getTimestamp())
+                .equals(MarketSnapshotStore.tradingDay(last.getTimestamp()))) {
+                close = last;
+            }
+            if (prices.size() == capacity) {
+                prices.removeFirst();
+            }
+            prices.addLast(price);
+            priceRows++;
+        }
+
+        void addSentiment(SentimentPoint sentiment) {
+            if (sentiments.size() == capacity) {
+                sentiments.removeFirst();
+            }
+            sentiments.addLast(sentiment);
+            sentimentRows++;
+        }
+
+        // a close still in the deque is seen again there, the store ignores the older ticks before it
+        List<PricePoint> marketPrices() {
+            if (close == null) return List.copyOf(prices);
+            List<PricePoint> result = new ArrayList<>(prices.size() + 1);
+            result.add(close);
+            result.addAll(prices);
+            return result;
+        }
+    }
+
+    private static ByteBuffer encodeTicks(String stock, TickRingBuffer buffer) {
+        ByteBuffer body = buffer.encode();
+        ByteBuffer out = ByteBuffer.allocate(SnapshotFile.sizeOf(stock) + body.remaining());
+        SnapshotFile.putString(out, stock);
+        return out.put(body).flip();
+    }
+
+    static ByteBuffer encodeMarket(MarketSnapshotDto row) {
+        String price = row.getPrice() != null ? row.getPrice().toPlainString() : null;
+        String previousClose = row.getPreviousClose() != null ? row.getPreviousClose().toPlainString() : null;
+        ByteBuffer out = ByteBuffer.allocate(SnapshotFile.sizeOf(row.getStock()) + 13 + SnapshotFile.sizeOf(price)
+            + SnapshotFile.sizeOf(previousClose) + 13 + SnapshotFile.sizeOf(row.getSentiment()) + 9);
+        SnapshotFile.putString(out, row.getStock());
+        putInstant(out, row.getTimestamp());
+        SnapshotFile.putString(out, price);
+        SnapshotFile.putString(out, previousClose);
+        putInstant(out, row.getSentimentTimestamp());
+        SnapshotFile.putString(out, row.getSentiment());
+        out.put((byte) (row.getCompound() != null ? 1 : 0)).putDouble(row.getCompound() != null ? row.getCompound() : 0);
+        return out.flip();
+    }
+
+    // change and changePercent are derived again by the store
+    static MarketSnapshotDto decodeMarket(ByteBuffer in) {
+        String stock = SnapshotFile.getString(in);
+        Instant timestamp = getInstant(in);
+        String price = SnapshotFile.getString(in);
+        String previousClose = SnapshotFile.getString(in);
+        Instant sentimentTimestamp = getInstant(in);
+        String sentiment = SnapshotFile.getString(in);
+        boolean hasCompound = in.get() == 1;
+        double compound = in.getDouble();
+        return new MarketSnapshotDto(stock, timestamp, price != null ? new BigDecimal(price) : null,
+            previousClose != null ? new BigDecimal(previousClose) : null, null, null,
+            sentimentTimestamp, sentiment, hasCompound ? compound : null);
+    }
+
+    // presence byte, epoch seconds, nanos
+    private static void putInstant(ByteBuffer out, Instant value) {
+        out.put((byte) (value != null ? 1 : 0));
+        out.putLong(value != null ? value.getEpochSecond() : 0).putInt(value != null ? value.getNano() : 0);
+    }
+
+    private static Instant getInstant(ByteBuffer in) {
+        boolean present = in.get() == 1;
+        long seconds = in.getLong();
+        int nanos = in.getInt();
+        return present ? Instant.ofEpochSecond(seconds, nanos) : null;
+    }
+}
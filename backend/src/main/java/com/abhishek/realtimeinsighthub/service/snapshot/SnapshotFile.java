@@ -0,0 +1,141 @@
+package com.abhishek.realtimeinsighthub.service.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Binary layout of the hot-state snapshot, big-endian:
+//   int magic, int version, long createdAt (epoch millis), int sectionCount,
+//   sectionCount x (int id, long offset, long length), then the section bodies.
+// Readers skip sections they do not know; an incompatible change bumps VERSION and older
+// snapshots are ignored. A section of per-symbol blocks starts with int count and count x int
+// length, so every block can be sliced out of the mapping and decoded on its own.
+final class SnapshotFile {
+
+    static final int MAGIC = 0x52494853; // "RIHS"
+    static final int VERSION = 1;
+
+    private SnapshotFile() {
+    }
+
+    record Snapshot(Instant createdAt, Map<Integer, ByteBuffer> sections) {
+
+        ByteBuffer section(int id) {
+            ByteBuffer section = sections.get(id);
+            return section != null ? section.duplicate() : null;
+        }
+    }
+
+    // written to a sibling file and renamed over the old snapshot, a crash leaves one or the other
+    static void write(Path path, Instant createdAt, Map<Integer, ByteBuffer> sections) throws IOException {
+        long headerSize = 4 + 4 + 8 + 4 + sections.size() * (4 + 8 + 8L);
+        long size = headerSize;
+        for (ByteBuffer section : sections.values()) {
+            size += section.remaining();
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putInt(VERSION).putLong(createdAt.toEpochMilli()).putInt(sections.size());
+            long offset = headerSize;
+            for (Map.Entry<Integer, ByteBuffer> section : sections.entrySet()) {
+                int length = section.getValue().remaining();
+                out.putInt(section.getKey()).putLong(offset).putLong(length);
+                offset += length;
+            }
+            for (ByteBuffer section : sections.values()) {
+                out.put(section.duplicate());
+            }
+            out.force();
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // null when there is no snapshot or it has another format
+    static Snapshot read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < 20 || in.getInt() != MAGIC || in.getInt() != VERSION) return null;
+            Instant createdAt = Instant.ofEpochMilli(in.getLong());
+            int count = in.getInt();
+            Map<Integer, ByteBuffer> sections = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                int id = in.getInt();
+                long offset = in.getLong();
+                long length = in.getLong();
+                sections.put(id, in.slice(Math.toIntExact(offset), Math.toIntExact(length)));
+            }
+            return new Snapshot(createdAt, sections);
+        }
+    }
+
+    static ByteBuffer blocks(List<ByteBuffer> blocks) {
+        int size = 4 + blocks.size() * 4;
+        for (ByteBuffer block : blocks) {
+            size += block.remaining();
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(blocks.size());
+        for (ByteBuffer block : blocks) {
+            out.putInt(block.remaining());
+        }
+        for (ByteBuffer block : blocks) {
+            out.put(block.duplicate());
+        }
+        return out.flip();
+    }
+
+    // independent slices, safe to decode from different threads
+    static List<ByteBuffer> blocks(ByteBuffer section) {
+        int count = section.getInt();
+        int offset = section.position() + count * 4;
+        List<ByteBuffer> blocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = section.getInt();
+            blocks.add(section.slice(offset, length));
+            offset += length;
+        }
+        return blocks;
+    }
+
+    static int sizeOf(String value) {
+        return 4 + (value != null ? value.getBytes(StandardCharsets.UTF_8).length : 0);
+    }
+
+    // length -1 stands for null
+    static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length).put(bytes);
+    }
+
+    static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
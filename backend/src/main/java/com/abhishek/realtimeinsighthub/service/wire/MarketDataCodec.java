@@ -0,0 +1,200 @@
+package com.abhishek.realtimeinsighthub.service.wire;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.StockDataDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Kafka values for the stock and news topics. The content-type header says how a value is
+// encoded; records without it are JSON, so old and new producers can share a topic.
+// fetched-at (epoch millis i64) stamps when the data was fetched upstream.
+//
+// stock v1: version u8 | epoch millis i64 | symbol | price scale u8 | unscaled price i64
+// news v1:  version u8 | epoch millis i64 | symbol | text length i32 | UTF-8 text
+// symbol:   id i16 from the SymbolTable, or -1 | length u8 | UTF-8 name
+@Component
+public class MarketDataCodec {
+
+    public static final String CONTENT_TYPE = "content-type";
+    public static final String FETCHED_AT = "fetched-at";
+    public static final String JSON = "application/json";
+    public static final String STOCK_V1 = "application/vnd.realtimeinsighthub.stock.v1";
+    public static final String NEWS_V1 = "application/vnd.realtimeinsighthub.news.v1";
+
+    private static final byte VERSION = 1;
+    private static final int MAX_INLINE_SYMBOL = 255;
+    private static final byte[] TABLE_SYMBOL = new byte[0];
+
+    private final ObjectMapper objectMapper;
+    private final SymbolTable symbols;
+    private final boolean binary;
+
+    public MarketDataCodec(ObjectMapper objectMapper,
+        @Value("${market.symbols:AAPL,TSLA,MSFT,GOOGL,AMZN,NVDA,META}") List<String> symbols,
+        @Value("${kafka.wire-format:json}") String wireFormat) {
+        this.objectMapper = objectMapper;
+        this.symbols = new SymbolTable(symbols);
+        this.binary = "binary".equalsIgnoreCase(wireFormat);
+    }
+
+    public ProducerRecord<String, byte[]> stockRecord(String topic, StockDataDto dto) throws Exception {
+        return stockRecord(topic, dto, null);
+    }
+
+    public ProducerRecord<String, byte[]> stockRecord(String topic, StockDataDto dto, Instant fetchedAt) throws Exception {
+        byte[] encoded = binary ? encodeStock(dto) : null;
+        return encoded != null
+            ? record(topic, encoded, STOCK_V1, fetchedAt)
+            : record(topic, objectMapper.writeValueAsBytes(dto), JSON, fetchedAt);
+    }
+
+    public ProducerRecord<String, byte[]> newsRecord(String topic, NewsDataDto dto) throws Exception {
+        return newsRecord(topic, dto, null);
+    }
+
+    public ProducerRecord<String, byte[]> newsRecord(String topic, NewsDataDto dto, Instant fetchedAt) throws Exception {
+        byte[] encoded = binary ? encodeNews(dto) : null;
+        return encoded != null
+            ? record(topic, encoded, NEWS_V1, fetchedAt)
+            : record(topic, objectMapper.writeValueAsBytes(dto), JSON, fetchedAt);
+    }
+
+    // null for records from producers that do not stamp it
+    public Instant fetchedAt(ConsumerRecord<String, byte[]> record) {
+        Header header = record.headers().lastHeader(FETCHED_AT);
+        if (header == null || header.value().length != Long.BYTES) return null;
+        return Instant.ofEpochMilli(ByteBuffer.wrap(header.value()).getLong());
+    }
+
+    public StockDataDto decodeStock(ConsumerRecord<String, byte[]> record) throws Exception {
+        String contentType = contentType(record.headers());
+        if (contentType == null || JSON.equals(contentType)) {
+            return objectMapper.readValue(record.value(), StockDataDto.class);
+        }
+        if (!STOCK_V1.equals(contentType)) {
+            throw new IllegalArgumentException("Unsupported stock content type " + contentType);
+        }
+        ByteBuffer in = ByteBuffer.wrap(record.value());
+        checkVersion(in);
+        Instant timestamp = Instant.ofEpochMilli(in.getLong());
+        String stock = readSymbol(in);
+        int scale = in.get() & 0xFF;
+        return new StockDataDto(timestamp, stock, BigDecimal.valueOf(in.getLong(), scale));
+    }
+
+    public NewsDataDto decodeNews(ConsumerRecord<String, byte[]> record) throws Exception {
+        String contentType = contentType(record.headers());
+        if (contentType == null || JSON.equals(contentType)) {
+            return objectMapper.readValue(record.value(), NewsDataDto.class);
+        }
+        if (!NEWS_V1.equals(contentType)) {
+            throw new IllegalArgumentException("Unsupported news content type " + contentType);
+        }
+        ByteBuffer in = ByteBuffer.wrap(record.value());
+        checkVersion(in);
+        Instant timestamp = Instant.ofEpochMilli(in.getLong());
+        String stock = readSymbol(in);
+        int length = in.getInt();
+        String text = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        return new NewsDataDto(timestamp, stock, text);
+    }
+
+    // null when the tick does not fit the binary layout, it is then sent as JSON
+    byte[] encodeStock(StockDataDto dto) {
+        BigDecimal price = dto.getPrice();
+        if (dto.getTimestamp() == null || dto.getStock() == null || price == null) return null;
+        if (price.scale() < 0) price = price.setScale(0);
+        BigInteger unscaled = price.unscaledValue();
+        if (price.scale() > 255 || unscaled.bitLength() > 63) return null;
+        byte[] symbol = inlineSymbol(dto.getStock());
+        if (symbol == null) return null;
+
+        ByteBuffer out = ByteBuffer.allocate(1 + 8 + symbolSize(symbol) + 1 + 8);
+        out.put(VERSION);
+        out.putLong(dto.getTimestamp().toEpochMilli());
+        writeSymbol(out, dto.getStock(), symbol);
+        out.put((byte) price.scale());
+        out.putLong(unscaled.longValue());
+        return out.array();
+    }
+
+    byte[] encodeNews(NewsDataDto dto) {
+        if (dto.getTimestamp() == null || dto.getStock() == null || !(dto.getNewsData() instanceof String text)) return null;
+        byte[] symbol = inlineSymbol(dto.getStock());
+        if (symbol == null) return null;
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer out = ByteBuffer.allocate(1 + 8 + symbolSize(symbol) + 4 + utf8.length);
+        out.put(VERSION);
+        out.putLong(dto.getTimestamp().toEpochMilli());
+        writeSymbol(out, dto.getStock(), symbol);
+        out.putInt(utf8.length);
+        out.put(utf8);
+        return out.array();
+    }
+
+    // empty for symbols in the table (only the id is written), null if it cannot be inlined
+    private byte[] inlineSymbol(String stock) {
+        if (symbols.idOf(stock) != SymbolTable.UNKNOWN) return TABLE_SYMBOL;
+        byte[] name = stock.getBytes(StandardCharsets.UTF_8);
+        return name.length <= MAX_INLINE_SYMBOL ? name : null;
+    }
+
+    private static int symbolSize(byte[] inline) {
+        return inline == TABLE_SYMBOL ? 2 : 2 + 1 + inline.length;
+    }
+
+    private void writeSymbol(ByteBuffer out, String stock, byte[] inline) {
+        short id = symbols.idOf(stock);
+        out.putShort(id);
+        if (id == SymbolTable.UNKNOWN) {
+            out.put((byte) inline.length);
+            out.put(inline);
+        }
+    }
+
+    private String readSymbol(ByteBuffer in) {
+        short id = in.getShort();
+        if (id != SymbolTable.UNKNOWN) {
+            return symbols.symbolOf(id);
+        }
+        int length = in.get() & 0xFF;
+        String name = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return name;
+    }
+
+    private static void checkVersion(ByteBuffer in) {
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported wire format version " + version);
+        }
+    }
+
+    private static ProducerRecord<String, byte[]> record(String topic, byte[] value, String contentType, Instant fetchedAt) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, value);
+        record.headers().add(CONTENT_TYPE, contentType.getBytes(StandardCharsets.US_ASCII));
+        if (fetchedAt != null) {
+            record.headers().add(FETCHED_AT, ByteBuffer.allocate(Long.BYTES).putLong(fetchedAt.toEpochMilli()).array());
+        }
+        return record;
+    }
+
+    private static String contentType(Headers headers) {
+        Header header = headers.lastHeader(CONTENT_TYPE);
+        return header != null ? new String(header.value(), StandardCharsets.US_ASCII) : null;
+    }
+}
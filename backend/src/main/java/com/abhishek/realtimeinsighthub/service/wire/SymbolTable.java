@@ -0,0 +1,39 @@
+package com.abhishek.realtimeinsighthub.service.wire;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Symbol <-> 16-bit id, the id being the position in market.symbols. Producers and
+// consumers share that list, so new symbols must only ever be appended to it.
+public class SymbolTable {
+
+    public static final short UNKNOWN = -1;
+
+    private final String[] symbols;
+    private final Map<String, Short> ids;
+
+    public SymbolTable(List<String> symbols) {
+        if (symbols.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many symbols for a 16-bit id: " + symbols.size());
+        }
+        this.symbols = new String[symbols.size()];
+        this.ids = new HashMap<>(symbols.size() * 2);
+        for (int i = 0; i < symbols.size(); i++) {
+            String symbol = symbols.get(i).strip().intern();
+            this.symbols[i] = symbol;
+            ids.putIfAbsent(symbol, (short) i);
+        }
+    }
+
+    public short idOf(String symbol) {
+        return ids.getOrDefault(symbol, UNKNOWN);
+    }
+
+    public String symbolOf(short id) {
+        if (id < 0 || id >= symbols.length) {
+            throw new IllegalArgumentException("Unknown symbol id " + id);
+        }
+        return symbols[id];
+    }
+}
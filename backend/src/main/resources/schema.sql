@@ -0,0 +1,136 @@
+-- Runs before Hibernate's ddl update (spring.sql.init), statements end with ^;
+-- prices and sentiments are owned by this script, Hibernate skips them (SqlManagedSchemaFilterProvider).
+
+CREATE SEQUENCE IF NOT EXISTS prices_seq START WITH 1 INCREMENT BY 50^;
+CREATE SEQUENCE IF NOT EXISTS sentiments_seq START WITH 1 INCREMENT BY 50^;
+
+-- tables created with IDENTITY ids already hold rows, move the sequences past them
+DO $$
+BEGIN
+    IF to_regclass('prices') IS NOT NULL THEN
+        PERFORM setval('prices_seq', GREATEST(
+            (SELECT last_value FROM prices_seq),
+            (SELECT COALESCE(MAX(id), 0) FROM prices) + 50));
+    END IF;
+    IF to_regclass('sentiments') IS NOT NULL THEN
+        PERFORM setval('sentiments_seq', GREATEST(
+            (SELECT last_value FROM sentiments_seq),
+            (SELECT COALESCE(MAX(id), 0) FROM sentiments) + 50));
+    END IF;
+END
+$$^;
+
+-- Creates the UTC day partition of a range-partitioned table, moving any rows
+-- of that day out of the default partition first. Safe to call concurrently (other
+-- instances, the startup listener and the cron job): whoever loses the race to create
+-- the table returns and leaves the rest to the winner.
+CREATE OR REPLACE FUNCTION ensure_daily_partition(parent text, day date) RETURNS void AS $$
+DECLARE
+    part text := format('%s_p%s', parent, to_char(day, 'YYYYMMDD'));
+    lo timestamptz := day::timestamp AT TIME ZONE 'UTC';
+    hi timestamptz := (day + 1)::timestamp AT TIME ZONE 'UTC';
+BEGIN
+    IF to_regclass(part) IS NOT NULL THEN
+        RETURN;
+    END IF;
+    BEGIN
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', part, parent);
+    -- a create racing an uncommitted one waits for it, then fails on the catalog's unique index
+    EXCEPTION WHEN duplicate_table OR unique_violation THEN
+        RETURN;
+    END;
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE timestamp >= %L AND timestamp < %L RETURNING *) '
+        || 'INSERT INTO %I SELECT * FROM moved', parent || '_default', lo, hi, part);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', parent, part, lo, hi);
+END
+$$ LANGUAGE plpgsql^;
+
+-- plain tables from before partitioning are renamed and copied over below
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'prices' AND relkind = 'r') THEN
+        ALTER TABLE prices RENAME TO prices_legacy;
+        IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'prices_pkey' AND conrelid = 'prices_legacy'::regclass) THEN
+            ALTER TABLE prices_legacy RENAME CONSTRAINT prices_pkey TO prices_legacy_pkey;
+        END IF;
+    END IF;
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'sentiments' AND relkind = 'r') THEN
+        ALTER TABLE sentiments RENAME TO sentiments_legacy;
+        IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'sentiments_pkey' AND conrelid = 'sentiments_legacy'::regclass) THEN
+            ALTER TABLE sentiments_legacy RENAME CONSTRAINT sentiments_pkey TO sentiments_legacy_pkey;
+        END IF;
+    END IF;
+END
+$$^;
+
+CREATE TABLE IF NOT EXISTS prices (
+    id bigint NOT NULL,
+    timestamp timestamp(6) with time zone NOT NULL,
+    stock varchar(10),
+    price numeric(19, 4),
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp)^;
+
+CREATE TABLE IF NOT EXISTS prices_default PARTITION OF prices DEFAULT^;
+
+CREATE INDEX IF NOT EXISTS prices_stock_timestamp_idx ON prices (stock, timestamp)^;
+
+CREATE TABLE IF NOT EXISTS sentiments (
+    id bigint NOT NULL,
+    timestamp timestamp(6) with time zone NOT NULL,
+    stock varchar(10),
+    sentiment varchar(255),
+    neg_score float(53),
+    neu_score float(53),
+    pos_score float(53),
+    compound_score float(53),
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp)^;
+
+CREATE TABLE IF NOT EXISTS sentiments_default PARTITION OF sentiments DEFAULT^;
+
+CREATE INDEX IF NOT EXISTS sentiments_stock_timestamp_idx ON sentiments (stock, timestamp)^;
+
+-- lets chart clients ask which sentiments arrived since their last poll
+ALTER TABLE sentiments ADD COLUMN IF NOT EXISTS ingested_at timestamp(6) with time zone^;
+CREATE INDEX IF NOT EXISTS sentiments_stock_ingested_at_idx ON sentiments (stock, ingested_at)^;
+
+-- a scored headline is stored once: redeliveries conflict on its text hash, while different stories
+-- of a symbol stamped with the same time do not (SentimentInsertsImpl). Rows from before have no hash.
+ALTER TABLE sentiments ADD COLUMN IF NOT EXISTS headline_hash bigint^;
+CREATE UNIQUE INDEX IF NOT EXISTS sentiments_stock_headline_hash_timestamp_key
+    ON sentiments (stock, headline_hash, timestamp)^;
+
+-- articles already published to news-topic, shared by every backend instance (NewsDedupeIndex)
+CREATE TABLE IF NOT EXISTS news_seen (
+    hash bigint PRIMARY KEY,
+    stock varchar(10) NOT NULL,
+    published_at timestamp(6) with time zone NOT NULL,
+    seen_at timestamp(6) with time zone NOT NULL DEFAULT now()
+)^;
+
+CREATE INDEX IF NOT EXISTS news_seen_published_at_idx ON news_seen (published_at)^;
+
+DO $$
+DECLARE
+    day date;
+BEGIN
+    IF to_regclass('prices_legacy') IS NOT NULL THEN
+        INSERT INTO prices (id, timestamp, stock, price)
+            SELECT id, timestamp, stock, price FROM prices_legacy WHERE timestamp IS NOT NULL;
+        FOR day IN SELECT DISTINCT (timestamp AT TIME ZONE 'UTC')::date FROM prices_legacy WHERE timestamp IS NOT NULL LOOP
+            PERFORM ensure_daily_partition('prices', day);
+        END LOOP;
+        DROP TABLE prices_legacy;
+    END IF;
+    IF to_regclass('sentiments_legacy') IS NOT NULL THEN
+        INSERT INTO sentiments (id, timestamp, stock, sentiment, neg_score, neu_score, pos_score, compound_score)
+            SELECT id, timestamp, stock, sentiment, neg_score, neu_score, pos_score, compound_score
+            FROM sentiments_legacy WHERE timestamp IS NOT NULL;
+        FOR day IN SELECT DISTINCT (timestamp AT TIME ZONE 'UTC')::date FROM sentiments_legacy WHERE timestamp IS NOT NULL LOOP
+            PERFORM ensure_daily_partition('sentiments', day);
+        END LOOP;
+        DROP TABLE sentiments_legacy;
+    END IF;
+END
+$$^;
@@ -0,0 +1,71 @@
+package com.abhishek.realtimeinsighthub.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.abhishek.realtimeinsighthub.dto.AlertRuleRequest;
+import com.abhishek.realtimeinsighthub.entity.AlertRule;
+import com.abhishek.realtimeinsighthub.repo.AlertRuleRepo;
+import com.abhishek.realtimeinsighthub.service.alert.AlertEngine;
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+import com.abhishek.realtimeinsighthub.service.push.MarketUpdateDispatcher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AlertControllerTests {
+
+	private final AlertRuleRepo repo = mock(AlertRuleRepo.class);
+	private final List<AlertRule> stored = new ArrayList<>();
+	private final AlertController controller = new AlertController(
+		new AlertEngine(repo, mock(MarketUpdateDispatcher.class), new PipelineMetrics(new SimpleMeterRegistry())));
+
+	private final Principal alice = () -> "alice";
+	private final Principal bob = () -> "bob";
+
+	@BeforeEach
+	void setUp() {
+		AtomicLong ids = new AtomicLong();
+		when(repo.save(any())).thenAnswer(invocation -> {
+			AlertRule rule = invocation.getArgument(0);
+			rule.setId(ids.incrementAndGet());
+			stored.add(rule);
+			return rule;
+		});
+		when(repo.findByUserIdOrderByIdAsc(anyString())).thenAnswer(invocation -> stored.stream()
+			.filter(rule -> rule.getUserId().equals(invocation.getArgument(0)))
+			.toList());
+	}
+
+	@Test
+	void keysRulesByTheAuthenticatedCaller() {
+		AlertRule rule = controller.register(alice,
+			new AlertRuleRequest("AAPL", AlertRule.Type.PRICE, AlertRule.Direction.ABOVE, 250, null));
+
+		assertEquals("alice", rule.getUserId());
+		assertEquals(List.of(rule), controller.getRules(alice));
+		// another principal neither sees nor deletes it
+		assertEquals(List.of(), controller.getRules(bob));
+		assertEquals(HttpStatus.NOT_FOUND, controller.remove(bob, rule.getId()).getStatusCode());
+		assertEquals(HttpStatus.NO_CONTENT, controller.remove(alice, rule.getId()).getStatusCode());
+	}
+
+	@Test
+	void rejectsAnonymousCallers() {
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> controller.getRules(null));
+		assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+	}
+}
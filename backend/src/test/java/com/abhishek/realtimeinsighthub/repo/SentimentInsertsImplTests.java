@@ -0,0 +1,59 @@
+package com.abhishek.realtimeinsighthub.repo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+
+class SentimentInsertsImplTests {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final SentimentInsertsImpl inserts = new SentimentInsertsImpl(jdbcTemplate);
+
+	@Test
+	void givesIdsOnlyToTheRowsTheInsertWrote() {
+		when(jdbcTemplate.queryForList(startsWith("SELECT nextval"), eq(Long.class), any(Object[].class)))
+			.thenReturn(List.of(100L));
+		// the second row conflicts with a stored one
+		when(jdbcTemplate.queryForList(startsWith("INSERT INTO sentiments"), eq(Long.class), any(Object[].class)))
+			.thenReturn(List.of(51L, 53L));
+		List<Sentiment> rows = List.of(sentiment(1L), sentiment(2L), sentiment(3L));
+
+		inserts.insertNew(rows);
+
+		assertEquals(51L, rows.get(0).getId());
+		assertNull(rows.get(1).getId());
+		assertEquals(53L, rows.get(2).getId());
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		verify(jdbcTemplate).queryForList(sql.capture(), eq(Long.class), eq(51L), any(), eq("AAPL"), eq(1L),
+			any(), any(), any(), any(), any(), any(), eq(52L), any(), anyString(), eq(2L), any(), any(), any(), any(),
+			any(), any(), eq(53L), any(), anyString(), eq(3L), any(), any(), any(), any(), any(), any());
+		assertTrue(sql.getValue().endsWith("ON CONFLICT (stock, headline_hash, timestamp) DO NOTHING RETURNING id"));
+	}
+
+	private static Sentiment sentiment(long headlineHash) {
+		Sentiment s = new Sentiment();
+		s.setTimestamp(Instant.parse("2025-01-02T14:00:00Z"));
+		s.setStock("AAPL");
+		s.setHeadlineHash(headlineHash);
+		s.setSentiment("positive");
+		s.setCompoundScore(0.5);
+		s.setIngestedAt(Instant.now());
+		return s;
+	}
+}
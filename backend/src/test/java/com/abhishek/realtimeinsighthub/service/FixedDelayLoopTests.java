@@ -0,0 +1,43 @@
+package com.abhishek.realtimeinsighthub.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class FixedDelayLoopTests {
+
+	@Test
+	void aBlockedLoopDoesNotHoldUpAnother() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch runs = new CountDownLatch(5);
+		FixedDelayLoop slow = FixedDelayLoop.start("slow", Duration.ZERO, Duration.ofMillis(10), () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		FixedDelayLoop fast = FixedDelayLoop.start("fast", Duration.ZERO, Duration.ofMillis(10), runs::countDown);
+
+		assertTrue(runs.await(5, TimeUnit.SECONDS));
+		fast.stop();
+		release.countDown();
+		slow.stop();
+	}
+
+	@Test
+	void stopsFromInsideItsOwnTask() throws Exception {
+		CountDownLatch ran = new CountDownLatch(1);
+		FixedDelayLoop[] loop = new FixedDelayLoop[1];
+		loop[0] = FixedDelayLoop.start("self-stopping", Duration.ofMillis(50), Duration.ofMillis(10), () -> {
+			loop[0].stop();
+			ran.countDown();
+		});
+		assertTrue(ran.await(5, TimeUnit.SECONDS));
+		loop[0].stop();
+	}
+}
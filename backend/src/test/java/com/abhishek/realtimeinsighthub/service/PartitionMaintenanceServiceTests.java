@@ -0,0 +1,40 @@
+package com.abhishek.realtimeinsighthub.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class PartitionMaintenanceServiceTests {
+
+	@Test
+	void listsPartitionDaysAndDefaultPartitionDaysBeforeTheCutoff() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq("prices"), any()))
+			.thenReturn(List.of("prices_p20250101", "prices_p20250102", "prices_p20250103"));
+		when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq("sentiments"), any()))
+			.thenReturn(List.of("sentiments_p20250102", "sentiments_p20250104"));
+		// stray rows of a day that has no partition of its own
+		when(jdbcTemplate.queryForList(contains("FROM prices_default"), eq(Date.class), any()))
+			.thenReturn(List.of(Date.valueOf("2024-12-20")));
+		when(jdbcTemplate.queryForList(contains("FROM sentiments_default"), eq(Date.class), any()))
+			.thenReturn(List.of(Date.valueOf("2025-01-01")));
+
+		PartitionMaintenanceService service = new PartitionMaintenanceService(jdbcTemplate, 7);
+
+		// the cutoff falls inside 2025-01-03, which is kept
+		assertEquals(
+			List.of(LocalDate.parse("2024-12-20"), LocalDate.parse("2025-01-01"), LocalDate.parse("2025-01-02")),
+			service.partitionDaysBefore(Instant.parse("2025-01-03T12:00:00Z")));
+	}
+}
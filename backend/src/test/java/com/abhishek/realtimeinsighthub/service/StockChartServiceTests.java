@@ -0,0 +1,224 @@
+package com.abhishek.realtimeinsighthub.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.abhishek.realtimeinsighthub.dto.ChartUpdateDto;
+import com.abhishek.realtimeinsighthub.dto.PricePoint;
+import com.abhishek.realtimeinsighthub.dto.SentimentPoint;
+import com.abhishek.realtimeinsighthub.dto.StockChartDto;
+import com.abhishek.realtimeinsighthub.dto.StockPricePoint;
+import com.abhishek.realtimeinsighthub.dto.StockSentimentPoint;
+import com.abhishek.realtimeinsighthub.repo.PriceRepo;
+import com.abhishek.realtimeinsighthub.repo.SentimentRepo;
+import com.abhishek.realtimeinsighthub.service.analytics.RollingAnalytics;
+import com.abhishek.realtimeinsighthub.service.archive.TickArchive;
+import com.abhishek.realtimeinsighthub.service.live.LiveTickStore;
+import com.abhishek.realtimeinsighthub.service.rollup.RollupResolution;
+import com.abhishek.realtimeinsighthub.service.rollup.RollupService;
+
+class StockChartServiceTests {
+
+	private static final Instant T0 = Instant.parse("2025-01-02T15:00:00Z");
+
+	@Test
+	void mergesLatestSentimentAsOfEachPrice() {
+		List<PricePoint> prices = List.of(
+			new PricePoint(T0, new BigDecimal("10")),
+			new PricePoint(T0.plusSeconds(2), new BigDecimal("11")),
+			new PricePoint(T0.plusSeconds(5), new BigDecimal("12")));
+		List<SentimentPoint> sentiments = List.of(
+			new SentimentPoint(T0.plusSeconds(1), "negative", -0.4),
+			// same timestamp as the price, the first of the two applies
+			new SentimentPoint(T0.plusSeconds(2), "positive", 0.6),
+			new SentimentPoint(T0.plusSeconds(2), "neutral", 0.0),
+			new SentimentPoint(T0.plusSeconds(9), "negative", -0.8));
+
+		List<StockChartDto> chart = new ArrayList<>();
+		StockChartService.mergeAsOf(prices.iterator(), sentiments.iterator(), chart::add);
+
+		assertEquals(3, chart.size());
+		assertNull(chart.get(0).getSentiment());
+		assertEquals("positive", chart.get(1).getSentiment());
+		assertEquals(0.6, chart.get(2).getCompound());
+	}
+
+	@Test
+	void returnsSentimentsAloneWithoutPrices() {
+		List<SentimentPoint> sentiments = List.of(
+			new SentimentPoint(T0, "negative", -0.4),
+			new SentimentPoint(T0.plusSeconds(1), "positive", 0.6));
+
+		List<StockChartDto> chart = new ArrayList<>();
+		StockChartService.mergeAsOf(List.<PricePoint>of().iterator(), sentiments.iterator(), chart::add);
+
+		assertEquals(2, chart.size());
+		assertNull(chart.get(1).getPrice());
+		assertEquals("positive", chart.get(1).getSentiment());
+	}
+
+	@Test
+	void rewindsToLateSentimentsAfterTheCursor() {
+		PriceRepo priceRepo = mock(PriceRepo.class);
+		SentimentRepo sentimentRepo = mock(SentimentRepo.class);
+		StockChartService service = new StockChartService(priceRepo, sentimentRepo, new LiveTickStore(16),
+			mock(RollupService.class), mock(RollingAnalytics.class), mock(TickArchive.class), mock(PlatformTransactionManager.class), Duration.ofHours(1), 50);
+
+		// the client holds everything up to T0+5s, a headline from T0+2s has been scored since
+		Instant late = T0.plusSeconds(2);
+		when(sentimentRepo.findEarliestIngestedAfter(any(), any(), any())).thenReturn(late);
+		when(priceRepo.findPoints("AAPL", late)).thenReturn(List.of(
+			new PricePoint(T0.plusSeconds(3), new BigDecimal("11")),
+			new PricePoint(T0.plusSeconds(6), new BigDecimal("12"))));
+		when(sentimentRepo.findPoints("AAPL", late)).thenReturn(List.of(
+			new SentimentPoint(late, "positive", 0.6)));
+		when(sentimentRepo.findLatestBetween(any(), any(), any(), any(Limit.class))).thenReturn(List.of(
+			new SentimentPoint(T0, "negative", -0.4)));
+
+		ChartCursor since = new ChartCursor(T0.plusSeconds(5).toEpochMilli(), T0.plusSeconds(5).toEpochMilli());
+		ChartUpdateDto update = service.getChartUpdate("AAPL", Duration.ZERO, since);
+
+		assertEquals(2, update.getPoints().size());
+		assertEquals("positive", update.getPoints().get(0).getSentiment());
+		assertEquals(T0.plusSeconds(6).toEpochMilli(), ChartCursor.parse(update.getCursor()).timestamp());
+	}
+
+	@Test
+	void keepsLiveBuffersOnlyForSymbolsWithRowsOrConfigured() {
+		PriceRepo priceRepo = mock(PriceRepo.class);
+		LiveTickStore liveTickStore = new LiveTickStore(16, List.of("MSFT"));
+		StockChartService service = new StockChartService(priceRepo, mock(SentimentRepo.class), liveTickStore,
+			mock(RollupService.class), mock(RollingAnalytics.class), mock(TickArchive.class), mock(PlatformTransactionManager.class), Duration.ofHours(1), 50);
+		when(priceRepo.findPointsAfter(eq("AAPL"), any())).thenReturn(List.of(new PricePoint(Instant.now(), BigDecimal.TEN)));
+
+		for (String stock : List.of("AAPL", "MSFT", "NOPE")) {
+			service.getChartData(stock, Duration.ofMinutes(30));
+		}
+
+		assertEquals(Set.of("AAPL", "MSFT"), liveTickStore.buffers().keySet());
+	}
+
+	@Test
+	void rejectsMalformedCursorsAsABadRequest() {
+		assertEquals(new ChartCursor(12, 12), ChartCursor.parse("12"));
+		assertEquals(new ChartCursor(12, 7), ChartCursor.parse("12.7"));
+		for (String bad : List.of("", "abc", "12.", "12.x", "1.2.3")) {
+			ResponseStatusException rejected = assertThrows(ResponseStatusException.class, () -> ChartCursor.parse(bad));
+			assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+		}
+	}
+
+	@Test
+	void comparesSymbolsWithOneQueryPerTable() {
+		PriceRepo priceRepo = mock(PriceRepo.class);
+		SentimentRepo sentimentRepo = mock(SentimentRepo.class);
+		StockChartService service = new StockChartService(priceRepo, sentimentRepo, new LiveTickStore(16),
+			mock(RollupService.class), mock(RollingAnalytics.class), mock(TickArchive.class), mock(PlatformTransactionManager.class), Duration.ofHours(1), 50);
+
+		when(priceRepo.findPointsAfter(anyCollection(), any())).thenReturn(List.of(
+			price("AAPL", T0, "10"), price("AAPL", T0.plusSeconds(2), "11"), price("TSLA", T0.plusSeconds(1), "20")));
+		when(sentimentRepo.findPointsAfter(anyCollection(), any())).thenReturn(List.of(
+			sentiment("TSLA", T0, "positive", 0.5)));
+
+		Map<String, List<StockChartDto>> charts = service.getCompareData(List.of("TSLA", "MSFT", "AAPL"), Duration.ZERO);
+
+		assertEquals(List.of("TSLA", "MSFT", "AAPL"), List.copyOf(charts.keySet()));
+		assertEquals(2, charts.get("AAPL").size());
+		assertEquals("positive", charts.get("TSLA").get(0).getSentiment());
+		assertTrue(charts.get("MSFT").isEmpty());
+		verify(priceRepo, times(1)).findPointsAfter(anyCollection(), any());
+	}
+
+	@Test
+	void rejectsTooManySymbolsAsABadRequest() {
+		StockChartService service = new StockChartService(mock(PriceRepo.class), mock(SentimentRepo.class),
+			new LiveTickStore(16), mock(RollupService.class), mock(RollingAnalytics.class), mock(TickArchive.class),
+			mock(PlatformTransactionManager.class), Duration.ofHours(1), 2);
+
+		ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+			() -> service.getCompareData(List.of("AAPL", "TSLA", "MSFT"), Duration.ZERO));
+		assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+	}
+
+	@Test
+	void readsDaysMissingFromTheArchiveFromRollups(@TempDir Path dir) throws Exception {
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		Files.createDirectories(dir.resolve(today.minusDays(5).toString()));
+		Files.createDirectories(dir.resolve(today.minusDays(3).toString()));
+		TickArchive archive = new TickArchive(mock(DataSource.class), mock(PlatformTransactionManager.class),
+			dir.toString(), 100);
+		archive.scan();
+		RollupService rollupService = mock(RollupService.class);
+		when(rollupService.pickResolution(any())).thenReturn(Optional.of(RollupResolution.ONE_HOUR));
+		StockChartService service = new StockChartService(mock(PriceRepo.class), mock(SentimentRepo.class),
+			new LiveTickStore(16), rollupService, mock(RollingAnalytics.class), archive,
+			mock(PlatformTransactionManager.class), Duration.ofHours(1), 50);
+
+		service.getChartData("AAPL", Duration.ofDays(10));
+
+		// the day between the two archived days was never archived, its bars are still in price_rollups
+		verify(rollupService).getBars("AAPL", startOf(today.minusDays(4)), startOf(today.minusDays(3)),
+			RollupResolution.ONE_HOUR);
+		verify(rollupService).getBars(any(), any(), eq(startOf(today.minusDays(5))), eq(RollupResolution.ONE_HOUR));
+		verify(rollupService).getBars("AAPL", startOf(today.minusDays(2)), RollupResolution.ONE_HOUR);
+	}
+
+	@Test
+	void streamsOnlyRangesWithoutABoundedSource() {
+		RollupService rollupService = mock(RollupService.class);
+		when(rollupService.pickResolution(Duration.ofDays(7))).thenReturn(Optional.of(RollupResolution.FIFTEEN_MINUTES));
+		when(rollupService.pickResolution(Duration.ofHours(3))).thenReturn(Optional.empty());
+		StockChartService service = new StockChartService(mock(PriceRepo.class), mock(SentimentRepo.class),
+			new LiveTickStore(16), rollupService, mock(RollingAnalytics.class), mock(TickArchive.class),
+			mock(PlatformTransactionManager.class), Duration.ofHours(1), 50);
+
+		assertFalse(service.streamsRawTicks(Duration.ofMinutes(30)));
+		assertFalse(service.streamsRawTicks(Duration.ofDays(7)));
+		assertTrue(service.streamsRawTicks(Duration.ofHours(3)));
+		assertTrue(service.streamsRawTicks(Duration.ZERO));
+	}
+
+	private static Instant startOf(LocalDate day) {
+		return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+	}
+
+	private static StockPricePoint price(String stock, Instant timestamp, String value) {
+		return new StockPricePoint(stock, timestamp, new BigDecimal(value));
+	}
+
+	private static StockSentimentPoint sentiment(String stock, Instant timestamp, String label, double compound) {
+		return new StockSentimentPoint(stock, timestamp, label, compound);
+	}
+}
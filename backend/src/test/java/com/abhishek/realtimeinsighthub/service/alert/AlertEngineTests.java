@@ -0,0 +1,124 @@
+package com.abhishek.realtimeinsighthub.service.alert;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.abhishek.realtimeinsighthub.dto.AlertDto;
+import com.abhishek.realtimeinsighthub.dto.AlertRuleRequest;
+import com.abhishek.realtimeinsighthub.entity.AlertRule;
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.repo.AlertRuleRepo;
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+import com.abhishek.realtimeinsighthub.service.push.MarketUpdateDispatcher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AlertEngineTests {
+
+	private static final Instant T0 = Instant.parse("2025-01-02T15:00:00Z");
+
+	private final AlertRuleRepo repo = mock(AlertRuleRepo.class);
+	private final MarketUpdateDispatcher dispatcher = mock(MarketUpdateDispatcher.class);
+	private final AlertEngine engine = new AlertEngine(repo, dispatcher, new PipelineMetrics(new SimpleMeterRegistry()));
+	private final List<AlertDto> fired = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		AtomicLong ids = new AtomicLong();
+		when(repo.save(any())).thenAnswer(invocation -> {
+			AlertRule rule = invocation.getArgument(0);
+			rule.setId(ids.incrementAndGet());
+			return rule;
+		});
+		Mockito.doAnswer(invocation -> fired.add(invocation.getArgument(0))).when(dispatcher).publishAlert(any());
+	}
+
+	@Test
+	void firesPriceRulesEachTimeTheirThresholdIsCrossed() {
+		engine.register("u1", new AlertRuleRequest("AAPL", AlertRule.Type.PRICE, AlertRule.Direction.ABOVE, 250, null));
+		engine.register("u2", new AlertRuleRequest("AAPL", AlertRule.Type.PRICE, AlertRule.Direction.BELOW, 240, null));
+		// never crossed below
+		engine.register("u3", new AlertRuleRequest("AAPL", AlertRule.Type.PRICE, AlertRule.Direction.ABOVE, 900, null));
+
+		prices("249", "251", "252", "239", "251");
+
+		assertEquals(List.of("u1", "u2", "u1"), fired.stream().map(AlertDto::getUserId).toList());
+		assertEquals(251, fired.get(0).getValue());
+	}
+
+	@Test
+	void firesPercentMovesWithinTheWindowOnly() {
+		engine.register("u1", new AlertRuleRequest("TSLA", AlertRule.Type.PERCENT_MOVE, AlertRule.Direction.ABOVE, 3,
+			Duration.ofMinutes(15)));
+		engine.register("u2", new AlertRuleRequest("TSLA", AlertRule.Type.PERCENT_MOVE, AlertRule.Direction.BELOW, 3,
+			Duration.ofMinutes(15)));
+
+		engine.onPrices(List.of(price("TSLA", T0, "100"), price("TSLA", T0.plusSeconds(600), "102"),
+			price("TSLA", T0.plusSeconds(840), "103.5")));
+		assertEquals(1, fired.size());
+		assertEquals(3.5, fired.get(0).getValue(), 1e-9);
+
+		// the 100 low has left the window, 103.5 -> 100.1 is a 3.3% fall
+		engine.onPrices(List.of(price("TSLA", T0.plusSeconds(1500), "100.1")));
+		assertEquals("u2", fired.get(1).getUserId());
+	}
+
+	@Test
+	void firesSentimentRulesAndStopsAfterRemoval() {
+		AlertRule rule = engine.register("u1",
+			new AlertRuleRequest("NVDA", AlertRule.Type.SENTIMENT, AlertRule.Direction.BELOW, -0.5, null));
+		engine.onSentiments(List.of(sentiment(-0.2), sentiment(-0.6)));
+		assertEquals(1, fired.size());
+
+		engine.remove("u1", rule.getId());
+		verify(repo).deleteById(rule.getId());
+		engine.onSentiments(List.of(sentiment(0.1), sentiment(-0.7)));
+		assertEquals(1, fired.size());
+
+		ResponseStatusException rejected = assertThrows(ResponseStatusException.class, () -> engine.register("u1",
+			new AlertRuleRequest("NVDA", AlertRule.Type.SENTIMENT, AlertRule.Direction.BELOW, -2, null)));
+		assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+	}
+
+	private void prices(String... values) {
+		List<Price> prices = new ArrayList<>();
+		for (int i = 0; i < values.length; i++) {
+			prices.add(price("AAPL", T0.plusSeconds(i), values[i]));
+		}
+		engine.onPrices(prices);
+	}
+
+	private static Price price(String stock, Instant timestamp, String value) {
+		Price price = new Price();
+		price.setStock(stock);
+		price.setTimestamp(timestamp);
+		price.setPrice(new BigDecimal(value));
+		return price;
+	}
+
+	private static Sentiment sentiment(double compound) {
+		Sentiment sentiment = new Sentiment();
+		sentiment.setStock("NVDA");
+		sentiment.setTimestamp(T0);
+		sentiment.setCompoundScore(compound);
+		return sentiment;
+	}
+}
@@ -0,0 +1,62 @@
+package com.abhishek.realtimeinsighthub.service.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import com.abhishek.realtimeinsighthub.dto.AnalyticsDto;
+
+class RollingAnalyticsTests {
+
+	private static final Instant T0 = Instant.parse("2025-01-02T15:00:00Z");
+
+	@Test
+	void windowMatchesARecomputationOverTheLastSamples() {
+		RollingWindow window = new RollingWindow(50);
+		List<double[]> samples = new ArrayList<>();
+		SplittableRandom random = new SplittableRandom(7);
+		for (int i = 0; i < 1234; i++) {
+			double x = 100 + random.nextGaussian();
+			double y = 0.5 * x + random.nextGaussian();
+			window.add(x, y);
+			samples.add(new double[] { x, y });
+		}
+
+		List<double[]> last = samples.subList(samples.size() - 50, samples.size());
+		double meanX = last.stream().mapToDouble(s -> s[0]).average().orElseThrow();
+		double meanY = last.stream().mapToDouble(s -> s[1]).average().orElseThrow();
+		double sxx = last.stream().mapToDouble(s -> (s[0] - meanX) * (s[0] - meanX)).sum();
+		double syy = last.stream().mapToDouble(s -> (s[1] - meanY) * (s[1] - meanY)).sum();
+		double sxy = last.stream().mapToDouble(s -> (s[0] - meanX) * (s[1] - meanY)).sum();
+
+		assertEquals(50, window.size());
+		assertEquals(meanX, window.mean(), 1e-9);
+		assertEquals(Math.sqrt(sxx / 49), window.stddev(), 1e-9);
+		assertEquals(sxy / Math.sqrt(sxx * syy), window.correlation(), 1e-9);
+	}
+
+	@Test
+	void dropsLateTicksAndTracksTheSentimentEma() {
+		SymbolAnalytics analytics = new SymbolAnalytics(3, 3);
+		analytics.onPrice(T0, 100);
+		analytics.onPrice(T0.plusSeconds(2), 110);
+		assertFalse(analytics.onPrice(T0.plusSeconds(1), 50));
+		analytics.onSentiment(T0, 0.4);
+		analytics.onSentiment(T0.plusSeconds(3), -0.4);
+
+		AnalyticsDto dto = analytics.toDto("AAPL");
+		assertEquals(105, dto.getMovingAverage(), 1e-9);
+		// alpha 0.5
+		assertEquals(0.0, dto.getSentimentEma(), 1e-9);
+		// one return only
+		assertNull(dto.getVolatility());
+		assertEquals(T0.plusSeconds(3), dto.getTimestamp());
+	}
+}
@@ -0,0 +1,192 @@
+package com.abhishek.realtimeinsighthub.service.archive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.abhishek.realtimeinsighthub.entity.PriceRollup;
+import com.abhishek.realtimeinsighthub.service.rollup.RollupResolution;
+
+class TickArchiveTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void gorillaColumnsRoundTripAndCompressRegularTicks() {
+		Random random = new Random(7);
+		int count = 10_000;
+		long[] timestamps = new long[count];
+		double[] prices = new double[count];
+		long ts = Instant.parse("2025-01-02T00:00:00Z").toEpochMilli();
+		double price = 187.25;
+		for (int i = 0; i < count; i++) {
+			// mostly every second, with some jitter and a few gaps
+			ts += i % 100 == 0 ? 60_000 + random.nextInt(5_000) : 1_000 + (i % 10 == 0 ? random.nextInt(50) : 0);
+			timestamps[i] = ts;
+			if (i % 3 == 0) {
+				price = Math.round((price + random.nextGaussian() * 0.05) * 10_000) / 10_000.0;
+			}
+			prices[i] = price;
+		}
+
+		ByteBuffer tsColumn = GorillaCodec.encodeTimestamps(timestamps, count);
+		ByteBuffer priceColumn = GorillaCodec.encodeValues(prices, count);
+
+		assertArrayEquals(timestamps, GorillaCodec.decodeTimestamps(tsColumn, count));
+		assertArrayEquals(prices, GorillaCodec.decodeValues(priceColumn, count));
+		// raw columns would take 8 bytes per value each
+		assertTrue(tsColumn.remaining() < count, "timestamps: " + tsColumn.remaining());
+		assertTrue(priceColumn.remaining() < count * 4, "prices: " + priceColumn.remaining());
+	}
+
+	@Test
+	void valuesWithNaNAndSignChangesRoundTrip() {
+		double[] values = {0.5, -0.25, Double.NaN, 0.0, -0.0, 0.9999, 1e-9, 0.5, 0.5};
+		ByteBuffer column = GorillaCodec.encodeValues(values, values.length);
+		double[] decoded = GorillaCodec.decodeValues(column, values.length);
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(decoded[i]));
+		}
+	}
+
+	@Test
+	void readsArchivedDaysAsBars() throws Exception {
+		LocalDate day = LocalDate.parse("2025-01-02");
+		Instant start = Instant.parse("2025-01-02T14:00:00Z");
+		DayTicks ticks = new DayTicks();
+		ticks.addPrice(start.toEpochMilli(), 100.5);
+		ticks.addPrice(start.plusSeconds(1_800).toEpochMilli(), 101.25);
+		ticks.addPrice(start.plusSeconds(3_600).toEpochMilli(), 99.0);
+		ticks.addSentiment(start.plusSeconds(60).toEpochMilli(), 0.4, ArchiveFile.labelCode("positive"));
+		ticks.addSentiment(start.plusSeconds(120).toEpochMilli(), Double.NaN, ArchiveFile.labelCode(null));
+		Files.createDirectories(dir.resolve(day.toString()));
+		ArchiveFile.write(dir.resolve(day.toString()).resolve(TickArchive.fileName("BRK.B")), ticks);
+
+		DayTicks read = ArchiveFile.read(dir.resolve(day.toString()).resolve(TickArchive.fileName("BRK.B")));
+		assertEquals(3, read.priceCount);
+		assertEquals("positive", ArchiveFile.label(read.labels[0]));
+		assertEquals(null, ArchiveFile.label(read.labels[1]));
+
+		TickArchive archive = new TickArchive(mock(DataSource.class), mock(PlatformTransactionManager.class),
+			dir.toString(), 100);
+		archive.scan();
+		assertEquals(Instant.parse("2025-01-03T00:00:00Z"), archive.archivedUntil().orElseThrow());
+
+		List<PriceRollup> bars = archive.getBars("BRK.B", Instant.parse("2024-12-30T00:00:00Z"),
+			archive.archivedUntil().get(), RollupResolution.ONE_HOUR);
+		assertEquals(2, bars.size());
+		assertEquals(new BigDecimal("101.2500"), bars.get(0).getClose());
+		assertEquals(2, bars.get(0).getTickCount());
+		assertEquals(0.4, bars.get(0).getSentimentMean());
+		assertEquals(new BigDecimal("99.0000"), bars.get(1).getClose());
+		assertEquals(List.of(), archive.getBars("AAPL", start, archive.archivedUntil().get(), RollupResolution.ONE_HOUR));
+	}
+
+	@Test
+	void archivesADayFromBothTablesAndSkipsArchivedDays() throws Exception {
+		LocalDate day = LocalDate.parse("2025-01-02");
+		Instant start = Instant.parse("2025-01-02T14:00:00Z");
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		doAnswer(invocation -> {
+			String sql = invocation.getArgument(0);
+			RowCallbackHandler handler = invocation.getArgument(1);
+			List<ResultSet> rows = sql.contains("FROM sentiments")
+				? List.of(
+					row("AAPL", start.plusSeconds(30), null, 0.4, "positive"),
+					row("NVDA", start, null, null, null))
+				: List.of(
+					row("AAPL", start, "187.2500", null, null),
+					row("AAPL", start.plusSeconds(60), "187.5000", null, null),
+					row("MSFT", start, null, null, null),
+					row("MSFT", start.plusSeconds(1), "410.0000", null, null));
+			for (ResultSet rs : rows) {
+				handler.processRow(rs);
+			}
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any());
+		TickArchive archive = new TickArchive(jdbcTemplate, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+			dir.toString(), 100);
+
+		assertEquals(1, archive.archive(List.of(day)));
+
+		Path days = dir.resolve(day.toString());
+		assertFalse(Files.exists(dir.resolve(day + ".tmp")));
+		DayTicks aapl = ArchiveFile.read(days.resolve(TickArchive.fileName("AAPL")));
+		assertEquals(2, aapl.priceCount);
+		assertEquals(187.5, aapl.prices[1]);
+		assertEquals(1, aapl.sentimentCount);
+		assertEquals("positive", ArchiveFile.label(aapl.labels[0]));
+		// a null price is skipped, a null compound is kept as NaN
+		assertEquals(1, ArchiveFile.read(days.resolve(TickArchive.fileName("MSFT"))).priceCount);
+		DayTicks nvda = ArchiveFile.read(days.resolve(TickArchive.fileName("NVDA")));
+		assertEquals(0, nvda.priceCount);
+		assertTrue(Double.isNaN(nvda.compounds[0]));
+		assertEquals(Instant.parse("2025-01-03T00:00:00Z"), archive.archivedUntil().orElseThrow());
+
+		JdbcTemplate unused = mock(JdbcTemplate.class);
+		TickArchive reopened = new TickArchive(unused, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+			dir.toString(), 100);
+		reopened.scan();
+		assertEquals(0, reopened.archive(List.of(day)));
+		verify(unused, never()).query(anyString(), any(RowCallbackHandler.class), any(), any());
+	}
+
+	@Test
+	void splitsRangesIntoArchivedAndMissingDays() throws Exception {
+		Files.createDirectories(dir.resolve("2025-01-02"));
+		Files.createDirectories(dir.resolve("2025-01-03"));
+		Files.createDirectories(dir.resolve("2025-01-05"));
+		TickArchive archive = new TickArchive(mock(DataSource.class), mock(PlatformTransactionManager.class),
+			dir.toString(), 100);
+		archive.scan();
+
+		assertEquals(Instant.parse("2025-01-06T00:00:00Z"), archive.archivedUntil().orElseThrow());
+		assertEquals(List.of(
+				new TickArchive.Segment(Instant.parse("2025-01-01T12:00:00Z"), Instant.parse("2025-01-02T00:00:00Z"), false),
+				new TickArchive.Segment(Instant.parse("2025-01-02T00:00:00Z"), Instant.parse("2025-01-04T00:00:00Z"), true),
+				new TickArchive.Segment(Instant.parse("2025-01-04T00:00:00Z"), Instant.parse("2025-01-05T00:00:00Z"), false),
+				new TickArchive.Segment(Instant.parse("2025-01-05T00:00:00Z"), Instant.parse("2025-01-06T00:00:00Z"), true)),
+			archive.segments(Instant.parse("2025-01-01T12:00:00Z"), archive.archivedUntil().get()));
+	}
+
+	private static ResultSet row(String stock, Instant timestamp, String price, Double compound, String label)
+		throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getString(1)).thenReturn(stock);
+		when(rs.getTimestamp(2)).thenReturn(Timestamp.from(timestamp));
+		when(rs.getBigDecimal(3)).thenReturn(price == null ? null : new BigDecimal(price));
+		when(rs.getString(3)).thenReturn(label);
+		when(rs.getDouble(4)).thenReturn(compound == null ? 0.0 : compound);
+		when(rs.wasNull()).thenReturn(compound == null);
+		return rs;
+	}
+}
@@ -0,0 +1,59 @@
+package com.abhishek.realtimeinsighthub.service.backfill;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.service.backfill.BackfillFiles.Headline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class BackfillFilesTests {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void readsTicksByHeaderName() throws Exception {
+		Path csv = Files.writeString(dir.resolve("ticks.csv"),
+			"stock,timestamp,price\nAAPL,2025-01-02T15:00:00Z,101.25\n\nTSLA,1735830000000,250\n");
+
+		try (Stream<Price> ticks = BackfillFiles.ticks(csv, mapper)) {
+			List<Price> prices = ticks.toList();
+			assertEquals(2, prices.size());
+			assertEquals(new BigDecimal("101.25"), prices.get(0).getPrice());
+			assertEquals(Instant.ofEpochMilli(1735830000000L), prices.get(1).getTimestamp());
+			assertEquals("TSLA", prices.get(1).getStock());
+		}
+	}
+
+	@Test
+	void readsQuotedCsvAndNdjsonHeadlines() throws Exception {
+		Path csv = Files.writeString(dir.resolve("news.csv"),
+			"timestamp,stock,headline,compound\n2025-01-02T15:00:00Z,AAPL,\"Apple, \"\"again\"\" beats\",0.6\n");
+		Path ndjson = Files.writeString(dir.resolve("news.ndjson"),
+			"{\"timestamp\":\"2025-01-02T15:00:00Z\",\"stock\":\"AAPL\",\"headline\":\"Apple slips\"}\n");
+
+		try (Stream<Headline> headlines = BackfillFiles.headlines(csv, mapper)) {
+			Headline headline = headlines.findFirst().orElseThrow();
+			assertEquals("Apple, \"again\" beats", headline.news().getNewsData());
+			assertEquals(0.6, headline.scores().get("compound"));
+		}
+		try (Stream<Headline> headlines = BackfillFiles.headlines(ndjson, mapper)) {
+			Headline headline = headlines.findFirst().orElseThrow();
+			assertEquals("Apple slips", headline.news().getNewsData());
+			assertNull(headline.scores());
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.abhishek.realtimeinsighthub.service.backfill;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import com.abhishek.realtimeinsighthub.service.PartitionMaintenanceService;
+import com.abhishek.realtimeinsighthub.service.cache.ChartResponseCache;
+import com.abhishek.realtimeinsighthub.service.rollup.RollupService;
+import com.abhishek.realtimeinsighthub.service.sentiment.SentimentCache;
+import com.abhishek.realtimeinsighthub.service.sentiment.SentimentScorer;
+import com.abhishek.realtimeinsighthub.service.wire.MarketDataCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class BackfillServiceTests {
+
+	private final DataSource dataSource = mock(DataSource.class);
+	private final RollupService rollupService = mock(RollupService.class);
+	private final ChartResponseCache chartResponseCache = mock(ChartResponseCache.class);
+	private final KafkaListenerEndpointRegistry listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+	private final MessageListenerContainer running = mock(MessageListenerContainer.class);
+	private final MessageListenerContainer idle = mock(MessageListenerContainer.class);
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void rebuildsTheLoadedRangeOnItsOwnThreadWhileTheListenersAreStopped() throws Exception {
+		Path csv = Files.writeString(dir.resolve("ticks.csv"),
+			"stock,timestamp,price\nAAPL,2025-01-02T15:00:00Z,101.25\nAAPL,2025-01-02T15:05:00Z,102\n");
+		acceptCopies();
+		when(running.isRunning()).thenReturn(true);
+		when(listenerRegistry.getListenerContainers()).thenReturn(List.of(running, idle));
+		List<String> threads = new ArrayList<>();
+		doAnswer(invocation -> threads.add(Thread.currentThread().getName()))
+			.when(rollupService).backfill(any(Instant.class), any(Instant.class));
+
+		service(csv.toString()).backfillOnStartup();
+
+		verify(chartResponseCache, timeout(5_000)).invalidate(Set.of("AAPL"));
+		verify(running, timeout(5_000)).start();
+		assertEquals(List.of("backfill"), threads);
+		InOrder order = inOrder(running, rollupService);
+		order.verify(running).stop();
+		order.verify(rollupService).backfill(Instant.parse("2025-01-02T15:00:00Z"),
+			Instant.parse("2025-01-02T15:05:00.001Z"));
+		order.verify(running).start();
+		// a container that was not running is left alone
+		verify(idle, never()).stop();
+		verify(idle, never()).start();
+	}
+
+	private void acceptCopies() throws Exception {
+		Connection connection = mock(Connection.class);
+		PGConnection pgConnection = mock(PGConnection.class);
+		CopyManager copyManager = mock(CopyManager.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		ResultSet ids = mock(ResultSet.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+		when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+		when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+		when(copyManager.copyIn(anyString())).thenReturn(mock(CopyIn.class));
+		when(connection.prepareStatement(any())).thenReturn(statement);
+		when(statement.executeQuery()).thenReturn(ids);
+		when(ids.next()).thenReturn(true, false);
+		when(ids.getLong(1)).thenReturn(50L);
+	}
+
+	@SuppressWarnings("unchecked")
+	private BackfillService service(String pricesFile) {
+		return new BackfillService(dataSource, mock(PartitionMaintenanceService.class), rollupService,
+			chartResponseCache, mock(SentimentCache.class), mock(SentimentScorer.class), mock(KafkaTemplate.class),
+			listenerRegistry, mock(MarketDataCodec.class), new ObjectMapper(), pricesFile, "", 50_000, 0);
+	}
+}
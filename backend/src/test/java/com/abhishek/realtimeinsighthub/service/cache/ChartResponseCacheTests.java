@@ -0,0 +1,99 @@
+package com.abhishek.realtimeinsighthub.service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ChartResponseCacheTests {
+
+	private final ChartResponseCache cache =
+		new ChartResponseCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+
+	@Test
+	void rendersOncePerSymbolVersion() {
+		AtomicInteger renders = new AtomicInteger();
+		CachedChart first = cache.get("AAPL", "live", () -> body("[" + renders.incrementAndGet() + "]"));
+		CachedChart second = cache.get("AAPL", "live", () -> body("[" + renders.incrementAndGet() + "]"));
+
+		assertSame(first, second);
+		assertEquals(1, renders.get());
+
+		// another symbol's write leaves the entry alone
+		cache.invalidate(List.of("TSLA"));
+		assertSame(first, cache.get("AAPL", "live", () -> body("[" + renders.incrementAndGet() + "]")));
+
+		cache.invalidate(List.of("AAPL"));
+		CachedChart third = cache.get("AAPL", "live", () -> body("[" + renders.incrementAndGet() + "]"));
+		assertEquals(2, renders.get());
+		assertNotEquals(first.etag(), third.etag());
+	}
+
+	@Test
+	void readsDoNotTrackSymbols() {
+		cache.get("NOPE", "live", () -> body("[]"));
+		assertEquals(Map.of(), ReflectionTestUtils.getField(cache, "versions"));
+
+		cache.invalidate(List.of("AAPL"));
+		assertEquals(Set.of("AAPL"), ((Map<?, ?>) ReflectionTestUtils.getField(cache, "versions")).keySet());
+	}
+
+	@Test
+	void sameBytesKeepTheSameEtag() {
+		CachedChart first = cache.get("AAPL", "7d", () -> body("[]"));
+		cache.invalidate(List.of("AAPL"));
+		CachedChart second = cache.get("AAPL", "7d", () -> body("[]"));
+
+		assertNotEquals(first.version(), second.version());
+		assertEquals(first.etag(), second.etag());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void concurrentMissesRenderOnce() throws Exception {
+		AtomicInteger renders = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<CachedChart>> results;
+		try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+			results = IntStream.range(0, 50)
+				.mapToObj(i -> requests.submit(() -> cache.get("AAPL", "live", () -> {
+					renders.incrementAndGet();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return body("[]");
+				})))
+				.toList();
+			Thread.sleep(100);
+			release.countDown();
+		}
+
+		assertEquals(1, renders.get());
+		for (Future<CachedChart> result : results) {
+			assertSame(results.get(0).get(), result.get());
+		}
+	}
+
+	private static byte[] body(String json) {
+		return json.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,275 @@
+package com.abhishek.realtimeinsighthub.service.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.SentimentDataDto;
+import com.abhishek.realtimeinsighthub.dto.SentimentResponseDto;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.repo.SentimentRepo;
+import com.abhishek.realtimeinsighthub.service.cache.ChartResponseCache;
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+import com.abhishek.realtimeinsighthub.service.push.MarketUpdateDispatcher;
+import com.abhishek.realtimeinsighthub.service.sentiment.SentimentCache;
+import com.abhishek.realtimeinsighthub.service.sentiment.SentimentScorer;
+import com.abhishek.realtimeinsighthub.service.wire.MarketDataCodec;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class SentimentDataConsumerTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final SentimentRepo sentimentRepo = mock(SentimentRepo.class);
+	private final KafkaListenerEndpointRegistry listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+	private final MarketDataCodec codec = mock(MarketDataCodec.class);
+	private final MarketUpdateDispatcher dispatcher = mock(MarketUpdateDispatcher.class);
+
+	private final SentimentScorer scorer = batch -> Mono.just(batch.stream()
+		.map(n -> new SentimentResponseDto(n.getTimestamp(), n.getStock(), "positive", Map.of("compound", 0.5)))
+		.toList());
+
+	private SentimentDataConsumer consumer;
+
+	@AfterEach
+	void stop() throws Exception {
+		if (consumer != null) {
+			consumer.stop();
+		}
+	}
+
+	@Test
+	void stampsIngestedAtWhenADelayedWriteIsStored() throws Exception {
+		List<Instant> attempts = new ArrayList<>();
+		List<Sentiment> saved = new ArrayList<>();
+		doAnswer(invocation -> {
+			attempts.add(Instant.now());
+			if (attempts.size() == 1) {
+				throw new TransientDataAccessResourceException("connection refused");
+			}
+			return insertNew(saved, invocation.getArgument(0));
+		}).when(sentimentRepo).insertNew(anyList());
+		consumer = consumer(new WriteBehindWriters(new PipelineMetrics(registry), true, 16, 100,
+			Duration.ofMillis(300), Duration.ofMillis(300)), 100);
+		consumer.start();
+
+		Acknowledgment ack = mock(Acknowledgment.class);
+		consumer.consume(record(new NewsDataDto(Instant.parse("2025-01-02T14:00:00Z"), "AAPL", "Apple beats")), ack);
+
+		// pushed before it is stored, acknowledged only after the retry succeeded
+		verify(dispatcher, timeout(5_000)).publishSentiment(any());
+		verify(ack, timeout(5_000)).acknowledge();
+		assertEquals(2, attempts.size());
+		assertEquals(1, saved.size());
+		// stamped by the write that stored it, after the backoff, not when it was scored
+		assertTrue(saved.get(0).getIngestedAt().isAfter(attempts.get(0).plusMillis(250)));
+	}
+
+	@Test
+	void pausesTheListenerAtTheHighWatermarkAndResumesItAtTheLowOne() throws Exception {
+		MessageListenerContainer container = container();
+		consumer = consumer(writers(), 8);
+
+		// not started yet, so nothing drains the queue
+		for (int i = 0; i < 5; i++) {
+			consumer.consume(record(headline(i)), mock(Acknowledgment.class));
+		}
+		verify(container, never()).pause();
+		consumer.consume(record(headline(5)), mock(Acknowledgment.class));
+		verify(container).pause();
+
+		consumer.start();
+		verify(container, timeout(5_000)).resume();
+		verify(container).pause();
+	}
+
+	@Test
+	void retriesAFailingScorerUntilItRecovers() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		consumer = consumer(writers(), 100, batch -> {
+			// down for two attempts, one of them throwing instead of returning an error
+			int call = calls.incrementAndGet();
+			if (call == 1) throw new IllegalStateException("scorer down");
+			if (call == 2) return Mono.error(new IllegalStateException("scorer down"));
+			return scorer.score(batch);
+		});
+		List<Sentiment> saved = storeInto();
+		consumer.start();
+
+		Acknowledgment ack = mock(Acknowledgment.class);
+		consumer.consume(record(headline(0)), ack);
+
+		// acknowledged only once the headline is stored
+		verify(ack, timeout(5_000)).acknowledge();
+		assertEquals(3, calls.get());
+		assertEquals(1, saved.size());
+	}
+
+	@Test
+	void givesThePermitBackWhenPersistingIsRejected() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		consumer = consumer(writers(), 100, batch -> {
+			calls.incrementAndGet();
+			return scorer.score(batch);
+		});
+		ExecutorService shutDown = Executors.newSingleThreadExecutor();
+		shutDown.shutdown();
+		ReflectionTestUtils.setField(consumer, "persistExecutor", shutDown);
+		consumer.start();
+
+		// more batches than permits, none of them acknowledged so Kafka delivers them again
+		List<Acknowledgment> acks = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			int expected = i + 1;
+			acks.add(mock(Acknowledgment.class));
+			consumer.consume(record(headline(i)), acks.get(i));
+			await(() -> calls.get() == expected);
+		}
+		acks.forEach(ack -> verify(ack, never()).acknowledge());
+	}
+
+	@Test
+	void storesDifferentHeadlinesWithTheSameTimestampAndSkipsRedeliveries() throws Exception {
+		List<Sentiment> saved = storeInto();
+		consumer = consumer(writers(), 100);
+		consumer.start();
+
+		Instant now = Instant.parse("2025-01-02T14:00:00Z");
+		List<NewsDataDto> headlines = List.of(new NewsDataDto(now, "AAPL", "Apple beats"),
+			new NewsDataDto(now, "AAPL", "Apple slips"), new NewsDataDto(now, "AAPL", "Apple beats"));
+		// one batch each, the last one a redelivery of the first
+		for (NewsDataDto headline : headlines) {
+			Acknowledgment ack = mock(Acknowledgment.class);
+			consumer.consume(record(headline), ack);
+			verify(ack, timeout(5_000)).acknowledge();
+		}
+
+		assertEquals(2, saved.size());
+		assertNotEquals(saved.get(0).getHeadlineHash(), saved.get(1).getHeadlineHash());
+	}
+
+	@Test
+	void publishesMergedHeadlinesWithTheirEarliestFetch() throws Exception {
+		storeInto();
+		consumer = consumer(writers(), 100);
+		Instant now = Instant.parse("2025-01-02T14:00:00Z");
+		Instant fetched = Instant.now();
+
+		// both land in one batch and are scored as one headline
+		consumer.consume(record(new NewsDataDto(now, "AAPL", "Apple slips"), fetched.plusSeconds(1)), mock(Acknowledgment.class));
+		consumer.consume(record(new NewsDataDto(now, "AAPL", "Apple beats"), fetched), mock(Acknowledgment.class));
+		consumer.start();
+
+		ArgumentCaptor<SentimentDataDto> published = ArgumentCaptor.forClass(SentimentDataDto.class);
+		verify(dispatcher, timeout(5_000)).publishSentiment(published.capture());
+		assertEquals(fetched, published.getValue().getFetchedAt());
+	}
+
+	// stores into the returned list what the unique index on (stock, headline_hash, timestamp) lets through
+	private List<Sentiment> storeInto() {
+		List<Sentiment> saved = new ArrayList<>();
+		doAnswer(invocation -> insertNew(saved, invocation.getArgument(0))).when(sentimentRepo).insertNew(anyList());
+		return saved;
+	}
+
+	private static synchronized Object insertNew(List<Sentiment> saved, List<Sentiment> rows) {
+		for (Sentiment row : rows) {
+			boolean conflict = saved.stream().anyMatch(s -> s.getStock().equals(row.getStock())
+				&& s.getHeadlineHash().equals(row.getHeadlineHash()) && s.getTimestamp().equals(row.getTimestamp()));
+			row.setId(conflict ? null : (long) saved.size() + 1);
+			if (!conflict) {
+				saved.add(row);
+			}
+		}
+		return null;
+	}
+
+	private MessageListenerContainer container() {
+		MessageListenerContainer container = mock(MessageListenerContainer.class);
+		AtomicBoolean paused = new AtomicBoolean();
+		when(container.isPauseRequested()).thenAnswer(invocation -> paused.get());
+		doAnswer(invocation -> {
+			paused.set(true);
+			return null;
+		}).when(container).pause();
+		doAnswer(invocation -> {
+			paused.set(false);
+			return null;
+		}).when(container).resume();
+		when(listenerRegistry.getListenerContainer("sentiment-consumer")).thenReturn(container);
+		return container;
+	}
+
+	private WriteBehindWriters writers() {
+		return new WriteBehindWriters(new PipelineMetrics(registry), true, 16, 100,
+			Duration.ofMillis(300), Duration.ofMillis(300));
+	}
+
+	private static NewsDataDto headline(int i) {
+		return new NewsDataDto(Instant.parse("2025-01-02T14:00:00Z").plusSeconds(i), "AAPL", "Apple headline " + i);
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+			Thread.sleep(10);
+		}
+	}
+
+	private SentimentDataConsumer consumer(WriteBehindWriters writers, int queueCapacity) {
+		return consumer(writers, queueCapacity, scorer);
+	}
+
+	private SentimentDataConsumer consumer(WriteBehindWriters writers, int queueCapacity, SentimentScorer scorer) {
+		SentimentDataConsumer consumer = new SentimentDataConsumer(sentimentRepo, List.of(), listenerRegistry, scorer,
+			new SentimentCache(registry, 100, Duration.ofHours(1)), codec, new PipelineMetrics(registry),
+			mock(ChartResponseCache.class), writers, 10, 2, queueCapacity, Duration.ofMillis(20), Duration.ofSeconds(5),
+			Duration.ofMillis(10), Duration.ofMillis(50));
+		ReflectionTestUtils.setField(consumer, "marketUpdateDispatcher", dispatcher);
+		return consumer;
+	}
+
+	private ConsumerRecord<String, byte[]> record(NewsDataDto headline) throws Exception {
+		return record(headline, Instant.now());
+	}
+
+	private ConsumerRecord<String, byte[]> record(NewsDataDto headline, Instant fetchedAt) throws Exception {
+		ConsumerRecord<String, byte[]> record = new ConsumerRecord<>("news-topic", 0, 0, headline.getStock(), new byte[0]);
+		when(codec.decodeNews(record)).thenReturn(headline);
+		when(codec.fetchedAt(record)).thenReturn(fetchedAt);
+		return record;
+	}
+}
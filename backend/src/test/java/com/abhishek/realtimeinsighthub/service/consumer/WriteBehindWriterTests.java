@@ -0,0 +1,120 @@
+package com.abhishek.realtimeinsighthub.service.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WriteBehindWriterTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private WriteBehindWriter<Integer> writer(Consumer<List<Integer>> store, int maxRows) {
+		return new WriteBehindWriter<>("stock", store, new PipelineMetrics(registry), 16, maxRows,
+			Duration.ofMillis(1), Duration.ofMillis(5));
+	}
+
+	@Test
+	void joinsQueuedBatchesAndRunsCallbacksInOrder() throws Exception {
+		List<List<Integer>> writes = Collections.synchronizedList(new ArrayList<>());
+		List<Integer> acked = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		WriteBehindWriter<Integer> writer = writer(rows -> {
+			writes.add(List.copyOf(rows));
+			if (writes.size() == 1) {
+				blocked.countDown();
+				await(release);
+			}
+		}, 4);
+		writer.start();
+
+		writer.submit(List.of(1), () -> acked.add(1));
+		assertTrue(blocked.await(5, TimeUnit.SECONDS));
+		// queued while the first write is running
+		writer.submit(List.of(2, 3), () -> acked.add(2));
+		writer.submit(List.of(4), () -> acked.add(3));
+		writer.submit(List.of(5, 6), () -> acked.add(4));
+		assertEquals(3, writer.backlog());
+		release.countDown();
+		writer.stop(Duration.ofSeconds(5));
+
+		assertEquals(List.of(List.of(1), List.of(2, 3, 4), List.of(5, 6)), writes);
+		assertEquals(List.of(1, 2, 3, 4), acked);
+		assertEquals(0.0, registry.get("writebehind.backlog").gauge().value());
+		assertEquals(4, registry.get("writebehind.lag").timer().count());
+	}
+
+	@Test
+	void retriesUntilStoredBeforeCallingBack() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		List<String> events = Collections.synchronizedList(new ArrayList<>());
+		WriteBehindWriter<Integer> writer = writer(rows -> {
+			if (attempts.incrementAndGet() < 4) {
+				throw new TransientDataAccessResourceException("connection refused");
+			}
+			events.add("stored");
+		}, 100);
+		writer.start();
+
+		writer.submit(List.of(1, 2), () -> events.add("acked"));
+		writer.stop(Duration.ofSeconds(5));
+
+		assertEquals(4, attempts.get());
+		assertEquals(List.of("stored", "acked"), events);
+		assertEquals(3.0, registry.get("writebehind.retries").counter().count());
+	}
+
+	@Test
+	void dropsOnlyTheBatchTheDatabaseRejects() throws Exception {
+		List<List<Integer>> stored = Collections.synchronizedList(new ArrayList<>());
+		List<Integer> acked = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		WriteBehindWriter<Integer> writer = writer(rows -> {
+			if (rows.equals(List.of(0))) {
+				blocked.countDown();
+				await(release);
+			} else if (rows.contains(-1)) {
+				throw new DataIntegrityViolationException("value too long");
+			}
+			stored.add(List.copyOf(rows));
+		}, 100);
+		writer.start();
+
+		writer.submit(List.of(0), () -> acked.add(0));
+		assertTrue(blocked.await(5, TimeUnit.SECONDS));
+		writer.submit(List.of(1), () -> acked.add(1));
+		writer.submit(List.of(-1), () -> acked.add(2));
+		writer.submit(List.of(3), () -> acked.add(3));
+		release.countDown();
+		writer.stop(Duration.ofSeconds(5));
+
+		assertEquals(List.of(List.of(0), List.of(1), List.of(3)), stored);
+		// a rejected batch is acknowledged too, redelivering it would fail the same way
+		assertEquals(List.of(0, 1, 2, 3), acked);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.abhishek.realtimeinsighthub.service.live;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.abhishek.realtimeinsighthub.dto.MarketSnapshotDto;
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+
+class MarketSnapshotStoreTests {
+
+	// 10:00 and 15:00 New York time on consecutive trading days
+	private static final Instant DAY1 = Instant.parse("2025-01-02T15:00:00Z");
+	private static final Instant DAY2 = Instant.parse("2025-01-03T20:00:00Z");
+
+	private final MarketSnapshotStore store = new MarketSnapshotStore(mock(JdbcTemplate.class), List.of("AAPL", "TSLA"));
+
+	@Test
+	void previousCloseIsTheLastPriceOfTheDayBefore() {
+		store.onPrices(List.of(price(DAY1, "100"), price(DAY1.plusSeconds(60), "104")));
+		assertNull(store.snapshot().get(0).getChange());
+
+		store.onPrices(List.of(price(DAY2, "110"), price(DAY2.plusSeconds(1), "106")));
+		// a late tick from the first day changes nothing
+		store.onPrices(List.of(price(DAY1.plusSeconds(120), "90")));
+
+		MarketSnapshotDto aapl = store.snapshot().get(0);
+		assertEquals(new BigDecimal("106"), aapl.getPrice());
+		assertEquals(new BigDecimal("104"), aapl.getPreviousClose());
+		assertEquals(new BigDecimal("2"), aapl.getChange());
+		assertEquals(1.9231, aapl.getChangePercent());
+	}
+
+	@Test
+	void listsConfiguredSymbolsFirstAndKeepsTheNewestSentiment() {
+		Sentiment newer = sentiment(DAY2, "positive", 0.7);
+		store.onSentiments(List.of(sentiment(DAY1, "negative", -0.5), newer));
+		store.onSentiments(List.of(sentiment(DAY1.plusSeconds(1), "neutral", 0.0)));
+		Price other = price(DAY1, "5");
+		other.setStock("AMD");
+		store.onPrices(List.of(other));
+
+		List<MarketSnapshotDto> snapshot = store.snapshot();
+		assertEquals(List.of("AAPL", "TSLA", "AMD"), snapshot.stream().map(MarketSnapshotDto::getStock).toList());
+		assertEquals("positive", snapshot.get(0).getSentiment());
+		assertNull(snapshot.get(1).getPrice());
+	}
+
+	private static Price price(Instant timestamp, String value) {
+		Price price = new Price();
+		price.setStock("AAPL");
+		price.setTimestamp(timestamp);
+		price.setPrice(new BigDecimal(value));
+		return price;
+	}
+
+	private static Sentiment sentiment(Instant timestamp, String label, double compound) {
+		Sentiment sentiment = new Sentiment();
+		sentiment.setStock("AAPL");
+		sentiment.setTimestamp(timestamp);
+		sentiment.setSentiment(label);
+		sentiment.setCompoundScore(compound);
+		return sentiment;
+	}
+}
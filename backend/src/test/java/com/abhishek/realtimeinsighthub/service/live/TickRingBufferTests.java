@@ -0,0 +1,61 @@
+package com.abhishek.realtimeinsighthub.service.live;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.abhishek.realtimeinsighthub.dto.StockChartDto;
+
+class TickRingBufferTests {
+
+	@Test
+	void mergesLatestSentimentAsOfEachPrice() {
+		TickRingBuffer buffer = new TickRingBuffer(8, 0);
+		buffer.appendPrice(1_000, new BigDecimal("10.5"));
+		buffer.appendPrice(3_000, new BigDecimal("11"));
+		buffer.appendSentiment(2_000, "positive", 0.6);
+		// late price lands in order
+		buffer.appendPrice(2_500, new BigDecimal("10.75"));
+
+		List<StockChartDto> chart = buffer.chartSince(0);
+
+		assertEquals(3, chart.size());
+		assertNull(chart.get(0).getSentiment());
+		assertEquals(new BigDecimal("10.7500"), chart.get(1).getPrice());
+		assertEquals("positive", chart.get(1).getSentiment());
+		assertEquals(0.6, chart.get(2).getCompound());
+	}
+
+	@Test
+	void returnsSentimentOnlyWhenNoPricesInWindow() {
+		TickRingBuffer buffer = new TickRingBuffer(8, 0);
+		buffer.appendPrice(1_000, new BigDecimal("10"));
+		buffer.appendSentiment(2_000, "negative", -0.4);
+
+		List<StockChartDto> chart = buffer.chartSince(1_500);
+
+		assertEquals(1, chart.size());
+		assertNull(chart.get(0).getPrice());
+		assertEquals("negative", chart.get(0).getSentiment());
+	}
+
+	@Test
+	void evictionNarrowsCoveredWindow() {
+		TickRingBuffer buffer = new TickRingBuffer(2, 0);
+		buffer.appendPrice(1_000, BigDecimal.ONE);
+		buffer.appendPrice(2_000, BigDecimal.ONE);
+		assertTrue(buffer.covers(0));
+
+		buffer.appendPrice(3_000, BigDecimal.ONE);
+
+		assertFalse(buffer.covers(500));
+		assertTrue(buffer.covers(1_000));
+		assertEquals(2, buffer.chartSince(0).size());
+	}
+}
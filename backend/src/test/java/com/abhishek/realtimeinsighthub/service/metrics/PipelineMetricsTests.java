@@ -0,0 +1,29 @@
+package com.abhishek.realtimeinsighthub.service.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PipelineMetricsTests {
+
+	@Test
+	void tagsOnlyAllowedSymbols() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		PipelineMetrics metrics = new PipelineMetrics(registry, List.of("AAPL"));
+
+		metrics.stage(PipelineMetrics.STOCK, PipelineMetrics.CONSUMED, "AAPL", null);
+		for (int i = 0; i < 100; i++) {
+			metrics.stage(PipelineMetrics.STOCK, PipelineMetrics.CONSUMED, "SIM" + i, null);
+		}
+		metrics.fetchFailed(PipelineMetrics.NEWS, "SIM7");
+
+		assertEquals(2, registry.find("pipeline.messages").counters().size());
+		assertEquals(1.0, registry.get("pipeline.messages").tag("symbol", "AAPL").counter().count());
+		assertEquals(100.0, registry.get("pipeline.messages").tag("symbol", "other").counter().count());
+		assertEquals(1.0, registry.get("pipeline.fetch.failures").tag("symbol", "other").counter().count());
+	}
+}
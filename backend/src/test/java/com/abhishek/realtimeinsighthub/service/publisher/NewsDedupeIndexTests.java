@@ -0,0 +1,64 @@
+package com.abhishek.realtimeinsighthub.service.publisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NewsDedupeIndexTests {
+
+	@Test
+	void bloomFilterHasNoFalseNegativesAndBoundedFalsePositives() {
+		BloomFilter filter = new BloomFilter(100_000, 0.001);
+		LongStream.range(0, 100_000).map(i -> NewsDedupeIndex.key("AAPL", "story-" + i)).forEach(filter::put);
+
+		assertTrue(LongStream.range(0, 100_000)
+			.allMatch(i -> filter.mightContain(NewsDedupeIndex.key("AAPL", "story-" + i))));
+		long falsePositives = LongStream.range(0, 100_000)
+			.filter(i -> filter.mightContain(NewsDedupeIndex.key("TSLA", "story-" + i)))
+			.count();
+		// 0.1% expected
+		assertTrue(falsePositives < 300, falsePositives + " false positives");
+	}
+
+	@Test
+	void onlyUnseenArticlesReachTheTable() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		NewsDedupeIndex index = new NewsDedupeIndex(jdbcTemplate, new PipelineMetrics(new SimpleMeterRegistry()),
+			1000, 0.0001, Duration.ofDays(30));
+		long a = NewsDedupeIndex.key("AAPL", "a");
+		long b = NewsDedupeIndex.key("AAPL", "b");
+		Map<Long, Instant> articles = new LinkedHashMap<>();
+		articles.put(a, Instant.now());
+		articles.put(b, Instant.now());
+		// another instance already published b
+		when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(a));
+
+		assertEquals(Set.of(a), index.claim("AAPL", articles));
+		index.published(a);
+
+		// both are known now, the second fetch never queries
+		assertEquals(Set.of(), index.claim("AAPL", articles));
+		verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), any(Object[].class));
+	}
+}
@@ -0,0 +1,140 @@
+package com.abhishek.realtimeinsighthub.service.publisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+import com.abhishek.realtimeinsighthub.service.wire.MarketDataCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+class StockDataServiceTests {
+
+	private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(200);
+
+	private HttpServer server;
+	private ConnectionProvider connectionProvider;
+	private final AtomicInteger requests = new AtomicInteger();
+
+	@BeforeEach
+	void startStub() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/quote", exchange -> {
+			requests.incrementAndGet();
+			try {
+				Thread.sleep(UPSTREAM_LATENCY.toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			String quote = exchange.getRequestURI().getQuery().contains("symbol=FAIL") ? null : "\"c\": 123.45";
+			byte[] body = ("{" + (quote != null ? quote : "") + "}").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+		connectionProvider = ConnectionProvider.create("test", 32);
+	}
+
+	@AfterEach
+	void stopStub() {
+		server.stop(0);
+		connectionProvider.dispose();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void fansOutWithBoundedConcurrency() {
+		KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+		when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+		List<String> symbols = IntStream.range(0, 40).mapToObj(i -> "SYM" + i).toList();
+		StockDataService service = new StockDataService(kafkaTemplate, "key", codec(), metrics(),
+			HttpClient.create(connectionProvider), "http://localhost:" + server.getAddress().getPort(),
+			symbols, 20, Duration.ofSeconds(5));
+
+		long start = System.nanoTime();
+		service.fetchAndPublishData();
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+		assertEquals(40, requests.get());
+		verify(kafkaTemplate, times(40)).send(argThat((ProducerRecord<String, byte[]> r) -> r.topic().equals("stock-topic")));
+		// two rounds of 20 plus client warm-up, a serial loop would take 8s
+		assertTrue(elapsed.compareTo(UPSTREAM_LATENCY.multipliedBy(20)) < 0, "cycle took " + elapsed);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void skipsSymbolsWithoutQuoteOrOverTimeout() {
+		KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+		when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+		StockDataService service = new StockDataService(kafkaTemplate, "key", codec(), metrics(),
+			HttpClient.create(connectionProvider), "http://localhost:" + server.getAddress().getPort(),
+			List.of("AAPL", "FAIL"), 4, Duration.ofSeconds(5));
+		service.fetchAndPublishData();
+		verify(kafkaTemplate, times(1)).send(argThat((ProducerRecord<String, byte[]> r) -> r.topic().equals("stock-topic")));
+
+		StockDataService slow = new StockDataService(kafkaTemplate, "key", codec(), metrics(),
+			HttpClient.create(connectionProvider), "http://localhost:" + server.getAddress().getPort(),
+			List.of("AAPL"), 4, Duration.ofMillis(50));
+		slow.fetchAndPublishData();
+		verify(kafkaTemplate, times(1)).send(argThat((ProducerRecord<String, byte[]> r) -> r.topic().equals("stock-topic")));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void publishesOffTheEventLoop() {
+		KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+		List<String> threads = new CopyOnWriteArrayList<>();
+		when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+			threads.add(Thread.currentThread().getName());
+			return CompletableFuture.completedFuture(null);
+		});
+
+		StockDataService service = new StockDataService(kafkaTemplate, "key", codec(), metrics(),
+			HttpClient.create(connectionProvider), "http://localhost:" + server.getAddress().getPort(),
+			List.of("AAPL", "MSFT"), 4, Duration.ofSeconds(5));
+		service.fetchAndPublishData();
+
+		assertEquals(2, threads.size());
+		assertTrue(threads.stream().allMatch(name -> name.startsWith("boundedElastic")), "sent on " + threads);
+	}
+
+	private static MarketDataCodec codec() {
+		return new MarketDataCodec(new ObjectMapper().findAndRegisterModules(), List.of("AAPL"), "binary");
+	}
+
+	private static PipelineMetrics metrics() {
+		return new PipelineMetrics(new SimpleMeterRegistry());
+	}
+}
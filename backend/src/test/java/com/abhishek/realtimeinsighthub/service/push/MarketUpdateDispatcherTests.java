@@ -0,0 +1,104 @@
+package com.abhishek.realtimeinsighthub.service.push;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.abhishek.realtimeinsighthub.controller.WebSocketController;
+import com.abhishek.realtimeinsighthub.dto.AlertDto;
+import com.abhishek.realtimeinsighthub.dto.SentimentDataDto;
+import com.abhishek.realtimeinsighthub.dto.StockDataDto;
+import com.abhishek.realtimeinsighthub.entity.AlertRule;
+import com.abhishek.realtimeinsighthub.service.metrics.PipelineMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MarketUpdateDispatcherTests {
+
+	private static final Instant T0 = Instant.parse("2025-01-02T15:00:00Z");
+
+	private final WebSocketController controller = mock(WebSocketController.class);
+	private final SubscriptionRegistry subscriptions = new SubscriptionRegistry();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	// long interval so only the explicit flush() calls push
+	private final MarketUpdateDispatcher dispatcher = new MarketUpdateDispatcher(controller, subscriptions,
+		new PipelineMetrics(registry), Duration.ofHours(1));
+
+	@AfterEach
+	void stop() {
+		dispatcher.stop();
+	}
+
+	@Test
+	void pushesOnlyTheNewestUpdatePerSymbol() {
+		dispatcher.start();
+		subscriptions.subscribe("s1", "sub-0", "/topic/stock/AAPL");
+
+		StockDataDto newest = new StockDataDto(T0.plusSeconds(2), "AAPL", new BigDecimal("101"));
+		dispatcher.publishStock(new StockDataDto(T0, "AAPL", new BigDecimal("100")));
+		dispatcher.publishStock(newest);
+		// late tick does not replace the newer one
+		dispatcher.publishStock(new StockDataDto(T0.plusSeconds(1), "AAPL", new BigDecimal("99")));
+		dispatcher.flush();
+		dispatcher.flush();
+
+		verify(controller, times(1)).sendStockUpdate(any());
+		verify(controller).sendStockUpdate(newest);
+		assertEquals(1, registry.get("pipeline.latency").tags("type", "stock", "stage", "pushed").timer().count());
+	}
+
+	@Test
+	void timesSentimentPushesFromTheHeadlineFetch() {
+		dispatcher.start();
+		subscriptions.subscribe("s1", "sub-0", "/topic/sentiment/AAPL");
+
+		SentimentDataDto update = new SentimentDataDto(T0, "AAPL", "positive", 0.5, Instant.now());
+		dispatcher.publishSentiment(update);
+		dispatcher.flush();
+
+		verify(controller).sendSentimentUpdate(update);
+		assertEquals(1, registry.get("pipeline.latency").tags("type", "news", "stage", "pushed").timer().count());
+	}
+
+	@Test
+	void skipsSymbolsWithoutSubscribers() {
+		dispatcher.start();
+		subscriptions.subscribe("s1", "sub-0", "/topic/sentiment/AAPL");
+		subscriptions.disconnect("s1");
+
+		dispatcher.publishStock(new StockDataDto(T0, "TSLA", new BigDecimal("250")));
+		dispatcher.publishSentiment(new SentimentDataDto(T0, "AAPL", "positive", 0.5));
+		dispatcher.flush();
+
+		verify(controller, never()).sendStockUpdate(any());
+		verify(controller, never()).sendSentimentUpdate(any());
+	}
+
+	@Test
+	void sendsAlertsOnlyToSubscribedUsers() {
+		subscriptions.subscribe("s1", "sub-0", SubscriptionRegistry.destination(() -> "u1", "/user/queue/alerts"));
+		// a session without a principal cannot receive user destinations
+		subscriptions.subscribe("s2", "sub-0", SubscriptionRegistry.destination(null, "/user/queue/alerts"));
+
+		AlertDto mine = alert("u1");
+		dispatcher.publishAlert(mine);
+		dispatcher.publishAlert(alert("u2"));
+
+		verify(controller, times(1)).sendAlert(any());
+		verify(controller).sendAlert(mine);
+	}
+
+	private static AlertDto alert(String userId) {
+		return new AlertDto(1L, userId, "AAPL", AlertRule.Type.PRICE, AlertRule.Direction.ABOVE, 250, null, 251, T0);
+	}
+}
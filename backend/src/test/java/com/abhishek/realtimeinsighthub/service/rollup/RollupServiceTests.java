@@ -0,0 +1,135 @@
+package com.abhishek.realtimeinsighthub.service.rollup;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.abhishek.realtimeinsighthub.dto.StockChartDto;
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.PriceRollup;
+import com.abhishek.realtimeinsighthub.entity.PriceRollupId;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.repo.PriceRollupRepo;
+
+class RollupServiceTests {
+
+	private static final Instant T0 = Instant.parse("2025-01-02T15:00:00Z");
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+	@Test
+	void chartsBarsWithTheirOhlcPrices() {
+		PriceRollup bar = new PriceRollup();
+		bar.setId(new PriceRollupId("AAPL", 60, T0));
+		bar.addTick(T0.plusSeconds(10), new BigDecimal("100"));
+		bar.addTick(T0.plusSeconds(20), new BigDecimal("103"));
+		bar.addTick(T0.plusSeconds(30), new BigDecimal("99"));
+		bar.addTick(T0.plusSeconds(40), new BigDecimal("101"));
+
+		StockChartDto point = RollupService.toChart(List.of(bar)).get(0);
+
+		assertEquals(new BigDecimal("101"), point.getPrice());
+		assertEquals(new BigDecimal("100"), point.getOpen());
+		assertEquals(new BigDecimal("103"), point.getHigh());
+		assertEquals(new BigDecimal("99"), point.getLow());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void upsertsOneRowPerBucketAndResolution() {
+		RollupService service = new RollupService(jdbcTemplate, mock(PriceRollupRepo.class), 600, false);
+
+		service.onPrices(List.of(
+			price(T0.plusSeconds(10), "100"),
+			price(T0.plusSeconds(50), "103"),
+			price(T0.plusSeconds(20), "99"),
+			// next minute, same quarter and hour
+			price(T0.plusSeconds(70), "101")));
+
+		ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(contains("tick_count = price_rollups.tick_count + EXCLUDED.tick_count"),
+			rows.capture());
+		assertEquals(4, rows.getValue().size());
+		// stock, resolution, bucket, open, high, low, close, first, last, count
+		assertArrayEquals(new Object[] {"AAPL", 60, Timestamp.from(T0), new BigDecimal("100"), new BigDecimal("103"),
+				new BigDecimal("99"), new BigDecimal("103"), Timestamp.from(T0.plusSeconds(10)),
+				Timestamp.from(T0.plusSeconds(50)), 3},
+			rows.getValue().get(0));
+		Object[] hour = rows.getValue().stream().filter(row -> row[1].equals(3600)).findFirst().orElseThrow();
+		assertEquals(new BigDecimal("101"), hour[6]);
+		assertEquals(4, hour[9]);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void addsSentimentsWithoutTouchingPrices() {
+		RollupService service = new RollupService(jdbcTemplate, mock(PriceRollupRepo.class), 600, false);
+
+		service.onSentiments(List.of(sentiment(T0, 0.5), sentiment(T0.plusSeconds(5), -0.25), sentiment(T0, null)));
+
+		ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(contains("sentiment_count = price_rollups.sentiment_count"), rows.capture());
+		assertEquals(RollupResolution.values().length, rows.getValue().size());
+		// stock, resolution, bucket, count, sum, min, max
+		assertArrayEquals(new Object[] {"AAPL", 60, Timestamp.from(T0), 2, 0.25, -0.25, 0.5}, rows.getValue().get(0));
+	}
+
+	@Test
+	void backfillsOnlyFromTheNewestBucketOfEachResolution() {
+		Instant newestMinute = T0.plusSeconds(120);
+		when(jdbcTemplate.queryForObject(anyString(), eq(Timestamp.class), eq(60)))
+			.thenReturn(Timestamp.from(newestMinute));
+		when(jdbcTemplate.queryForObject(anyString(), eq(Timestamp.class), eq(900)))
+			.thenReturn(Timestamp.from(T0));
+		// nothing rolled up yet at this resolution
+		when(jdbcTemplate.queryForObject(anyString(), eq(Timestamp.class), eq(3600))).thenReturn(null);
+		RollupService service = new RollupService(jdbcTemplate, mock(PriceRollupRepo.class), 600, true);
+
+		service.backfillOnStartup();
+
+		verify(jdbcTemplate).update(contains("FROM prices"), eq(60), eq(60), eq(Timestamp.from(newestMinute)), any());
+		verify(jdbcTemplate).update(contains("FROM sentiments"), eq(60), eq(60), eq(Timestamp.from(newestMinute)), any());
+		verify(jdbcTemplate).update(contains("FROM prices"), eq(900), eq(900), eq(Timestamp.from(T0)), any());
+		verify(jdbcTemplate).update(contains("FROM prices"), eq(3600), eq(3600), eq(Timestamp.from(Instant.EPOCH)), any());
+	}
+
+	@Test
+	void skipsTheStartupBackfillWhenDisabled() {
+		new RollupService(jdbcTemplate, mock(PriceRollupRepo.class), 600, false).backfillOnStartup();
+
+		verify(jdbcTemplate, never()).update(anyString(), anyInt(), anyInt(), any(), any());
+	}
+
+	private static Price price(Instant timestamp, String value) {
+		Price price = new Price();
+		price.setStock("AAPL");
+		price.setTimestamp(timestamp);
+		price.setPrice(new BigDecimal(value));
+		return price;
+	}
+
+	private static Sentiment sentiment(Instant timestamp, Double compound) {
+		Sentiment sentiment = new Sentiment();
+		sentiment.setStock("AAPL");
+		sentiment.setTimestamp(timestamp);
+		sentiment.setCompoundScore(compound);
+		return sentiment;
+	}
+}
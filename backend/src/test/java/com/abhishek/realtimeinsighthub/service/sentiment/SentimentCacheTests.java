@@ -0,0 +1,65 @@
+package com.abhishek.realtimeinsighthub.service.sentiment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.SentimentResponseDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class SentimentCacheTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final SentimentCache cache = new SentimentCache(registry, 100, Duration.ofHours(1));
+	private final List<List<NewsDataDto>> requests = new ArrayList<>();
+
+	private final SentimentScorer scorer = batch -> {
+		requests.add(batch);
+		return Mono.just(batch.stream()
+			.map(n -> new SentimentResponseDto(n.getTimestamp(), n.getStock(), "positive",
+				Map.of("compound", (double) n.getNewsData().toString().length())))
+			.toList());
+	};
+
+	@Test
+	void scoresEachDistinctTextOnce() {
+		Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+		List<NewsDataDto> batch = List.of(
+			new NewsDataDto(t0, "AAPL", "Apple beats estimates"),
+			new NewsDataDto(t0, "MSFT", "Apple  beats estimates "),
+			new NewsDataDto(t0.plusSeconds(1), "AAPL", "Apple misses"));
+
+		List<SentimentResponseDto> results = cache.score(batch, scorer).block();
+
+		assertEquals(1, requests.size());
+		assertEquals(2, requests.get(0).size());
+		assertEquals(3, results.size());
+		// duplicates keep their own stock and timestamp
+		assertEquals("MSFT", results.get(1).getStock());
+		assertEquals(results.get(0).getScores(), results.get(1).getScores());
+		assertEquals(t0.plusSeconds(1), results.get(2).getTimestamp());
+	}
+
+	@Test
+	void answersRepeatedTextsWithoutTheScorer() {
+		Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+		cache.score(List.of(new NewsDataDto(t0, "AAPL", "Apple beats estimates")), scorer).block();
+
+		List<SentimentResponseDto> results = cache.score(List.of(
+			new NewsDataDto(t0.plusSeconds(60), "AAPL", "Apple beats estimates")), scorer).block();
+
+		assertEquals(1, requests.size());
+		assertEquals(t0.plusSeconds(60), results.get(0).getTimestamp());
+		assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+		assertEquals(1, cache.size());
+	}
+}
@@ -0,0 +1,41 @@
+package com.abhishek.realtimeinsighthub.service.sentiment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class VaderSentimentAnalyzerTests {
+
+	private static final VaderSentimentAnalyzer ANALYZER = VaderSentimentAnalyzer.fromClasspath();
+
+	// reference outputs of vaderSentiment 3.3.2 polarity_scores
+	@ParameterizedTest
+	@CsvSource(delimiter = '|', value = {
+		"VADER is smart, handsome, and funny.|0.0|0.254|0.746|0.8316",
+		"VADER is smart, handsome, and funny!|0.0|0.248|0.752|0.8439",
+		"VADER is very smart, handsome, and funny.|0.0|0.299|0.701|0.8545",
+		"VADER is VERY SMART, handsome, and FUNNY.|0.0|0.246|0.754|0.9227",
+		"VADER is VERY SMART, handsome, and FUNNY!!!|0.0|0.233|0.767|0.9342",
+		"VADER is VERY SMART, uber handsome, and FRIGGIN FUNNY!!!|0.0|0.294|0.706|0.9469",
+		"VADER is not smart, handsome, nor funny.|0.646|0.354|0.0|-0.7424",
+		"The book was good.|0.0|0.508|0.492|0.4404",
+		"The book was only kind of good.|0.0|0.697|0.303|0.3832",
+		"The plot was good, but the characters are uncompelling and the dialog is not great.|0.327|0.579|0.094|-0.7042",
+		"Today SUX!|0.779|0.221|0.0|-0.5461",
+		"Today only kinda sux! But I'll get by, lol|0.127|0.556|0.317|0.5249",
+		"Make sure you :) or :D today!|0.0|0.294|0.706|0.8633",
+		"Not bad at all|0.0|0.513|0.487|0.431",
+		"''|0.0|0.0|0.0|0.0"
+	})
+	void matchesReferenceScores(String text, double neg, double neu, double pos, double compound) {
+		Map<String, Double> scores = ANALYZER.polarityScores(text);
+
+		assertEquals(neg, scores.get("neg"), 1e-9, text);
+		assertEquals(neu, scores.get("neu"), 1e-9, text);
+		assertEquals(pos, scores.get("pos"), 1e-9, text);
+		assertEquals(compound, scores.get("compound"), 1e-9, text);
+	}
+}
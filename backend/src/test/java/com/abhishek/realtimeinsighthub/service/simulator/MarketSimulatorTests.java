@@ -0,0 +1,42 @@
+package com.abhishek.realtimeinsighthub.service.simulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.abhishek.realtimeinsighthub.dto.StockDataDto;
+
+class MarketSimulatorTests {
+
+	private static final Instant T0 = Instant.parse("2025-01-02T15:00:00Z");
+
+	@Test
+	void sameSeedReplaysTheSameMarket() {
+		List<String> symbols = MarketSimulator.symbols(List.of("AAPL", "TSLA"), 50);
+		MarketSimulator a = new MarketSimulator(symbols, 7, 0.01);
+		MarketSimulator b = new MarketSimulator(symbols, 7, 0.01);
+
+		for (int round = 0; round < 20; round++) {
+			assertEquals(a.nextTicks(50, T0), b.nextTicks(50, T0));
+			assertEquals(a.nextHeadlines(3, T0), b.nextHeadlines(3, T0));
+		}
+		assertNotEquals(new MarketSimulator(symbols, 8, 0.01).nextTicks(50, T0), a.nextTicks(50, T0));
+	}
+
+	@Test
+	void cyclesThroughSymbolsWithPositivePrices() {
+		List<String> symbols = MarketSimulator.symbols(List.of("AAPL"), 3);
+		assertEquals(List.of("AAPL", "SIM0000", "SIM0001"), symbols);
+
+		MarketSimulator simulator = new MarketSimulator(symbols, 1, 0.05);
+		List<StockDataDto> ticks = simulator.nextTicks(3000, T0);
+		assertEquals("SIM0000", ticks.get(1000).getStock());
+		assertTrue(ticks.stream().allMatch(t -> t.getPrice().compareTo(BigDecimal.ZERO) > 0));
+	}
+}
@@ -0,0 +1,164 @@
+package com.abhishek.realtimeinsighthub.service.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.abhishek.realtimeinsighthub.dto.MarketSnapshotDto;
+import com.abhishek.realtimeinsighthub.dto.PricePoint;
+import com.abhishek.realtimeinsighthub.dto.SentimentPoint;
+import com.abhishek.realtimeinsighthub.dto.StockChartDto;
+import com.abhishek.realtimeinsighthub.dto.StockPricePoint;
+import com.abhishek.realtimeinsighthub.dto.StockSentimentPoint;
+import com.abhishek.realtimeinsighthub.entity.Price;
+import com.abhishek.realtimeinsighthub.entity.Sentiment;
+import com.abhishek.realtimeinsighthub.repo.PriceRepo;
+import com.abhishek.realtimeinsighthub.repo.SentimentRepo;
+import com.abhishek.realtimeinsighthub.service.live.LiveTickStore;
+import com.abhishek.realtimeinsighthub.service.live.MarketSnapshotStore;
+import com.abhishek.realtimeinsighthub.service.live.TickRingBuffer;
+import com.abhishek.realtimeinsighthub.service.publisher.NewsDedupeIndex;
+
+class HotStateSnapshotTests {
+
+	@TempDir
+	Path dir;
+
+	private final PriceRepo priceRepo = mock(PriceRepo.class);
+	private final SentimentRepo sentimentRepo = mock(SentimentRepo.class);
+
+	@Test
+	void restoresBuffersAndReadsOnlyTheGapFromTheDatabase() throws Exception {
+		Instant start = Instant.now().minus(Duration.ofMinutes(10));
+		LiveTickStore ticks = new LiveTickStore(16);
+		MarketSnapshotStore market = new MarketSnapshotStore(mock(JdbcTemplate.class), List.of("AAPL"));
+		List<Price> prices = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			prices.add(price(start.plusSeconds(i), "100." + i));
+		}
+		List<Sentiment> sentiments = List.of(sentiment(start.plusSeconds(2)));
+		// the window was seeded from the database before the snapshot
+		ticks.seed("AAPL", start.minusSeconds(1),
+			prices.stream().map(p -> new PricePoint(p.getTimestamp(), p.getPrice())).toList(),
+			sentiments.stream().map(s -> new SentimentPoint(s.getTimestamp(), s.getSentiment(), s.getCompoundScore())).toList());
+		market.onPrices(prices);
+		market.onSentiments(sentiments);
+		snapshot(ticks, market).write(true);
+
+		// written after the snapshot, only in the database
+		Price gap = price(Instant.now(), "101");
+		when(priceRepo.streamPointsAfter(any())).thenReturn(Stream.of(point(gap)));
+		when(sentimentRepo.streamPointsAfter(any())).thenReturn(Stream.of());
+		LiveTickStore restoredTicks = new LiveTickStore(16);
+		MarketSnapshotStore restoredMarket = new MarketSnapshotStore(mock(JdbcTemplate.class), List.of("AAPL"));
+
+		assertTrue(snapshot(restoredTicks, restoredMarket).restore());
+
+		// no per-symbol seed query needed
+		List<StockChartDto> chart = restoredTicks.getChartData("AAPL", start.minusSeconds(1)).orElseThrow();
+		assertEquals(6, chart.size());
+		assertEquals(new BigDecimal("100.2000"), chart.get(2).getPrice());
+		assertEquals("positive", chart.get(2).getSentiment());
+		assertEquals(new BigDecimal("101.0000"), chart.get(5).getPrice());
+
+		MarketSnapshotDto row = restoredMarket.snapshot().get(0);
+		assertEquals(new BigDecimal("101"), row.getPrice());
+		assertEquals(0.6, row.getCompound());
+	}
+
+	@Test
+	void keepsOnlyWhatALiveBufferHoldsAndThePreviousClose() throws Exception {
+		Instant start = Instant.now().minus(Duration.ofMinutes(10));
+		LiveTickStore ticks = new LiveTickStore(16);
+		MarketSnapshotStore market = new MarketSnapshotStore(mock(JdbcTemplate.class), List.of("AAPL"));
+		snapshot(ticks, market).write(true);
+
+		// the last price of the previous trading day, then more ticks than a buffer holds
+		Instant dayStart = MarketSnapshotStore.tradingDay(start).atStartOfDay(ZoneId.of("America/New_York")).toInstant();
+		List<StockPricePoint> gap = new ArrayList<>();
+		gap.add(new StockPricePoint("AAPL", dayStart.minusSeconds(60), new BigDecimal("90")));
+		for (int i = 0; i < 40; i++) {
+			gap.add(new StockPricePoint("AAPL", dayStart.plusSeconds(i), new BigDecimal(100 + i)));
+		}
+		when(priceRepo.streamPointsAfter(any())).thenReturn(gap.stream());
+		when(sentimentRepo.streamPointsAfter(any())).thenReturn(Stream.of(
+			new StockSentimentPoint("AAPL", dayStart.plusSeconds(5), "positive", 0.6)));
+		LiveTickStore restoredTicks = new LiveTickStore(16);
+		MarketSnapshotStore restoredMarket = new MarketSnapshotStore(mock(JdbcTemplate.class), List.of("AAPL"));
+
+		assertTrue(snapshot(restoredTicks, restoredMarket).restore());
+
+		TickRingBuffer buffer = restoredTicks.buffers().get("AAPL");
+		List<StockChartDto> chart = buffer.chartSince(0);
+		assertEquals(16, chart.size());
+		assertEquals(new BigDecimal("124.0000"), chart.get(0).getPrice());
+		MarketSnapshotDto row = restoredMarket.snapshot().get(0);
+		assertEquals(new BigDecimal("139"), row.getPrice());
+		assertEquals(new BigDecimal("90"), row.getPreviousClose());
+		assertEquals(0.6, row.getCompound());
+	}
+
+	@Test
+	void ignoresMissingStaleOrForeignFiles() throws Exception {
+		LiveTickStore ticks = new LiveTickStore(16);
+		MarketSnapshotStore market = new MarketSnapshotStore(mock(JdbcTemplate.class), List.of());
+		assertFalse(snapshot(ticks, market).restore());
+
+		Files.write(dir.resolve("hot-state.snapshot"), new byte[64]);
+		assertFalse(snapshot(ticks, market).restore());
+
+		SnapshotFile.write(dir.resolve("hot-state.snapshot"), Instant.now().minus(Duration.ofHours(2)),
+			new HashMap<>());
+		assertFalse(snapshot(ticks, market).restore());
+	}
+
+	private HotStateSnapshot snapshot(LiveTickStore ticks, MarketSnapshotStore market) {
+		@SuppressWarnings("unchecked")
+		ObjectProvider<NewsDedupeIndex> dedupe = mock(ObjectProvider.class);
+		return new HotStateSnapshot(ticks, market, dedupe, priceRepo, sentimentRepo,
+			mock(PlatformTransactionManager.class),
+			dir.resolve("hot-state.snapshot").toString(), Duration.ofSeconds(30),
+			Duration.ofHours(1));
+	}
+
+	private static Price price(Instant timestamp, String value) {
+		Price price = new Price();
+		price.setStock("AAPL");
+		price.setTimestamp(timestamp);
+		price.setPrice(new BigDecimal(value));
+		return price;
+	}
+
+	private static StockPricePoint point(Price price) {
+		return new StockPricePoint(price.getStock(), price.getTimestamp(), price.getPrice());
+	}
+
+	private static Sentiment sentiment(Instant timestamp) {
+		Sentiment sentiment = new Sentiment();
+		sentiment.setStock("AAPL");
+		sentiment.setTimestamp(timestamp);
+		sentiment.setSentiment("positive");
+		sentiment.setCompoundScore(0.6);
+		return sentiment;
+	}
+}
@@ -0,0 +1,71 @@
+package com.abhishek.realtimeinsighthub.service.wire;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+
+import com.abhishek.realtimeinsighthub.dto.NewsDataDto;
+import com.abhishek.realtimeinsighthub.dto.StockDataDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class MarketDataCodecTests {
+
+	private static final Instant T0 = Instant.parse("2025-01-02T15:04:05.123Z");
+	private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+	private final MarketDataCodec binary = new MarketDataCodec(MAPPER, List.of("AAPL", "TSLA"), "binary");
+	private final MarketDataCodec json = new MarketDataCodec(MAPPER, List.of("AAPL", "TSLA"), "json");
+
+	@Test
+	void roundTripsTicksInTwentyBytes() throws Exception {
+		StockDataDto tick = new StockDataDto(T0, "TSLA", new BigDecimal("251.37"));
+
+		ProducerRecord<String, byte[]> record = binary.stockRecord("stock-topic", tick);
+
+		assertEquals(MarketDataCodec.STOCK_V1, contentType(record));
+		assertEquals(20, record.value().length);
+		assertEquals(tick, binary.decodeStock(consumed(record)));
+	}
+
+	@Test
+	void inlinesSymbolsMissingFromTheTable() throws Exception {
+		NewsDataDto news = new NewsDataDto(T0, "NFLX", "Netflix subscriber growth beats expectations");
+
+		ProducerRecord<String, byte[]> record = binary.newsRecord("news-topic", news);
+
+		assertEquals(MarketDataCodec.NEWS_V1, contentType(record));
+		assertEquals(news, binary.decodeNews(consumed(record)));
+	}
+
+	@Test
+	void readsJsonWithAndWithoutHeader() throws Exception {
+		StockDataDto tick = new StockDataDto(T0, "AAPL", new BigDecimal("189.84"));
+
+		ProducerRecord<String, byte[]> record = json.stockRecord("stock-topic", tick);
+		assertEquals(MarketDataCodec.JSON, contentType(record));
+		assertEquals(tick, binary.decodeStock(consumed(record)));
+
+		// records from producers that predate the header
+		byte[] legacy = MAPPER.writeValueAsBytes(tick);
+		assertEquals(tick, binary.decodeStock(new ConsumerRecord<>("stock-topic", 0, 0, null, legacy)));
+		assertTrue(legacy.length > 3 * 20);
+	}
+
+	private static ConsumerRecord<String, byte[]> consumed(ProducerRecord<String, byte[]> record) {
+		ConsumerRecord<String, byte[]> consumed = new ConsumerRecord<>(record.topic(), 0, 0, null, record.value());
+		record.headers().forEach(consumed.headers()::add);
+		return consumed;
+	}
+
+	private static String contentType(ProducerRecord<String, byte[]> record) {
+		return new String(record.headers().lastHeader(MarketDataCodec.CONTENT_TYPE).value(), StandardCharsets.US_ASCII);
+	}
+}
@@ -27,43 +27,61 @@ ChartJS.register(
   CategoryScale
 );
 
+const toPriceSeries = (data) => data
+  .filter(d => d.price && d.price !== undefined && d.price !== null)
+  .map(d => ({
+    x: new Date(d.timestamp),
+    y: d.price,
+    // trend ranges served from rollup bars also carry the bar's open, high and low
+    ...(d.open != null && { open: d.open, high: d.high, low: d.low })
+  }));
+
+const toSentimentSeries = (data) => data
+  .filter(d => d.sentiment && d.compound !== undefined && d.compound !== null)
+  .map(d => ({
+    x: new Date(d.timestamp),
+    y: d.compound,
+    sentiment: d.sentiment
+  }));
+
+// points from the first updated timestamp on replace what the chart holds
+const mergeFrom = (prev, updated, from) => [
+  ...prev.filter(item => new Date(item.x).getTime() < from),
+  ...updated
+];
+
 export default function StockChart({ stock, mode = "live", range = "1d" }) {
   const [connectionStatus, setConnectionStatus] = useState('Connecting...');
   const clientRef = useRef(null);
   const stockSubscriptionRef = useRef(null);
   const sentimentSubscriptionRef = useRef(null);
+  const analyticsSubscriptionRef = useRef(null);
   const [priceSeries, setPriceSeries] = useState([]);
   const [sentimentSeries, setSentimentSeries] = useState([]);
+  const [analytics, setAnalytics] = useState(null);
   const [isInitialLoad, setIsInitialLoad] = useState(true);
+  const cursorRef = useRef(null);
 
   useEffect(() => {
     console.log('STOCK:', stock);
 
+    // live charts keep a cursor so a reconnect only fetches what changed
     let url = mode === "trend"
       ? `/api/chart/${stock}/trend?range=${range}`
-      : `/api/chart/${stock}/live`;
+      : `/api/chart/${stock}/live?since=0`;
+    cursorRef.current = null;
+    setAnalytics(null);
     
     axios.get(url)
       .then((res) => {
-        const data = res.data;
-
-        const price = data
-          .filter(d => d.price && d.price !== undefined && d.price !== null)
-          .map(d => ({
-          x: new Date(d.timestamp),
-          y: d.price
-          }));
-
-        const sentiment = data
-          .filter(d => d.sentiment && d.compound !== undefined && d.compound !== null)
-          .map(d => ({
-            x: new Date(d.timestamp),
-            y: d.compound,
-            sentiment: d.sentiment
-          }));
-
-        setPriceSeries(price);
-        setSentimentSeries(sentiment);
+        const data = mode === "trend" ? res.data : res.data.points;
+        if (mode !== "trend") {
+          cursorRef.current = res.data.cursor;
+          setAnalytics(res.data.analytics);
+        }
+
+        setPriceSeries(toPriceSeries(data));
+        setSentimentSeries(toSentimentSeries(data));
         setIsInitialLoad(false);
       })
       .catch((err) => {
@@ -85,7 +103,22 @@ export default function StockChart({ stock, mode = "live", range = "1d" }) {
         console.log('WebSocket Connected:', frame);
         setConnectionStatus('Connected');
 
-        stockSubscriptionRef.current = client.subscribe('/topic/stock', (message) => {
+        // catch up on whatever was missed while disconnected
+        if (cursorRef.current) {
+          axios.get(`/api/chart/${stock}/live?since=${cursorRef.current}`)
+            .then((res) => {
+              const { points, cursor } = res.data;
+              cursorRef.current = cursor;
+              if (res.data.analytics) setAnalytics(res.data.analytics);
+              if (points.length === 0) return;
+              const from = new Date(points[0].timestamp).getTime();
+              setPriceSeries(prev => mergeFrom(prev, toPriceSeries(points), from));
+              setSentimentSeries(prev => mergeFrom(prev, toSentimentSeries(points), from));
+            })
+            .catch((err) => console.error(err));
+        }
+
+        stockSubscriptionRef.current = client.subscribe(`/topic/stock/${stock}`, (message) => {
           try {
             const stockUpdate = JSON.parse(message.body);
             console.log('Received stock update:', stockUpdate);
@@ -117,7 +150,7 @@ export default function StockChart({ stock, mode = "live", range = "1d" }) {
           }
         });
 
-        sentimentSubscriptionRef.current = client.subscribe('/topic/sentiment', (message) => {
+        sentimentSubscriptionRef.current = client.subscribe(`/topic/sentiment/${stock}`, (message) => {
           try {
             const sentimentUpdate = JSON.parse(message.body);
             console.log('Received sentiment update:', sentimentUpdate);
@@ -162,6 +195,16 @@ export default function StockChart({ stock, mode = "live", range = "1d" }) {
             console.error('Error processing sentiment update:', error);
           }
         });
+
+        // rolling values computed by the backend as ticks and headlines are consumed
+        analyticsSubscriptionRef.current = client.subscribe(`/topic/analytics/${stock}`, (message) => {
+          try {
+            const analyticsUpdate = JSON.parse(message.body);
+            if (analyticsUpdate.stock === stock) setAnalytics(analyticsUpdate);
+          } catch (error) {
+            console.error('Error processing analytics update:', error);
+          }
+        });
       },
 
       onWebSocketError: (error) => {
@@ -200,6 +243,10 @@ export default function StockChart({ stock, mode = "live", range = "1d" }) {
           sentimentSubscriptionRef.current.unsubscribe();
           sentimentSubscriptionRef.current = null;
         }
+        if (analyticsSubscriptionRef.current) {
+          analyticsSubscriptionRef.current.unsubscribe();
+          analyticsSubscriptionRef.current = null;
+        }
         if (clientRef.current && clientRef.current.connected) {
           clientRef.current.deactivate();
         }
@@ -316,6 +363,12 @@ export default function StockChart({ stock, mode = "live", range = "1d" }) {
             const d = context.raw;
 
             if (datasetLabel === "Stock Price (USD)") {
+              if (d.open != null) {
+                return [
+                  `Close: $${d.y.toFixed(2)}`,
+                  `Open: $${d.open.toFixed(2)}  High: $${d.high.toFixed(2)}  Low: $${d.low.toFixed(2)}`
+                ];
+              }
               return `Price: $${d.y.toFixed(2)}`;
             }
 
@@ -441,6 +494,14 @@ export default function StockChart({ stock, mode = "live", range = "1d" }) {
                 {sentimentSeries[sentimentSeries.length - 1].y?.toFixed(2)})
               </div>
             )}
+            {mode === "live" && analytics && (
+              <small>
+                MA({analytics.samples}): {analytics.movingAverage?.toFixed(2) ?? "N/A"} • 
+                Sentiment EMA: {analytics.sentimentEma?.toFixed(3) ?? "N/A"} • 
+                Volatility: {analytics.volatility != null ? (analytics.volatility * 100).toFixed(3) + "%" : "N/A"} • 
+                Correlation: {analytics.correlation?.toFixed(2) ?? "N/A"}
+              </small>
+            )}
           </div>
         </div>
       </div>
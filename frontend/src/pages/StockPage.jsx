@@ -41,6 +41,8 @@ export default function StockPage() {
             <MenuItem value="1d">1 Day</MenuItem>
             <MenuItem value="7d">1 Week</MenuItem>
             <MenuItem value="1m">1 Month</MenuItem>
+            <MenuItem value="6m">6 Months</MenuItem>
+            <MenuItem value="1y">1 Year</MenuItem>
           </Select>
         </div>
 